@@ -49,4 +49,16 @@ public class BoardFamilyController {
             @RequestParam String newPhase) {
         return ResponseEntity.ok(service.duplicateBoardFamily(id, newPhase));
     }
-}
\ No newline at end of file
+
+    // Duplicates several families into a new phase, e.g. /duplicate?ids=1,2,3&newPhase=Serie
+    @PostMapping("/duplicate")
+    public ResponseEntity<List<BoardFamilyDTO>> duplicateBoardFamilies(
+            @RequestParam List<Long> ids,
+            @RequestParam String newPhase) {
+        try {
+            return ResponseEntity.ok(service.duplicateBoardFamilies(ids, newPhase));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.sebn.brettbau.domain.board.controller;
 
+import com.sebn.brettbau.domain.board.dto.BomComparisonCacheStatsDTO;
 import com.sebn.brettbau.domain.board.dto.BomComparisonItemDTO;
+import com.sebn.brettbau.domain.board.dto.BomComparisonMatrixDTO;
+import com.sebn.brettbau.domain.board.service.BomComparisonCache;
 import com.sebn.brettbau.domain.board.service.BomComparisonService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -13,9 +16,11 @@ import java.util.List;
 public class BomComparisonController {
 
     private final BomComparisonService comparisonService;
+    private final BomComparisonCache comparisonCache;
 
-    public BomComparisonController(BomComparisonService comparisonService) {
+    public BomComparisonController(BomComparisonService comparisonService, BomComparisonCache comparisonCache) {
          this.comparisonService = comparisonService;
+         this.comparisonCache = comparisonCache;
     }
 
     @GetMapping("/compare")
@@ -24,4 +29,21 @@ public class BomComparisonController {
          List<BomComparisonItemDTO> comparisons = comparisonService.compareBomItems(family1Id, family2Id);
          return ResponseEntity.ok(comparisons);
     }
-}
\ No newline at end of file
+
+    // Change summary of every ordered pair, e.g. /compare-matrix?familyIds=1,2,3&details=false
+    @GetMapping("/compare-matrix")
+    public ResponseEntity<BomComparisonMatrixDTO> compareMatrix(@RequestParam List<Long> familyIds,
+                                                                @RequestParam(defaultValue = "false") boolean details) {
+         try {
+              return ResponseEntity.ok(comparisonService.compareMatrix(familyIds, details));
+         } catch (IllegalArgumentException e) {
+              return ResponseEntity.badRequest().build();
+         }
+    }
+
+    // Hit, miss and eviction counts of the comparison cache
+    @GetMapping("/compare-cache-stats")
+    public ResponseEntity<BomComparisonCacheStatsDTO> compareCacheStats() {
+         return ResponseEntity.ok(comparisonCache.getStats());
+    }
+}
@@ -33,4 +33,5 @@ public class BoardFamilyDTO {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private List<BomItemDTO> bomItems;
+    private BomMergeResultDTO bomChanges;  // Rows touched by the last save; set in responses only
 }
\ No newline at end of file
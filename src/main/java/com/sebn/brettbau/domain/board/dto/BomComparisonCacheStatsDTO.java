@@ -0,0 +1,12 @@
+package com.sebn.brettbau.domain.board.dto;
+
+import lombok.Data;
+
+@Data
+public class BomComparisonCacheStatsDTO {
+    private int entries;
+    private int maxEntries;
+    private long hits;
+    private long misses;
+    private long evictions;             // Least recently used entries dropped to stay within maxEntries
+}
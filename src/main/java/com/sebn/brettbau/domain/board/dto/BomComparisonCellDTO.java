@@ -0,0 +1,15 @@
+package com.sebn.brettbau.domain.board.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BomComparisonCellDTO {
+    private Long family1Id;             // Before family
+    private Long family2Id;             // After family
+    private boolean identical;          // No differences at all
+    private int added;
+    private int removed;
+    private int modified;
+    private List<BomComparisonItemDTO> differences; // Only when details were requested
+}
@@ -0,0 +1,13 @@
+package com.sebn.brettbau.domain.board.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BomComparisonMatrixDTO {
+    private List<Long> familyIds;            // Row and column order
+    private List<String> familyNames;
+    private List<Integer> lineCounts;
+    private List<String> fingerprints;       // Hex BOM fingerprint; equal fingerprints mean equal BOMs
+    private List<BomComparisonCellDTO> cells; // Every ordered pair of different families, row by row
+}
@@ -0,0 +1,11 @@
+package com.sebn.brettbau.domain.board.dto;
+
+import lombok.Data;
+
+@Data
+public class BomMergeResultDTO {
+    private int inserted;
+    private int updated;               // Includes lines moved here from another family
+    private int deleted;
+    private int unchanged;             // Sent back as they were; no statement issued
+}
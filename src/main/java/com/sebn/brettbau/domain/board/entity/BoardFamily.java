@@ -41,6 +41,11 @@ public class BoardFamily {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Bumped with an UPDATE ... + 1 whenever the family or its BOM changes; never written from the entity
+    @Column(name = "bom_version", nullable = false, updatable = false)
+    @Builder.Default
+    private Long bomVersion = 0L;
+    
     @OneToMany(mappedBy = "boardFamily", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<BomItem> bomItems = new ArrayList<>();
     
@@ -2,8 +2,10 @@ package com.sebn.brettbau.domain.board.repository;
 
 import com.sebn.brettbau.domain.board.entity.BoardFamily;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -20,4 +22,17 @@ public interface BoardFamilyRepository extends JpaRepository<BoardFamily, Long>
     // New method to load a board family with its BOM items
     @Query("SELECT b FROM BoardFamily b LEFT JOIN FETCH b.bomItems WHERE b.id = ?1")
     BoardFamily findByIdWithBomItems(Long id);
+
+    // Several board families with their BOM items, in one query
+    @Query("SELECT DISTINCT b FROM BoardFamily b LEFT JOIN FETCH b.bomItems WHERE b.id IN ?1")
+    List<BoardFamily> findAllByIdWithBomItems(Collection<Long> ids);
+
+    // {id, bomVersion} rows, to check the comparison cache without loading any BOM items
+    @Query("SELECT b.id, b.bomVersion FROM BoardFamily b WHERE b.id IN ?1")
+    List<Object[]> findBomVersions(Collection<Long> ids);
+
+    // Atomic increment, so concurrent edits of the same family never share a version
+    @Modifying
+    @Query("UPDATE BoardFamily b SET b.bomVersion = b.bomVersion + 1 WHERE b.id IN ?1")
+    int incrementBomVersions(Collection<Long> ids);
 }
\ No newline at end of file
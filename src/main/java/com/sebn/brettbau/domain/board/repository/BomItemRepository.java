@@ -2,10 +2,22 @@ package com.sebn.brettbau.domain.board.repository;
 
 import com.sebn.brettbau.domain.board.entity.BomItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface BomItemRepository extends JpaRepository<BomItem, Long> {
     List<BomItem> findByBoardFamilyId(Long boardFamilyId);
-}
\ No newline at end of file
+
+    // Copies every BOM line of one family to another in a single statement
+    @Modifying
+    @Query(value = "INSERT INTO bom_items (board_family_id, segment, kurzname, ident_matchcode, model_type, " +
+                   "sesam_number, missing_on_board, quantity_on_board, observation, price, motif, created_at, updated_at) " +
+                   "SELECT ?2, segment, kurzname, ident_matchcode, model_type, sesam_number, missing_on_board, " +
+                   "quantity_on_board, observation, price, motif, ?3, ?3 " +
+                   "FROM bom_items WHERE board_family_id = ?1 ORDER BY id", nativeQuery = true)
+    int copyToFamily(Long sourceFamilyId, Long targetFamilyId, LocalDateTime createdAt);
+}
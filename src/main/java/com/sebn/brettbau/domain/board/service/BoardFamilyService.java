@@ -4,23 +4,34 @@ import com.sebn.brettbau.domain.board.dto.BomComparisonItemDTO;
 import com.sebn.brettbau.domain.board.dto.BomItemDTO;
 import com.sebn.brettbau.domain.board.dto.BoardFamilyComparisonDTO;
 import com.sebn.brettbau.domain.board.dto.BoardFamilyDTO;
+import com.sebn.brettbau.domain.board.dto.BomMergeResultDTO;
 import com.sebn.brettbau.domain.board.entity.BomItem;
 import com.sebn.brettbau.domain.board.entity.BoardFamily;
 import com.sebn.brettbau.domain.board.repository.BomItemRepository;
 import com.sebn.brettbau.domain.board.repository.BoardFamilyRepository;
 import com.sebn.brettbau.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BoardFamilyService {
+    private static final String INSERT_BOM_ITEM_SQL =
+        "INSERT INTO bom_items (board_family_id, segment, kurzname, ident_matchcode, model_type, sesam_number, " +
+        "missing_on_board, quantity_on_board, observation, price, motif, created_at, updated_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
     private final BoardFamilyRepository boardFamilyRepository;
     private final BomItemRepository bomItemRepository;
+    private final BomComparisonCache comparisonCache;
+    private final JdbcTemplate jdbcTemplate;
 
     @Transactional(readOnly = true)
     public List<BoardFamilyDTO> getAllBoardFamilies() {
@@ -40,7 +51,7 @@ public class BoardFamilyService {
     public BoardFamilyDTO createBoardFamily(BoardFamilyDTO dto) {
         BoardFamily entity = mapToEntity(dto);
         BoardFamily saved = boardFamilyRepository.save(entity);
-        return mapToDTO(saved);
+        return saveBomItems(saved, dto.getBomItems());
     }
 
     @Transactional
@@ -50,7 +61,8 @@ public class BoardFamilyService {
 
         updateEntityFromDTO(existing, dto);
         BoardFamily updated = boardFamilyRepository.save(existing);
-        return mapToDTO(updated);
+        boardFamilyRepository.incrementBomVersions(List.of(id));
+        return saveBomItems(updated, dto.getBomItems());
     }
 
     @Transactional
@@ -66,6 +78,49 @@ public class BoardFamilyService {
         BoardFamily original = boardFamilyRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Board family not found with id: " + id));
 
+        BoardFamily duplicate = copyFamily(original, newPhase, LocalDateTime.now());
+
+        // The copied lines were inserted by SQL, so read them back rather than from the entity
+        BoardFamilyDTO dto = mapToDTO(duplicate);
+        dto.setBomItems(bomItemRepository.findByBoardFamilyId(duplicate.getId()).stream()
+            .map(this::mapBomToDTO)
+            .collect(Collectors.toList()));
+        return dto;
+    }
+
+    /**
+     * Duplicates several families and their BOMs into a new phase in one transaction,
+     * e.g. every family of a project's current phase. The duplicates are returned in
+     * the order of the ids, without their BOM items.
+     */
+    @Transactional
+    public List<BoardFamilyDTO> duplicateBoardFamilies(List<Long> ids, String newPhase) {
+        List<Long> distinctIds = ids == null ? List.of() : ids.stream()
+            .filter(Objects::nonNull)
+            .distinct()
+            .collect(Collectors.toList());
+        if (distinctIds.isEmpty() || newPhase == null || newPhase.isBlank()) {
+            throw new IllegalArgumentException("At least one board family and a new phase are required");
+        }
+
+        Map<Long, BoardFamily> originals = boardFamilyRepository.findAllById(distinctIds).stream()
+            .collect(Collectors.toMap(BoardFamily::getId, family -> family));
+        LocalDateTime now = LocalDateTime.now();
+        List<BoardFamilyDTO> duplicates = new ArrayList<>();
+        for (Long id : distinctIds) {
+            BoardFamily original = originals.get(id);
+            if (original == null) {
+                throw new ResourceNotFoundException("Board family not found with id: " + id);
+            }
+            BoardFamilyDTO dto = mapToDTO(copyFamily(original, newPhase, now));
+            dto.setBomItems(null);
+            duplicates.add(dto);
+        }
+        return duplicates;
+    }
+
+    // Saves a copy of the family, then copies its BOM with one INSERT ... SELECT
+    private BoardFamily copyFamily(BoardFamily original, String newPhase, LocalDateTime now) {
         BoardFamily duplicate = new BoardFamily();
         duplicate.setFamilyName(original.getFamilyName() + " (Copy)");
         duplicate.setProject(original.getProject());
@@ -76,45 +131,40 @@ public class BoardFamilyService {
 
         // Save the duplicate first to get an ID
         BoardFamily savedDuplicate = boardFamilyRepository.save(duplicate);
-
-        // Copy BOM items
-        List<BomItem> duplicatedItems = original.getBomItems().stream()
-            .map(item -> {
-                BomItem newItem = new BomItem();
-                newItem.setBoardFamily(savedDuplicate);
-                newItem.setSegment(item.getSegment());
-                newItem.setKurzname(item.getKurzname());
-                newItem.setIdentMatchcode(item.getIdentMatchcode());
-                newItem.setModelType(item.getModelType());
-                newItem.setSesamNumber(item.getSesamNumber());
-                newItem.setMissingOnBoard(item.getMissingOnBoard());
-                newItem.setQuantityOnBoard(item.getQuantityOnBoard());
-                newItem.setObservation(item.getObservation());
-                newItem.setPrice(item.getPrice());
-                newItem.setMotif(item.getMotif());
-                return newItem;
-            })
-            .collect(Collectors.toList());
-
-        savedDuplicate.setBomItems(duplicatedItems);
-        BoardFamily finalSaved = boardFamilyRepository.save(savedDuplicate);
-        return mapToDTO(finalSaved);
+        bomItemRepository.copyToFamily(original.getId(), savedDuplicate.getId(), now);
+        return savedDuplicate;
     }
 
     @Transactional(readOnly = true)
     public BoardFamilyComparisonDTO compareBoardFamilies(Long id1, Long id2) {
+        Map<Long, Long> versions = new HashMap<>();
+        for (Object[] row : boardFamilyRepository.findBomVersions(List.of(id1, id2))) {
+            versions.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+        }
+        if (!versions.containsKey(id1)) {
+            throw new ResourceNotFoundException("First board family not found");
+        }
+        if (!versions.containsKey(id2)) {
+            throw new ResourceNotFoundException("Second board family not found");
+        }
+
+        // Only the differences are cached; the family headers are cheap to read again
+        List<BomComparisonItemDTO> differences = comparisonCache.get(BomComparisonCache.BOARD_FAMILIES,
+            id1, versions.get(id1), id2, versions.get(id2));
         BoardFamily family1 = boardFamilyRepository.findById(id1)
             .orElseThrow(() -> new ResourceNotFoundException("First board family not found"));
         BoardFamily family2 = boardFamilyRepository.findById(id2)
             .orElseThrow(() -> new ResourceNotFoundException("Second board family not found"));
+        if (differences == null) {
+            differences = compareBomItems(family1.getBomItems(), family2.getBomItems());
+            comparisonCache.put(BomComparisonCache.BOARD_FAMILIES,
+                id1, family1.getBomVersion(), id2, family2.getBomVersion(), differences);
+        }
 
         BoardFamilyComparisonDTO comparison = new BoardFamilyComparisonDTO();
-        comparison.setFamily1(mapToDTO(family1));
-        comparison.setFamily2(mapToDTO(family2));
-
-        List<BomComparisonItemDTO> differences = compareBomItems(family1.getBomItems(), family2.getBomItems());
+        comparison.setFamily1(mapHeaderToDTO(family1));
+        comparison.setFamily2(mapHeaderToDTO(family2));
         comparison.setDifferences(differences);
-
         return comparison;
     }
 
@@ -194,6 +244,20 @@ public class BoardFamilyService {
     }
 
     private BoardFamilyDTO mapToDTO(BoardFamily entity) {
+        BoardFamilyDTO dto = mapHeaderToDTO(entity);
+        if (dto == null) return null;
+
+        if (entity.getBomItems() != null) {
+            dto.setBomItems(entity.getBomItems().stream()
+                .map(this::mapBomToDTO)
+                .collect(Collectors.toList()));
+        }
+
+        return dto;
+    }
+
+    // The family without its BOM lines
+    private BoardFamilyDTO mapHeaderToDTO(BoardFamily entity) {
         if (entity == null) return null;
 
         BoardFamilyDTO dto = new BoardFamilyDTO();
@@ -206,13 +270,6 @@ public class BoardFamilyService {
         dto.setPhase(entity.getPhase());
         dto.setCreatedAt(entity.getCreatedAt());
         dto.setUpdatedAt(entity.getUpdatedAt());
-
-        if (entity.getBomItems() != null) {
-            dto.setBomItems(entity.getBomItems().stream()
-                .map(this::mapBomToDTO)
-                .collect(Collectors.toList()));
-        }
-
         return dto;
     }
 
@@ -252,23 +309,117 @@ public class BoardFamilyService {
         entity.setDerivate(dto.getDerivate());
         entity.setNumberOfBoards(dto.getNumberOfBoards());
         entity.setPhase(dto.getPhase());
+    }
+
+    // Applies the requested BOM to a saved family, when the request has one, and reports the rows touched
+    private BoardFamilyDTO saveBomItems(BoardFamily family, List<BomItemDTO> bomItems) {
+        if (bomItems == null) {
+            return mapToDTO(family);
+        }
 
-        if (dto.getBomItems() != null) {
-            List<BomItem> bomItems = dto.getBomItems().stream()
-                .map(bomDto -> {
-                    BomItem bomItem = bomDto.getId() != null
-                        ? bomItemRepository.findById(bomDto.getId()).orElse(new BomItem())
-                        : new BomItem();
-                    updateBomItemFromDTO(bomItem, bomDto);
-                    bomItem.setBoardFamily(entity);
-                    return bomItem;
-                })
-                .collect(Collectors.toList());
-
-            // Clear existing and replace
-            entity.getBomItems().clear();
-            entity.getBomItems().addAll(bomItems);
+        Set<Long> otherFamilyIds = new HashSet<>();
+        BomMergeResultDTO changes = mergeBomItems(family, bomItems, otherFamilyIds);
+        if (!otherFamilyIds.isEmpty()) {
+            boardFamilyRepository.incrementBomVersions(otherFamilyIds);
         }
+        boardFamilyRepository.flush();
+
+        // New lines were inserted by JDBC, so read the BOM back rather than from the entity
+        BoardFamilyDTO dto = mapToDTO(family);
+        dto.setBomItems(bomItemRepository.findByBoardFamilyId(family.getId()).stream()
+            .map(this::mapBomToDTO)
+            .collect(Collectors.toList()));
+        dto.setBomChanges(changes);
+        return dto;
+    }
+
+    /**
+     * Id-keyed merge of the requested lines into the family's BOM:
+     * - a line of this family is updated only if one of its fields differs;
+     * - a line of another family is moved here, as before (its family is added to otherFamilyIds);
+     * - a line without a known id is inserted, all of them in one JDBC batch;
+     * - a line of this family missing from the request is deleted.
+     * Lines of other families are loaded with one findAllById; updates and
+     * deletes are batched by Hibernate at flush.
+     */
+    private BomMergeResultDTO mergeBomItems(BoardFamily family, List<BomItemDTO> requested, Set<Long> otherFamilyIds) {
+        Map<Long, BomItem> current = family.getBomItems().stream()
+            .collect(Collectors.toMap(BomItem::getId, item -> item, (a, b) -> a));
+        Set<Long> foreignIds = requested.stream()
+            .map(BomItemDTO::getId)
+            .filter(id -> id != null && !current.containsKey(id))
+            .collect(Collectors.toSet());
+        Map<Long, BomItem> foreign = foreignIds.isEmpty()
+            ? Map.of()
+            : bomItemRepository.findAllById(foreignIds).stream()
+                .collect(Collectors.toMap(BomItem::getId, item -> item));
+
+        BomMergeResultDTO changes = new BomMergeResultDTO();
+        Set<Long> kept = new HashSet<>();
+        List<BomItemDTO> inserts = new ArrayList<>();
+        for (BomItemDTO bomDto : requested) {
+            Long id = bomDto.getId();
+            // A repeated id is a new line, so every requested line ends up in the BOM
+            BomItem item = id != null && kept.add(id)
+                ? current.getOrDefault(id, foreign.get(id))
+                : null;
+            if (item == null) {
+                inserts.add(bomDto);
+            } else if (current.containsKey(id)) {
+                if (isSameBomItem(item, bomDto)) {
+                    changes.setUnchanged(changes.getUnchanged() + 1);
+                } else {
+                    updateBomItemFromDTO(item, bomDto);
+                    changes.setUpdated(changes.getUpdated() + 1);
+                }
+            } else {
+                if (item.getBoardFamily() != null) {
+                    otherFamilyIds.add(item.getBoardFamily().getId());
+                }
+                updateBomItemFromDTO(item, bomDto);
+                item.setBoardFamily(family);
+                family.getBomItems().add(item);
+                changes.setUpdated(changes.getUpdated() + 1);
+            }
+        }
+
+        // orphanRemoval deletes the lines dropped from the collection
+        int before = family.getBomItems().size();
+        family.getBomItems().removeIf(item -> !kept.contains(item.getId()));
+        changes.setDeleted(before - family.getBomItems().size());
+
+        insertBomItems(family.getId(), inserts);
+        changes.setInserted(inserts.size());
+        return changes;
+    }
+
+    private void insertBomItems(Long familyId, List<BomItemDTO> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        // Same timestamps as BomItem.onCreate would set
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = items.stream()
+            .map(item -> new Object[] {
+                familyId, item.getSegment(), item.getKurzname(), item.getIdentMatchcode(), item.getModelType(),
+                item.getSesamNumber(), item.getMissingOnBoard(), item.getQuantityOnBoard(), item.getObservation(),
+                item.getPrice(), item.getMotif(), now, now
+            })
+            .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(INSERT_BOM_ITEM_SQL, rows);
+    }
+
+    private boolean isSameBomItem(BomItem entity, BomItemDTO dto) {
+        return Objects.equals(entity.getSegment(), dto.getSegment()) &&
+               Objects.equals(entity.getKurzname(), dto.getKurzname()) &&
+               Objects.equals(entity.getIdentMatchcode(), dto.getIdentMatchcode()) &&
+               Objects.equals(entity.getModelType(), dto.getModelType()) &&
+               Objects.equals(entity.getSesamNumber(), dto.getSesamNumber()) &&
+               Objects.equals(entity.getMissingOnBoard(), dto.getMissingOnBoard()) &&
+               Objects.equals(entity.getQuantityOnBoard(), dto.getQuantityOnBoard()) &&
+               Objects.equals(entity.getObservation(), dto.getObservation()) &&
+               Objects.equals(entity.getPrice(), dto.getPrice()) &&
+               Objects.equals(entity.getMotif(), dto.getMotif());
     }
 
     private void updateBomItemFromDTO(BomItem entity, BomItemDTO dto) {
@@ -0,0 +1,109 @@
+package com.sebn.brettbau.domain.board.service;
+
+import com.sebn.brettbau.domain.board.dto.BomComparisonCacheStatsDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Least recently used cache of BOM comparison results.
+ *
+ * Entries are keyed by both family ids and their bom_version, which is
+ * incremented whenever a family or one of its BOM items is written. An edit
+ * therefore never has to find and drop entries: the next comparison asks for
+ * the new version and misses, and the old entry ages out.
+ */
+@Component
+public class BomComparisonCache {
+
+    /** Result of {@link BomComparisonService#compareBomItems}. */
+    public static final String BOM_ITEMS = "bomItems";
+    /** Differences of {@link BoardFamilyService#compareBoardFamilies}; never the families themselves. */
+    public static final String BOARD_FAMILIES = "boardFamilies";
+
+    private final int maxEntries;
+    private final Map<Key, Object> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public BomComparisonCache(@Value("${bom.comparison-cache.max-entries:500}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                if (size() > BomComparisonCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T get(String kind, long family1Id, long family1Version,
+                                  long family2Id, long family2Version) {
+        Object value = entries.get(new Key(kind, family1Id, family1Version, family2Id, family2Version));
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return (T) value;
+    }
+
+    public synchronized void put(String kind, long family1Id, long family1Version,
+                                 long family2Id, long family2Version, Object value) {
+        if (maxEntries > 0) {
+            entries.put(new Key(kind, family1Id, family1Version, family2Id, family2Version), value);
+        }
+    }
+
+    public synchronized BomComparisonCacheStatsDTO getStats() {
+        BomComparisonCacheStatsDTO stats = new BomComparisonCacheStatsDTO();
+        stats.setEntries(entries.size());
+        stats.setMaxEntries(maxEntries);
+        stats.setHits(hits);
+        stats.setMisses(misses);
+        stats.setEvictions(evictions);
+        return stats;
+    }
+
+    private static final class Key {
+        private final String kind;
+        private final long family1Id;
+        private final long family1Version;
+        private final long family2Id;
+        private final long family2Version;
+
+        Key(String kind, long family1Id, long family1Version, long family2Id, long family2Version) {
+            this.kind = kind;
+            this.family1Id = family1Id;
+            this.family1Version = family1Version;
+            this.family2Id = family2Id;
+            this.family2Version = family2Version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return family1Id == other.family1Id
+                    && family1Version == other.family1Version
+                    && family2Id == other.family2Id
+                    && family2Version == other.family2Version
+                    && kind.equals(other.kind);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, family1Id, family1Version, family2Id, family2Version);
+        }
+    }
+}
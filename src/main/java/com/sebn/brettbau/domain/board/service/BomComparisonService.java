@@ -1,6 +1,8 @@
 package com.sebn.brettbau.domain.board.service;
 
+import com.sebn.brettbau.domain.board.dto.BomComparisonCellDTO;
 import com.sebn.brettbau.domain.board.dto.BomComparisonItemDTO;
+import com.sebn.brettbau.domain.board.dto.BomComparisonMatrixDTO;
 import com.sebn.brettbau.domain.board.dto.BomItemDTO;
 import com.sebn.brettbau.domain.board.entity.BoardFamily;
 import com.sebn.brettbau.exception.ResourceNotFoundException;
@@ -15,13 +17,32 @@ import java.util.stream.Collectors;
 public class BomComparisonService {
 
     private final BoardFamilyRepository boardFamilyRepository;
+    private final BomMatcher bomMatcher;
+    private final BomComparisonCache comparisonCache;
 
-    public BomComparisonService(BoardFamilyRepository boardFamilyRepository) {
+    public static final int MAX_MATRIX_FAMILIES = 20;
+
+    public BomComparisonService(BoardFamilyRepository boardFamilyRepository, BomMatcher bomMatcher,
+                                BomComparisonCache comparisonCache) {
         this.boardFamilyRepository = boardFamilyRepository;
+        this.bomMatcher = bomMatcher;
+        this.comparisonCache = comparisonCache;
     }
 
     @Transactional(readOnly = true)
     public List<BomComparisonItemDTO> compareBomItems(Long family1Id, Long family2Id) {
+        // The versions alone tell whether a cached result is still current
+        Map<Long, Long> versions = findBomVersions(List.of(family1Id, family2Id));
+        Long version1 = versions.get(family1Id);
+        Long version2 = versions.get(family2Id);
+        if (version1 != null && version2 != null) {
+            List<BomComparisonItemDTO> cached = comparisonCache.get(BomComparisonCache.BOM_ITEMS,
+                    family1Id, version1, family2Id, version2);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
         // Load BOM items eagerly for both families
         BoardFamily family1 = boardFamilyRepository.findByIdWithBomItems(family1Id);
         if (family1 == null) {
@@ -40,142 +61,98 @@ public class BomComparisonService {
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
 
-        // Group items by identMatchcode
-        Map<String, List<BomItemDTO>> map1 = bomList1.stream()
-                .collect(Collectors.groupingBy(BomItemDTO::getIdentMatchcode));
-        Map<String, List<BomItemDTO>> map2 = bomList2.stream()
-                .collect(Collectors.groupingBy(BomItemDTO::getIdentMatchcode));
-
-        List<BomComparisonItemDTO> comparisons = new ArrayList<>();
-
-        // Process items added in family2 (matchcode exists only in family2)
-        for (String matchcode : map2.keySet()) {
-            if (!map1.containsKey(matchcode)) {
-                for (BomItemDTO item2 : map2.get(matchcode)) {
-                    BomComparisonItemDTO dto = new BomComparisonItemDTO();
-                    dto.setItem1(null);
-                    dto.setItem2(item2);
-                    dto.setComparisonType("ADDED");
-                    comparisons.add(dto);
-                }
-            }
+        List<BomComparisonItemDTO> differences = bomMatcher.compare(bomList1, bomList2);
+        comparisonCache.put(BomComparisonCache.BOM_ITEMS,
+                family1Id, family1.getBomVersion(), family2Id, family2.getBomVersion(), differences);
+        return differences;
+    }
+
+    /**
+     * Change summary for every ordered pair of the given families (before = row,
+     * after = column). Each family is loaded and indexed once; pairs with equal
+     * fingerprints are reported identical without matching any lines, and pairs
+     * already compared at the same versions come from the comparison cache.
+     */
+    @Transactional(readOnly = true)
+    public BomComparisonMatrixDTO compareMatrix(List<Long> familyIds, boolean details) {
+        List<Long> ids = familyIds == null ? List.of() : familyIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        if (ids.size() < 2 || ids.size() > MAX_MATRIX_FAMILIES) {
+            throw new IllegalArgumentException(
+                    "Between 2 and " + MAX_MATRIX_FAMILIES + " distinct board families are required");
         }
 
-        // Process items removed from family2 (matchcode exists only in family1)
-        for (String matchcode : map1.keySet()) {
-            if (!map2.containsKey(matchcode)) {
-                for (BomItemDTO item1 : map1.get(matchcode)) {
-                    BomComparisonItemDTO dto = new BomComparisonItemDTO();
-                    dto.setItem1(item1);
-                    dto.setItem2(null);
-                    dto.setComparisonType("REMOVED");
-                    comparisons.add(dto);
-                }
+        Map<Long, BoardFamily> families = boardFamilyRepository.findAllByIdWithBomItems(ids).stream()
+                .collect(Collectors.toMap(BoardFamily::getId, family -> family));
+        for (Long id : ids) {
+            if (!families.containsKey(id)) {
+                throw new ResourceNotFoundException("Board family not found: " + id);
             }
         }
 
-        // Process items present in both families
-        for (String matchcode : map1.keySet()) {
-            if (map2.containsKey(matchcode)) {
-                List<BomItemDTO> items1 = new ArrayList<>(map1.get(matchcode));
-                List<BomItemDTO> items2 = new ArrayList<>(map2.get(matchcode));
-
-                // For each item in family1, find the best match in family2
-                for (BomItemDTO item1 : items1) {
-                    BomItemDTO bestMatch = findBestMatch(item1, items2);
-                    if (bestMatch != null) {
-                        // Determine changed fields (ignoring motif in item1)
-                        List<String> changedFields = findChangedFields(item1, bestMatch);
-                        // Default comparison type is "MODIFIED"
-                        String comparisonType = "MODIFIED";
-                        // Only consider the motif of the after BOM item (item2)
-                        if (bestMatch.getMotif() != null) {
-                            String motifLower = bestMatch.getMotif().toLowerCase();
-                            if (motifLower.equals("removed")) {
-                                comparisonType = "REMOVED";
-                            } else if (motifLower.equals("added")) {
-                                comparisonType = "ADDED";
-                            }
-                        }
-                        // Only record as modified if there are actual differences (ignoring motif)
-                        if (!changedFields.isEmpty() || !comparisonType.equals("MODIFIED")) {
-                            BomComparisonItemDTO dto = new BomComparisonItemDTO();
-                            dto.setItem1(item1);
-                            dto.setItem2(bestMatch);
-                            dto.setComparisonType(comparisonType);
-                            dto.setModifiedFields(changedFields);
-                            comparisons.add(dto);
-                        }
-                        // Remove the matched candidate to avoid duplicate comparisons
-                        items2.remove(bestMatch);
+        List<BomMatcher.FamilyBom> boms = ids.stream()
+                .map(id -> BomMatcher.index(families.get(id).getBomItems().stream()
+                        .map(this::convertToDto)
+                        .collect(Collectors.toList())))
+                .collect(Collectors.toList());
+
+        List<BomComparisonCellDTO> cells = new ArrayList<>();
+        for (int row = 0; row < ids.size(); row++) {
+            for (int col = 0; col < ids.size(); col++) {
+                if (row == col) {
+                    continue;
+                }
+                BoardFamily family1 = families.get(ids.get(row));
+                BoardFamily family2 = families.get(ids.get(col));
+                List<BomComparisonItemDTO> differences = comparisonCache.get(BomComparisonCache.BOM_ITEMS,
+                        family1.getId(), family1.getBomVersion(), family2.getId(), family2.getBomVersion());
+                if (differences == null) {
+                    differences = bomMatcher.compare(boms.get(row), boms.get(col));
+                    comparisonCache.put(BomComparisonCache.BOM_ITEMS, family1.getId(), family1.getBomVersion(),
+                            family2.getId(), family2.getBomVersion(), differences);
+                }
+                BomComparisonCellDTO cell = new BomComparisonCellDTO();
+                cell.setFamily1Id(ids.get(row));
+                cell.setFamily2Id(ids.get(col));
+                cell.setIdentical(differences.isEmpty());
+                for (BomComparisonItemDTO difference : differences) {
+                    switch (difference.getComparisonType()) {
+                        case "ADDED":
+                            cell.setAdded(cell.getAdded() + 1);
+                            break;
+                        case "REMOVED":
+                            cell.setRemoved(cell.getRemoved() + 1);
+                            break;
+                        default:
+                            cell.setModified(cell.getModified() + 1);
                     }
                 }
-                // Any remaining items in items2 are treated as additions.
-                for (BomItemDTO unmatchedItem2 : items2) {
-                    BomComparisonItemDTO dto = new BomComparisonItemDTO();
-                    dto.setItem1(null);
-                    dto.setItem2(unmatchedItem2);
-                    dto.setComparisonType("ADDED");
-                    comparisons.add(dto);
+                if (details) {
+                    cell.setDifferences(differences);
                 }
+                cells.add(cell);
             }
         }
 
-        return comparisons;
-    }
-
-    private BomItemDTO findBestMatch(BomItemDTO source, List<BomItemDTO> candidates) {
-        if (candidates.isEmpty()) {
-            return null;
-        }
-        // Find the candidate with the highest number of matching fields
-        return candidates.stream()
-                .max(Comparator.comparingInt(candidate -> countMatchingFields(source, candidate)))
-                .orElse(candidates.get(0));
+        BomComparisonMatrixDTO matrix = new BomComparisonMatrixDTO();
+        matrix.setFamilyIds(ids);
+        matrix.setFamilyNames(ids.stream().map(id -> families.get(id).getFamilyName()).collect(Collectors.toList()));
+        matrix.setLineCounts(boms.stream().map(BomMatcher.FamilyBom::getLineCount).collect(Collectors.toList()));
+        matrix.setFingerprints(boms.stream()
+                .map(bom -> String.format("%016x", bom.getFingerprint()))
+                .collect(Collectors.toList()));
+        matrix.setCells(cells);
+        return matrix;
     }
 
-    private int countMatchingFields(BomItemDTO item1, BomItemDTO item2) {
-        int matches = 0;
-        if (Objects.equals(item1.getSegment(), item2.getSegment())) matches++;
-        if (Objects.equals(item1.getKurzname(), item2.getKurzname())) matches++;
-        if (Objects.equals(item1.getModelType(), item2.getModelType())) matches++;
-        if (Objects.equals(item1.getSesamNumber(), item2.getSesamNumber())) matches++;
-        if (Objects.equals(item1.getMissingOnBoard(), item2.getMissingOnBoard())) matches++;
-        if (Objects.equals(item1.getQuantityOnBoard(), item2.getQuantityOnBoard())) matches++;
-        if (Objects.equals(item1.getObservation(), item2.getObservation())) matches++;
-        if (Objects.equals(item1.getPrice(), item2.getPrice())) matches++;
-        // Do NOT compare motif from the before family.
-        return matches;
-    }
-
-    private List<String> findChangedFields(BomItemDTO item1, BomItemDTO item2) {
-        List<String> changedFields = new ArrayList<>();
-        if (!Objects.equals(item1.getSegment(), item2.getSegment())) {
-            changedFields.add("segment");
-        }
-        if (!Objects.equals(item1.getKurzname(), item2.getKurzname())) {
-            changedFields.add("kurzname");
-        }
-        if (!Objects.equals(item1.getModelType(), item2.getModelType())) {
-            changedFields.add("modelType");
-        }
-        if (!Objects.equals(item1.getSesamNumber(), item2.getSesamNumber())) {
-            changedFields.add("sesamNumber");
-        }
-        if (!Objects.equals(item1.getMissingOnBoard(), item2.getMissingOnBoard())) {
-            changedFields.add("missingOnBoard");
-        }
-        if (!Objects.equals(item1.getQuantityOnBoard(), item2.getQuantityOnBoard())) {
-            changedFields.add("quantityOnBoard");
-        }
-        if (!Objects.equals(item1.getObservation(), item2.getObservation())) {
-            changedFields.add("observation");
-        }
-        if (!Objects.equals(item1.getPrice(), item2.getPrice())) {
-            changedFields.add("price");
+    private Map<Long, Long> findBomVersions(Collection<Long> ids) {
+        Map<Long, Long> versions = new HashMap<>();
+        for (Object[] row : boardFamilyRepository.findBomVersions(ids)) {
+            versions.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
         }
-        // Do not add motif difference since we ignore the before motif.
-        return changedFields;
+        return versions;
     }
 
     private BomItemDTO convertToDto(com.sebn.brettbau.domain.board.entity.BomItem bomItem) {
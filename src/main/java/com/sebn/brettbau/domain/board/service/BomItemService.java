@@ -10,7 +10,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class BomItemService {
@@ -25,26 +27,30 @@ public class BomItemService {
 
     @Transactional
     public BomItemDTO createBomItem(BomItemDTO bomItemDTO) {
-         BomItem bomItem = mapToEntity(bomItemDTO);
-         BomItem saved = bomItemRepository.save(bomItem);
-         return mapToDTO(saved);
+         BomItemDTO created = create(bomItemDTO);
+         incrementBomVersions(created.getBoardFamilyId());
+         return created;
     }
 
     @Transactional
     public BomItemDTO updateBomItem(Long id, BomItemDTO bomItemDTO) {
          BomItem existing = bomItemRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("BOM item not found with id: " + id));
+         Long previousFamilyId = familyIdOf(existing);
          updateEntity(existing, bomItemDTO);
          BomItem updated = bomItemRepository.save(existing);
+         // An item moved to another family changes both BOMs
+         incrementBomVersions(previousFamilyId, familyIdOf(updated));
          return mapToDTO(updated);
     }
 
     @Transactional
     public void deleteBomItem(Long id) {
-         if (!bomItemRepository.existsById(id)) {
-             throw new ResourceNotFoundException("BOM item not found with id: " + id);
-         }
-         bomItemRepository.deleteById(id);
+         BomItem existing = bomItemRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("BOM item not found with id: " + id));
+         Long familyId = familyIdOf(existing);
+         bomItemRepository.delete(existing);
+         incrementBomVersions(familyId);
     }
 
     @Transactional(readOnly = true)
@@ -55,16 +61,41 @@ public class BomItemService {
     }
 
     // Bulk creation endpoint: iterates through the list and reuses the single creation logic.
+    // Each family's BOM version is incremented once for the whole batch.
     @Transactional
     public List<BomItemDTO> bulkCreate(List<BomItemDTO> bomItemDTOs) {
         List<BomItemDTO> results = new ArrayList<>();
         for (BomItemDTO dto : bomItemDTOs) {
-            BomItemDTO created = createBomItem(dto);
+            BomItemDTO created = create(dto);
             results.add(created);
         }
+        incrementBomVersions(results.stream().map(BomItemDTO::getBoardFamilyId).toArray(Long[]::new));
         return results;
     }
 
+    private BomItemDTO create(BomItemDTO bomItemDTO) {
+         BomItem bomItem = mapToEntity(bomItemDTO);
+         BomItem saved = bomItemRepository.save(bomItem);
+         return mapToDTO(saved);
+    }
+
+    // Cached BOM comparisons of these families are superseded by the new versions
+    private void incrementBomVersions(Long... familyIds) {
+         Set<Long> ids = new LinkedHashSet<>();
+         for (Long familyId : familyIds) {
+             if (familyId != null) {
+                 ids.add(familyId);
+             }
+         }
+         if (!ids.isEmpty()) {
+             boardFamilyRepository.incrementBomVersions(ids);
+         }
+    }
+
+    private static Long familyIdOf(BomItem bomItem) {
+         return bomItem.getBoardFamily() != null ? bomItem.getBoardFamily().getId() : null;
+    }
+
     // --- Utility methods for mapping between DTO and entity ---
 
     private BomItemDTO mapToDTO(BomItem bomItem) {
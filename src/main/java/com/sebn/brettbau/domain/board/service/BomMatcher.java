@@ -0,0 +1,473 @@
+package com.sebn.brettbau.domain.board.service;
+
+import com.sebn.brettbau.domain.board.dto.BomComparisonItemDTO;
+import com.sebn.brettbau.domain.board.dto.BomItemDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Pairs the BOM lines of two families and reports the differences.
+ *
+ * Lines are grouped by identMatchcode. Within a group, lines with identical
+ * content are paired first through a hash map; the rest are paired so that
+ * the total number of equal fields is maximal (Hungarian algorithm), or by
+ * best score first when the group is too large for that. Groups and lines are
+ * visited in a fixed order (matchcode, then id), so the same input always
+ * gives the same output, and large comparisons match their groups in parallel.
+ *
+ * A family can be indexed once ({@link #index}) and compared against many
+ * others. The index keeps a sorted 64-bit content hash per line and group,
+ * so groups with the same content, and whole families, are skipped without
+ * pairing any lines.
+ */
+@Component
+public class BomMatcher {
+
+    // Fields compared between two lines; motif of the before line is ignored
+    static final int FIELD_COUNT = 8;
+    // Larger leftovers (per side) use the greedy pass instead of the O(n^3) assignment
+    static final int MAX_ASSIGNMENT_SIZE = 200;
+    // Byte matrix of scores is kept for the greedy pass up to this many pairs
+    private static final int MAX_SCORE_MATRIX = 16_000_000;
+    // Below this many lines in shared matchcodes the groups are matched sequentially
+    static final int PARALLEL_THRESHOLD = 2_000;
+
+    private static final Comparator<String> MATCHCODE_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+    private static final Comparator<BomItemDTO> LINE_ORDER =
+            Comparator.comparing(BomItemDTO::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    /**
+     * Differences from the before BOM (family 1) to the after BOM (family 2):
+     * lines of matchcodes only in family 2, lines of matchcodes only in family 1,
+     * then changed, added and removed lines of shared matchcodes.
+     */
+    public List<BomComparisonItemDTO> compare(List<BomItemDTO> before, List<BomItemDTO> after) {
+        return compare(index(before), index(after));
+    }
+
+    /**
+     * Same as {@link #compare(List, List)} on indexed families.
+     */
+    public List<BomComparisonItemDTO> compare(FamilyBom before, FamilyBom after) {
+        if (before.sameContentAs(after)) {
+            return new ArrayList<>();
+        }
+        Map<String, List<BomItemDTO>> groups1 = before.groups;
+        Map<String, List<BomItemDTO>> groups2 = after.groups;
+
+        List<BomComparisonItemDTO> comparisons = new ArrayList<>();
+
+        // Matchcodes only in family 2
+        groups2.forEach((matchcode, items2) -> {
+            if (!groups1.containsKey(matchcode)) {
+                items2.forEach(item2 -> comparisons.add(comparison(null, item2, "ADDED", null)));
+            }
+        });
+
+        // Matchcodes only in family 1
+        List<String> shared = new ArrayList<>();
+        int sharedLines = 0;
+        for (Map.Entry<String, List<BomItemDTO>> entry : groups1.entrySet()) {
+            List<BomItemDTO> items2 = groups2.get(entry.getKey());
+            if (items2 == null) {
+                entry.getValue().forEach(item1 -> comparisons.add(comparison(item1, null, "REMOVED", null)));
+            } else if (!before.sameGroupAs(after, entry.getKey())) {
+                shared.add(entry.getKey());
+                sharedLines += entry.getValue().size() + items2.size();
+            }
+        }
+
+        // Matchcodes in both; an ordered stream keeps the group order when run in parallel
+        Stream<String> matchcodes = sharedLines >= PARALLEL_THRESHOLD ? shared.parallelStream() : shared.stream();
+        matchcodes.map(matchcode -> matchGroup(groups1.get(matchcode), groups2.get(matchcode)))
+                .collect(Collectors.toList())
+                .forEach(comparisons::addAll);
+
+        return comparisons;
+    }
+
+    /**
+     * Groups, content hashes and fingerprint of a family's BOM.
+     */
+    public static FamilyBom index(List<BomItemDTO> items) {
+        return new FamilyBom(items);
+    }
+
+    /**
+     * The compared fields of a line, equal for lines without differences.
+     */
+    static List<Object> contentKey(BomItemDTO item) {
+        return Arrays.asList(
+                item.getSegment(),
+                item.getKurzname(),
+                item.getModelType(),
+                item.getSesamNumber(),
+                item.getMissingOnBoard(),
+                item.getQuantityOnBoard(),
+                item.getObservation(),
+                item.getPrice());
+    }
+
+    static List<String> findChangedFields(BomItemDTO item1, BomItemDTO item2) {
+        List<String> changedFields = new ArrayList<>();
+        if (!Objects.equals(item1.getSegment(), item2.getSegment())) {
+            changedFields.add("segment");
+        }
+        if (!Objects.equals(item1.getKurzname(), item2.getKurzname())) {
+            changedFields.add("kurzname");
+        }
+        if (!Objects.equals(item1.getModelType(), item2.getModelType())) {
+            changedFields.add("modelType");
+        }
+        if (!Objects.equals(item1.getSesamNumber(), item2.getSesamNumber())) {
+            changedFields.add("sesamNumber");
+        }
+        if (!Objects.equals(item1.getMissingOnBoard(), item2.getMissingOnBoard())) {
+            changedFields.add("missingOnBoard");
+        }
+        if (!Objects.equals(item1.getQuantityOnBoard(), item2.getQuantityOnBoard())) {
+            changedFields.add("quantityOnBoard");
+        }
+        if (!Objects.equals(item1.getObservation(), item2.getObservation())) {
+            changedFields.add("observation");
+        }
+        if (!Objects.equals(item1.getPrice(), item2.getPrice())) {
+            changedFields.add("price");
+        }
+        // Do not add motif difference since we ignore the before motif.
+        return changedFields;
+    }
+
+    /**
+     * 64-bit hash of the compared fields (FNV-1a over the values).
+     */
+    static long contentHash(BomItemDTO item) {
+        long hash = FNV_OFFSET;
+        for (Object value : contentKey(item)) {
+            hash = mix(hash, value == null ? "\u0000" : value.toString());
+        }
+        return hash;
+    }
+
+    // A motif of "added" or "removed" on an after line is reported even without other changes
+    static boolean hasMotifMark(BomItemDTO item) {
+        String motif = item.getMotif();
+        return motif != null && (motif.equalsIgnoreCase("added") || motif.equalsIgnoreCase("removed"));
+    }
+
+    /**
+     * A family's BOM grouped by matchcode, with a sorted array of line hashes per
+     * group and a fingerprint over all of them. Immutable once built.
+     */
+    public static final class FamilyBom {
+        private final Map<String, List<BomItemDTO>> groups;
+        private final Map<String, long[]> groupHashes;
+        private final Set<String> markedGroups;
+        private final long fingerprint;
+        private final int lineCount;
+
+        private FamilyBom(List<BomItemDTO> items) {
+            groups = new TreeMap<>(MATCHCODE_ORDER);
+            for (BomItemDTO item : items) {
+                groups.computeIfAbsent(item.getIdentMatchcode(), matchcode -> new ArrayList<>()).add(item);
+            }
+            groupHashes = new HashMap<>(groups.size() * 2);
+            markedGroups = new HashSet<>();
+            long hash = FNV_OFFSET;
+            for (Map.Entry<String, List<BomItemDTO>> entry : groups.entrySet()) {
+                List<BomItemDTO> lines = entry.getValue();
+                lines.sort(LINE_ORDER);
+                long[] hashes = new long[lines.size()];
+                for (int i = 0; i < hashes.length; i++) {
+                    hashes[i] = contentHash(lines.get(i));
+                    if (hasMotifMark(lines.get(i))) {
+                        markedGroups.add(entry.getKey());
+                    }
+                }
+                Arrays.sort(hashes);
+                groupHashes.put(entry.getKey(), hashes);
+
+                hash = mix(hash, entry.getKey() == null ? "\u0000" : entry.getKey());
+                for (long line : hashes) {
+                    hash = mix(hash, line);
+                }
+            }
+            fingerprint = hash;
+            lineCount = items.size();
+        }
+
+        public long getFingerprint() {
+            return fingerprint;
+        }
+
+        public int getLineCount() {
+            return lineCount;
+        }
+
+        /**
+         * Whether comparing this (before) family with the after family yields no
+         * difference: same content and no motif marks on the after side.
+         */
+        boolean sameContentAs(FamilyBom after) {
+            return fingerprint == after.fingerprint
+                    && lineCount == after.lineCount
+                    && after.markedGroups.isEmpty();
+        }
+
+        /**
+         * Same, for one matchcode present in both families.
+         */
+        boolean sameGroupAs(FamilyBom after, String matchcode) {
+            return !after.markedGroups.contains(matchcode)
+                    && Arrays.equals(groupHashes.get(matchcode), after.groupHashes.get(matchcode));
+        }
+    }
+
+    // ----------------------------------------------------------------------
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static long mix(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        // Separator, so ("ab", "c") and ("a", "bc") differ
+        return (hash ^ 0x1f) * FNV_PRIME;
+    }
+
+    private static long mix(long hash, long value) {
+        for (int shift = 0; shift < 64; shift += 8) {
+            hash = (hash ^ ((value >>> shift) & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static List<BomComparisonItemDTO> matchGroup(List<BomItemDTO> items1, List<BomItemDTO> items2) {
+        int[] matchOf1 = new int[items1.size()];
+        Arrays.fill(matchOf1, -1);
+        boolean[] used2 = new boolean[items2.size()];
+
+        // Identical lines pair up in id order
+        Map<List<Object>, ArrayDeque<Integer>> byContent = new HashMap<>();
+        for (int j = 0; j < items2.size(); j++) {
+            byContent.computeIfAbsent(contentKey(items2.get(j)), key -> new ArrayDeque<>()).add(j);
+        }
+        List<Integer> rest1 = new ArrayList<>();
+        for (int i = 0; i < items1.size(); i++) {
+            ArrayDeque<Integer> same = byContent.get(contentKey(items1.get(i)));
+            if (same != null && !same.isEmpty()) {
+                int j = same.poll();
+                matchOf1[i] = j;
+                used2[j] = true;
+            } else {
+                rest1.add(i);
+            }
+        }
+        List<Integer> rest2 = new ArrayList<>();
+        for (int j = 0; j < items2.size(); j++) {
+            if (!used2[j]) {
+                rest2.add(j);
+            }
+        }
+
+        // Remaining lines pair up by most equal fields
+        if (!rest1.isEmpty() && !rest2.isEmpty()) {
+            int[] assigned = Math.max(rest1.size(), rest2.size()) <= MAX_ASSIGNMENT_SIZE
+                    ? assignOptimal(items1, rest1, items2, rest2)
+                    : assignGreedy(items1, rest1, items2, rest2);
+            for (int r = 0; r < rest1.size(); r++) {
+                if (assigned[r] >= 0) {
+                    int j = rest2.get(assigned[r]);
+                    matchOf1[rest1.get(r)] = j;
+                    used2[j] = true;
+                }
+            }
+        }
+
+        List<BomComparisonItemDTO> comparisons = new ArrayList<>();
+        for (int i = 0; i < items1.size(); i++) {
+            BomItemDTO item1 = items1.get(i);
+            if (matchOf1[i] < 0) {
+                // More lines of this matchcode in family 1 than in family 2
+                comparisons.add(comparison(item1, null, "REMOVED", null));
+                continue;
+            }
+            BomItemDTO item2 = items2.get(matchOf1[i]);
+            List<String> changedFields = findChangedFields(item1, item2);
+            // Only consider the motif of the after BOM item (item2)
+            String comparisonType = "MODIFIED";
+            if (item2.getMotif() != null) {
+                String motifLower = item2.getMotif().toLowerCase();
+                if (motifLower.equals("removed")) {
+                    comparisonType = "REMOVED";
+                } else if (motifLower.equals("added")) {
+                    comparisonType = "ADDED";
+                }
+            }
+            // Only record as modified if there are actual differences (ignoring motif)
+            if (!changedFields.isEmpty() || !comparisonType.equals("MODIFIED")) {
+                comparisons.add(comparison(item1, item2, comparisonType, changedFields));
+            }
+        }
+        // Any remaining items in family 2 are treated as additions.
+        for (int j = 0; j < items2.size(); j++) {
+            if (!used2[j]) {
+                comparisons.add(comparison(null, items2.get(j), "ADDED", null));
+            }
+        }
+        return comparisons;
+    }
+
+    private static int score(BomItemDTO item1, BomItemDTO item2) {
+        int matches = 0;
+        if (Objects.equals(item1.getSegment(), item2.getSegment())) matches++;
+        if (Objects.equals(item1.getKurzname(), item2.getKurzname())) matches++;
+        if (Objects.equals(item1.getModelType(), item2.getModelType())) matches++;
+        if (Objects.equals(item1.getSesamNumber(), item2.getSesamNumber())) matches++;
+        if (Objects.equals(item1.getMissingOnBoard(), item2.getMissingOnBoard())) matches++;
+        if (Objects.equals(item1.getQuantityOnBoard(), item2.getQuantityOnBoard())) matches++;
+        if (Objects.equals(item1.getObservation(), item2.getObservation())) matches++;
+        if (Objects.equals(item1.getPrice(), item2.getPrice())) matches++;
+        return matches;
+    }
+
+    /**
+     * Maximum total score assignment (Hungarian algorithm on FIELD_COUNT - score).
+     * Returns for each rest1 position the rest2 position it is paired with, or -1.
+     */
+    private static int[] assignOptimal(List<BomItemDTO> items1, List<Integer> rest1,
+                                       List<BomItemDTO> items2, List<Integer> rest2) {
+        // Rows must not outnumber columns
+        boolean transposed = rest1.size() > rest2.size();
+        int rows = transposed ? rest2.size() : rest1.size();
+        int cols = transposed ? rest1.size() : rest2.size();
+        int[][] cost = new int[rows][cols];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                BomItemDTO item1 = items1.get(rest1.get(transposed ? c : r));
+                BomItemDTO item2 = items2.get(rest2.get(transposed ? r : c));
+                cost[r][c] = FIELD_COUNT - score(item1, item2);
+            }
+        }
+
+        // 1-based potentials; way[] tracks the augmenting path
+        int[] u = new int[rows + 1];
+        int[] v = new int[cols + 1];
+        int[] rowOfCol = new int[cols + 1];
+        int[] way = new int[cols + 1];
+        for (int r = 1; r <= rows; r++) {
+            rowOfCol[0] = r;
+            int col0 = 0;
+            int[] minv = new int[cols + 1];
+            Arrays.fill(minv, Integer.MAX_VALUE);
+            boolean[] visited = new boolean[cols + 1];
+            do {
+                visited[col0] = true;
+                int row0 = rowOfCol[col0];
+                int delta = Integer.MAX_VALUE;
+                int col1 = 0;
+                for (int c = 1; c <= cols; c++) {
+                    if (!visited[c]) {
+                        int current = cost[row0 - 1][c - 1] - u[row0] - v[c];
+                        if (current < minv[c]) {
+                            minv[c] = current;
+                            way[c] = col0;
+                        }
+                        if (minv[c] < delta) {
+                            delta = minv[c];
+                            col1 = c;
+                        }
+                    }
+                }
+                for (int c = 0; c <= cols; c++) {
+                    if (visited[c]) {
+                        u[rowOfCol[c]] += delta;
+                        v[c] -= delta;
+                    } else {
+                        minv[c] -= delta;
+                    }
+                }
+                col0 = col1;
+            } while (rowOfCol[col0] != 0);
+            do {
+                int col1 = way[col0];
+                rowOfCol[col0] = rowOfCol[col1];
+                col0 = col1;
+            } while (col0 != 0);
+        }
+
+        int[] assigned = new int[rest1.size()];
+        Arrays.fill(assigned, -1);
+        for (int c = 1; c <= cols; c++) {
+            if (rowOfCol[c] != 0) {
+                int r = rowOfCol[c] - 1;
+                if (transposed) {
+                    assigned[c - 1] = r;
+                } else {
+                    assigned[r] = c - 1;
+                }
+            }
+        }
+        return assigned;
+    }
+
+    /**
+     * Best score first: all pairs with 8 equal fields, then 7, and so on, each
+     * level visited in line order. Used when the optimal assignment is too costly.
+     */
+    private static int[] assignGreedy(List<BomItemDTO> items1, List<Integer> rest1,
+                                      List<BomItemDTO> items2, List<Integer> rest2) {
+        int n1 = rest1.size();
+        int n2 = rest2.size();
+        byte[] scores = null;
+        if ((long) n1 * n2 <= MAX_SCORE_MATRIX) {
+            scores = new byte[n1 * n2];
+            for (int a = 0; a < n1; a++) {
+                for (int b = 0; b < n2; b++) {
+                    scores[a * n2 + b] = (byte) score(items1.get(rest1.get(a)), items2.get(rest2.get(b)));
+                }
+            }
+        }
+
+        int[] assigned = new int[n1];
+        Arrays.fill(assigned, -1);
+        boolean[] taken = new boolean[n2];
+        int remaining = Math.min(n1, n2);
+        for (int level = FIELD_COUNT; level >= 0 && remaining > 0; level--) {
+            for (int a = 0; a < n1 && remaining > 0; a++) {
+                if (assigned[a] >= 0) {
+                    continue;
+                }
+                for (int b = 0; b < n2; b++) {
+                    if (taken[b]) {
+                        continue;
+                    }
+                    int s = scores != null
+                            ? scores[a * n2 + b]
+                            : score(items1.get(rest1.get(a)), items2.get(rest2.get(b)));
+                    if (s == level) {
+                        assigned[a] = b;
+                        taken[b] = true;
+                        remaining--;
+                        break;
+                    }
+                }
+            }
+        }
+        return assigned;
+    }
+
+    private static BomComparisonItemDTO comparison(BomItemDTO item1, BomItemDTO item2, String type,
+                                                   List<String> modifiedFields) {
+        BomComparisonItemDTO dto = new BomComparisonItemDTO();
+        dto.setItem1(item1);
+        dto.setItem2(item2);
+        dto.setComparisonType(type);
+        dto.setModifiedFields(modifiedFields);
+        return dto;
+    }
+}
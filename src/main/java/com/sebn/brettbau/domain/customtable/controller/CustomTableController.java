@@ -2,20 +2,37 @@ package com.sebn.brettbau.domain.customtable.controller;
 
 import com.sebn.brettbau.domain.customtable.dto.CustomColumnDTO;
 import com.sebn.brettbau.domain.customtable.dto.CustomTableDTO;
+import com.sebn.brettbau.domain.customtable.dto.CustomTableImportJobDTO;
+import com.sebn.brettbau.domain.customtable.dto.CustomTablePatchDTO;
+import com.sebn.brettbau.domain.customtable.dto.CustomTablePatchResultDTO;
+import com.sebn.brettbau.domain.customtable.dto.CustomTableQueryDTO;
+import com.sebn.brettbau.domain.customtable.dto.CustomTableQueryResultDTO;
+import com.sebn.brettbau.domain.customtable.dto.CustomTableSummaryDTO;
+import com.sebn.brettbau.domain.customtable.dto.CustomTableWindowDTO;
+import com.sebn.brettbau.domain.customtable.dto.TableUpdateFrame;
 import com.sebn.brettbau.domain.customtable.dto.TableUpdateMessage;
+import com.sebn.brettbau.domain.customtable.service.CustomTableBroadcaster;
 import com.sebn.brettbau.domain.customtable.service.CustomTableService;
+import com.sebn.brettbau.domain.customtable.service.CustomTableTransferService;
+import com.sebn.brettbau.exception.ConflictException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.BooleanSupplier;
 
 @RestController
 @RequestMapping("/api/custom-tables")
@@ -24,6 +41,8 @@ public class CustomTableController {
 
     private static final Logger logger = LoggerFactory.getLogger(CustomTableController.class);
     private final CustomTableService tableService;
+    private final CustomTableBroadcaster broadcaster;
+    private final CustomTableTransferService transferService;
 
     /**
      * Create a new custom table.
@@ -57,6 +76,15 @@ public class CustomTableController {
         return ResponseEntity.ok(tables);
     }
 
+    /**
+     * Get the table catalog: metadata and row/column counts of all tables, without
+     * columns or cell data. Use this to list tables and load a table when it is opened.
+     */
+    @GetMapping("/catalog")
+    public ResponseEntity<List<CustomTableSummaryDTO>> getTableCatalog() {
+        return ResponseEntity.ok(tableService.getTableCatalog());
+    }
+
     /**
      * Get a specific table by ID.
      */
@@ -66,6 +94,43 @@ public class CustomTableController {
         return ResponseEntity.ok(table);
     }
 
+    /**
+     * Get a window of a table: a range of rows and optionally a subset of columns.
+     *
+     * Lets the grid load only what is on screen instead of the whole data matrix.
+     */
+    @GetMapping("/{tableId}/window")
+    public ResponseEntity<?> getTableWindow(
+            @PathVariable Long tableId,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) List<Long> columns) {
+        try {
+            CustomTableWindowDTO window = tableService.getTableWindow(tableId, offset, limit, columns);
+            return ResponseEntity.ok(window);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid window request for table {}: {}", tableId, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Filter, sort, group and aggregate a table on the server.
+     *
+     * Values are compared by column type, so NUMBER and DATE columns sort and
+     * filter numerically/chronologically rather than as text.
+     */
+    @PostMapping("/{tableId}/query")
+    public ResponseEntity<?> queryTable(@PathVariable Long tableId, @RequestBody CustomTableQueryDTO query) {
+        try {
+            CustomTableQueryResultDTO result = tableService.queryTable(tableId, query);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid query for table {}: {}", tableId, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
     /**
      * Update an existing table.
      *
@@ -77,15 +142,41 @@ public class CustomTableController {
             @PathVariable Long tableId,
             @RequestBody CustomTableDTO tableDTO) {
         CustomTableDTO updated = tableService.updateTable(tableId, tableDTO);
+        broadcaster.publishReload(tableId, tableDTO.getLastModifiedBy());
         return ResponseEntity.ok(updated);
     }
 
+    /**
+     * Apply only the changed, added and removed rows/columns of a table.
+     *
+     * The patch carries the version the client last loaded; if the table has been
+     * modified since, nothing is applied and 409 Conflict is returned.
+     */
+    @PatchMapping("/{tableId}")
+    public ResponseEntity<?> patchTable(
+            @PathVariable Long tableId,
+            @RequestBody CustomTablePatchDTO patch,
+            Authentication authentication) {
+        try {
+            CustomTablePatchResultDTO result = tableService.patchTable(tableId, patch, authentication.getName());
+            broadcaster.publishReload(tableId, authentication.getName());
+            return ResponseEntity.ok(result);
+        } catch (ConflictException e) {
+            logger.info("Rejected stale patch for table {}: {}", tableId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Validation error while patching table {}: {}", tableId, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
     /**
      * Delete a table.
      */
     @DeleteMapping("/{tableId}")
     public ResponseEntity<Void> deleteTable(@PathVariable Long tableId) {
         tableService.deleteTable(tableId);
+        broadcaster.remove(tableId);
         return ResponseEntity.noContent().build();
     }
 
@@ -97,11 +188,83 @@ public class CustomTableController {
             @PathVariable Long tableId,
             @RequestBody CustomColumnDTO columnDTO) {
         CustomColumnDTO added = tableService.addColumn(tableId, columnDTO);
+        broadcaster.publishReload(tableId, null);
         return ResponseEntity.ok(added);
     }
 
     /**
-     * Get active users for a table.
+     * Get the operations broadcast for a table after the given sequence number.
+     *
+     * Lets a reconnecting client catch up without reloading the whole table; if
+     * the operations are no longer available the response has resync set.
+     */
+    @GetMapping("/{tableId}/updates")
+    public ResponseEntity<TableUpdateFrame> getUpdates(
+            @PathVariable Long tableId,
+            @RequestParam long since,
+            @RequestParam(required = false) Long epoch) {
+        return ResponseEntity.ok(broadcaster.getUpdatesSince(tableId, since, epoch));
+    }
+
+    /**
+     * Export a table as CSV or XLSX (format=csv|xlsx).
+     *
+     * The file is written to the response while the table is read in chunks.
+     */
+    @GetMapping("/{tableId}/export")
+    public ResponseEntity<?> exportTable(
+            @PathVariable Long tableId,
+            @RequestParam(defaultValue = "csv") String format) {
+        try {
+            CustomTableTransferService.Format exportFormat = CustomTableTransferService.Format.parse(format);
+            String fileName = transferService.exportFileName(tableId, exportFormat);
+            StreamingResponseBody body = out -> transferService.export(tableId, exportFormat, out);
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                    .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid export request for table {}: {}", tableId, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Append the rows of a CSV or XLSX file to a table.
+     *
+     * The first row holds column names. The import runs in the background; poll
+     * /import-jobs/{jobId} for its progress.
+     */
+    @PostMapping("/{tableId}/import")
+    public ResponseEntity<?> importTable(
+            @PathVariable Long tableId,
+            @RequestParam("file") MultipartFile file,
+            Authentication authentication) {
+        try {
+            CustomTableImportJobDTO job = transferService.startImport(tableId, file, authentication.getName());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid import for table {}: {}", tableId, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Get the progress of an import.
+     */
+    @GetMapping("/import-jobs/{jobId}")
+    public ResponseEntity<?> getImportJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(transferService.getImportJob(jobId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Get active users for a table. Changes are also pushed to /topic/table/{tableId}/presence.
      */
     @GetMapping("/{tableId}/users")
     public ResponseEntity<List<String>> getActiveUsers(@PathVariable Long tableId) {
@@ -111,26 +274,41 @@ public class CustomTableController {
 
     /**
      * WebSocket endpoint for table updates.
+     *
+     * Applied updates are broadcast to /topic/table/{tableId} in TableUpdateFrames.
      */
     @MessageMapping("/table/{tableId}/update")
     public void handleTableUpdate(
             @DestinationVariable Long tableId,
             TableUpdateMessage update,
+            @Header("simpSessionId") String sessionId,
             Authentication authentication) {
         update.setUpdatedBy(authentication.getName());
+        tableService.heartbeat(sessionId);
+        BooleanSupplier apply;
         switch (update.getUpdateType()) {
             case CELL_UPDATE:
-                tableService.updateCell(tableId, update);
+                apply = () -> {
+                    tableService.updateCell(tableId, update);
+                    return true;
+                };
                 break;
             case ROW_INSERT:
-                tableService.insertRow(tableId, update);
+                apply = () -> {
+                    tableService.insertRow(tableId, update);
+                    return true;
+                };
                 break;
             case ROW_DELETE:
-                tableService.deleteRow(tableId, update);
-                break;
-            case COLUMN_UPDATE:
-                tableService.updateColumn(tableId, update);
+                apply = () -> tableService.deleteRow(tableId, update);
                 break;
+            default:
+                // Column changes go through PATCH /api/custom-tables/{id}
+                throw new IllegalArgumentException("Unsupported update type: " + update.getUpdateType());
+        }
+        // Only operations that changed the table are sent to the other clients
+        if (!broadcaster.applyAndPublish(tableId, update, apply)) {
+            logger.info("Rejected {} on table {}: nothing to change", update.getUpdateType(), tableId);
         }
     }
 
@@ -140,8 +318,9 @@ public class CustomTableController {
     @MessageMapping("/table/{tableId}/join")
     public void joinSession(
             @DestinationVariable Long tableId,
+            @Header("simpSessionId") String sessionId,
             Authentication authentication) {
-        tableService.joinSession(tableId, authentication.getName());
+        tableService.joinSession(tableId, authentication.getName(), sessionId);
     }
 
     /**
@@ -150,7 +329,16 @@ public class CustomTableController {
     @MessageMapping("/table/{tableId}/leave")
     public void leaveSession(
             @DestinationVariable Long tableId,
-            Authentication authentication) {
-        tableService.leaveSession(tableId, authentication.getName());
+            @Header("simpSessionId") String sessionId) {
+        tableService.leaveSession(tableId, sessionId);
+    }
+
+    /**
+     * WebSocket endpoint clients call periodically while a table is open;
+     * presence expires without it.
+     */
+    @MessageMapping("/table/heartbeat")
+    public void heartbeat(@Header("simpSessionId") String sessionId) {
+        tableService.heartbeat(sessionId);
     }
 }
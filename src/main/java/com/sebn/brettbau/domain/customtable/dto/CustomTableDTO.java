@@ -13,7 +13,10 @@ public class CustomTableDTO {
     private LocalDateTime createdAt;
     private LocalDateTime lastModifiedAt;
     private String lastModifiedBy;
+    private Long version;
     private List<CustomColumnDTO> columns;
     // New field: 2D list representing the table's cell data.
     private List<List<Object>> data;
+    // Id of the row behind each entry of data, used to address rows in a patch.
+    private List<Long> rowIds;
 }
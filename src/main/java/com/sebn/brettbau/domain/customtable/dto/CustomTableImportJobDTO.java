@@ -0,0 +1,19 @@
+package com.sebn.brettbau.domain.customtable.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class CustomTableImportJobDTO {
+    private String id;
+    private Long tableId;
+    private String fileName;
+    // RUNNING, DONE or FAILED
+    private String status;
+    private Long rowsImported;
+    // Share of the file processed so far in percent; null when it cannot be told (xlsx)
+    private Integer progress;
+    private String error;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
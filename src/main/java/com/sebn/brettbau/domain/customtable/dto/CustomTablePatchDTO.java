@@ -0,0 +1,21 @@
+package com.sebn.brettbau.domain.customtable.dto;
+
+import lombok.Data;
+import java.util.List;
+
+/**
+ * Changes to apply to a table on top of {@code baseVersion}, the version
+ * the client last loaded. Only the listed rows and columns are touched.
+ */
+@Data
+public class CustomTablePatchDTO {
+    private Long baseVersion;
+    private String name;
+    private String description;
+    private List<CustomColumnDTO> addedColumns;
+    private List<CustomColumnDTO> updatedColumns;
+    private List<Long> removedColumnIds;
+    private List<CustomTableRowDTO> addedRows;
+    private List<CustomTableRowDTO> updatedRows;
+    private List<Long> removedRowIds;
+}
@@ -0,0 +1,13 @@
+package com.sebn.brettbau.domain.customtable.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class CustomTablePatchResultDTO {
+    private Long tableId;
+    private Long version;
+    // Saved added columns and ids of added rows, in the order they were sent.
+    private List<CustomColumnDTO> addedColumns;
+    private List<Long> addedRowIds;
+}
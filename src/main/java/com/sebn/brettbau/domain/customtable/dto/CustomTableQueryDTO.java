@@ -0,0 +1,21 @@
+package com.sebn.brettbau.domain.customtable.dto;
+
+import lombok.Data;
+import java.util.List;
+
+/**
+ * A query over one table. Without groupBy or aggregates the matching rows are
+ * returned (restricted to {@code columns} if given); otherwise one row per
+ * group with the group-by values followed by the aggregate values.
+ */
+@Data
+public class CustomTableQueryDTO {
+    // All filters must match
+    private List<TableQueryFilterDTO> filters;
+    private List<TableQuerySortDTO> sort;
+    private List<Long> groupBy;
+    private List<TableQueryAggregateDTO> aggregates;
+    private List<Long> columns;
+    private Integer offset;
+    private Integer limit;
+}
@@ -0,0 +1,18 @@
+package com.sebn.brettbau.domain.customtable.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class CustomTableQueryResultDTO {
+    private Long tableId;
+    // Table revision the result was computed on
+    private Long revision;
+    // Number of matching rows, or of groups for grouped queries
+    private Long total;
+    // Label of each result column, e.g. "Project" or "SUM(Hours)"
+    private List<String> columns;
+    // Ids of the returned rows; null for grouped queries
+    private List<Long> rowIds;
+    private List<List<Object>> data;
+}
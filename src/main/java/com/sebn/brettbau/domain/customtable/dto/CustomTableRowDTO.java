@@ -0,0 +1,14 @@
+package com.sebn.brettbau.domain.customtable.dto;
+
+import lombok.Data;
+import java.util.Map;
+
+@Data
+public class CustomTableRowDTO {
+    // Set for updated rows, ignored for added rows.
+    private Long id;
+    // Position an added row is inserted at; appended when null.
+    private Integer rowIndex;
+    // Column id -> value. For updated rows only the given cells change, a null value clears the cell.
+    private Map<Long, Object> cells;
+}
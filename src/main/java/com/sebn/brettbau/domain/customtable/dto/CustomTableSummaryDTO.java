@@ -0,0 +1,26 @@
+package com.sebn.brettbau.domain.customtable.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Table metadata for the table catalog, without columns or cell data.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomTableSummaryDTO {
+    private Long id;
+    private String name;
+    private String description;
+    private String createdBy;
+    private LocalDateTime createdAt;
+    private LocalDateTime lastModifiedAt;
+    private String lastModifiedBy;
+    private Long version;
+    private Integer rowCount;
+    private Integer columnCount;
+}
@@ -0,0 +1,20 @@
+package com.sebn.brettbau.domain.customtable.dto;
+
+import lombok.Data;
+import java.util.List;
+
+/**
+ * A rectangular slice of a table: the rows [offset, offset + data.size())
+ * restricted to {@code columns}.
+ */
+@Data
+public class CustomTableWindowDTO {
+    private Long tableId;
+    private Long version;
+    private Integer offset;
+    private Long totalRows;
+    private List<CustomColumnDTO> columns;
+    private List<Long> rowIds;
+    // One entry per row, values in the order of columns.
+    private List<List<Object>> data;
+}
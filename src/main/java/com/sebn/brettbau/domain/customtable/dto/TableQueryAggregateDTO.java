@@ -0,0 +1,11 @@
+package com.sebn.brettbau.domain.customtable.dto;
+
+import lombok.Data;
+
+@Data
+public class TableQueryAggregateDTO {
+    // SUM, AVG, MIN, MAX or COUNT
+    private String function;
+    // Column to aggregate; may be null for COUNT, which then counts rows
+    private Long columnId;
+}
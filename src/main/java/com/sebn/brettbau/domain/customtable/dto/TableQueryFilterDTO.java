@@ -0,0 +1,15 @@
+package com.sebn.brettbau.domain.customtable.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class TableQueryFilterDTO {
+    private Long columnId;
+    // EQ, NE, LT, LE, GT, GE, IN, CONTAINS, STARTS_WITH, IS_EMPTY, NOT_EMPTY
+    private String op;
+    // Compared according to the column type (number, date, boolean or text)
+    private String value;
+    // For IN
+    private List<String> values;
+}
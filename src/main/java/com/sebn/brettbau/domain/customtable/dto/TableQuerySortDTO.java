@@ -0,0 +1,10 @@
+package com.sebn.brettbau.domain.customtable.dto;
+
+import lombok.Data;
+
+@Data
+public class TableQuerySortDTO {
+    private Long columnId;
+    // ASC (default) or DESC; empty values always sort last
+    private String direction;
+}
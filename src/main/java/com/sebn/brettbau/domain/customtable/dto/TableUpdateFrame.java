@@ -0,0 +1,23 @@
+package com.sebn.brettbau.domain.customtable.dto;
+
+import lombok.Data;
+import java.util.List;
+
+/**
+ * A batch of operations on one table, as broadcast on /topic/table/{tableId}
+ * and returned when catching up after a reconnect.
+ *
+ * Sequence numbers increase per table; coalesced operations leave gaps, so
+ * clients should continue from {@code toSeq}. {@code epoch} changes when the
+ * server restarts and sequence numbers start over.
+ */
+@Data
+public class TableUpdateFrame {
+    private Long tableId;
+    private Long epoch;
+    private Long fromSeq;
+    private Long toSeq;
+    private List<TableUpdateMessage> ops;
+    // True if the requested operations are no longer available and the table must be reloaded
+    private boolean resync;
+}
@@ -7,14 +7,20 @@ public class TableUpdateMessage {
     private Long tableId;
     private Long columnId;
     private Integer rowIndex;
+    // Identifies the row independently of its position; preferred over rowIndex when set.
+    private Long rowId;
     private String newValue;
     private String updatedBy;
     private UpdateType updateType;
+    // Set by the server when the operation is broadcast
+    private Long seq;
 
     public enum UpdateType {
         CELL_UPDATE,
         ROW_INSERT,
         ROW_DELETE,
-        COLUMN_UPDATE
+        COLUMN_UPDATE,
+        // Columns or many rows changed at once; clients reload the table
+        TABLE_RELOAD
     }
 }
@@ -31,4 +31,20 @@ public class CustomTable {
 
     @Column(name = "last_modified_by")
     private String lastModifiedBy;
+
+    // Bumped by writes that go through the REST API (saves, patches, new columns);
+    // clients send it back to detect concurrent changes, see CustomTableRepository.bumpVersion
+    @Column(name = "version")
+    private Long version;
+
+    // Bumped on every change of the data, including live edits, see CustomTableRepository.touch
+    @Column(name = "revision")
+    private Long revision;
+
+    // Maintained with bulk updates only (CustomTableRepository.adjustCounts/setCounts)
+    @Column(name = "row_count", updatable = false)
+    private Integer rowCount;
+
+    @Column(name = "column_count", updatable = false)
+    private Integer columnCount;
 }
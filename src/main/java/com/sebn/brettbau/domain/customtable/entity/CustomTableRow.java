@@ -0,0 +1,43 @@
+package com.sebn.brettbau.domain.customtable.entity;
+
+import lombok.*;
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One row of a custom table. All cell values of the row are packed into
+ * {@code cells} (see CustomTableRowCodec) instead of one record per cell.
+ * The position of a row is given by ordering on {@code sortKey}; keys are
+ * spaced apart so a row can be inserted between two others without
+ * renumbering the rest (see CustomTableRowOrder).
+ */
+@Entity
+@Table(name = "custom_table_rows")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomTableRow {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "table_id")
+    private CustomTable table;
+
+    @Column(name = "sort_key")
+    private Long sortKey;
+
+    // Encoded map of column id -> cell value
+    @Column(name = "cells")
+    private String cells;
+
+    @Column(name = "last_modified_at")
+    private LocalDateTime lastModifiedAt;
+
+    @Column(name = "last_modified_by")
+    private String lastModifiedBy;
+}
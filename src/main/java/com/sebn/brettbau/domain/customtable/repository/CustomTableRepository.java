@@ -1,11 +1,76 @@
 // CustomTableRepository.java
 package com.sebn.brettbau.domain.customtable.repository;
 
+import com.sebn.brettbau.domain.customtable.dto.CustomTableSummaryDTO;
 import com.sebn.brettbau.domain.customtable.entity.CustomTable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface CustomTableRepository extends JpaRepository<CustomTable, Long> {
     // Remove findByCreatedBy to allow access to all tables
-}
\ No newline at end of file
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM CustomTable t WHERE t.id = :tableId")
+    Optional<CustomTable> findByIdForUpdate(@Param("tableId") Long tableId);
+
+    // Bumps the revision of a table but leaves its version alone, for live edits
+    // clients are not told a version for; returns 0 if the table does not exist
+    @Modifying
+    @Query("UPDATE CustomTable t SET t.revision = t.revision + 1, t.lastModifiedAt = :now, " +
+           "t.lastModifiedBy = COALESCE(:userId, t.lastModifiedBy) WHERE t.id = :tableId")
+    int touch(@Param("tableId") Long tableId,
+              @Param("now") LocalDateTime now,
+              @Param("userId") String userId);
+
+    // Bumps both the version and the revision of a table; returns 0 if the table does not exist
+    @Modifying
+    @Query("UPDATE CustomTable t SET t.version = t.version + 1, t.revision = t.revision + 1, " +
+           "t.lastModifiedAt = :now, t.lastModifiedBy = COALESCE(:userId, t.lastModifiedBy) " +
+           "WHERE t.id = :tableId")
+    int bumpVersion(@Param("tableId") Long tableId,
+                    @Param("now") LocalDateTime now,
+                    @Param("userId") String userId);
+
+    // Same as bumpVersion, but only if the table is still at expectedVersion
+    @Modifying
+    @Query("UPDATE CustomTable t SET t.version = t.version + 1, t.revision = t.revision + 1, " +
+           "t.lastModifiedAt = :now, " +
+           "t.lastModifiedBy = COALESCE(:userId, t.lastModifiedBy) " +
+           "WHERE t.id = :tableId AND t.version = :expectedVersion")
+    int touchIfVersion(@Param("tableId") Long tableId,
+                       @Param("expectedVersion") Long expectedVersion,
+                       @Param("now") LocalDateTime now,
+                       @Param("userId") String userId);
+
+    @Query("SELECT new com.sebn.brettbau.domain.customtable.dto.CustomTableSummaryDTO(" +
+           "t.id, t.name, t.description, t.createdBy, t.createdAt, t.lastModifiedAt, t.lastModifiedBy, " +
+           "t.version, t.rowCount, t.columnCount) " +
+           "FROM CustomTable t ORDER BY t.lastModifiedAt DESC")
+    List<CustomTableSummaryDTO> findAllSummaries();
+
+    @Modifying
+    @Query("UPDATE CustomTable t SET t.rowCount = t.rowCount + :rowDelta, " +
+           "t.columnCount = t.columnCount + :columnDelta WHERE t.id = :tableId")
+    int adjustCounts(@Param("tableId") Long tableId,
+                     @Param("rowDelta") int rowDelta,
+                     @Param("columnDelta") int columnDelta);
+
+    // Null leaves the respective count unchanged
+    @Modifying
+    @Query("UPDATE CustomTable t SET t.rowCount = COALESCE(:rowCount, t.rowCount), " +
+           "t.columnCount = COALESCE(:columnCount, t.columnCount) WHERE t.id = :tableId")
+    int setCounts(@Param("tableId") Long tableId,
+                  @Param("rowCount") Integer rowCount,
+                  @Param("columnCount") Integer columnCount);
+}
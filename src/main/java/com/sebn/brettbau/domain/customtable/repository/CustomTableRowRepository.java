@@ -0,0 +1,55 @@
+package com.sebn.brettbau.domain.customtable.repository;
+
+import com.sebn.brettbau.domain.customtable.entity.CustomTableRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CustomTableRowRepository extends JpaRepository<CustomTableRow, Long> {
+    @Query("SELECT r FROM CustomTableRow r WHERE r.table.id = :tableId ORDER BY r.sortKey, r.id")
+    List<CustomTableRow> findByTableIdOrdered(@Param("tableId") Long tableId);
+
+    @Query("SELECT r FROM CustomTableRow r WHERE r.table.id = :tableId AND r.id = :rowId")
+    Optional<CustomTableRow> findByTableIdAndId(@Param("tableId") Long tableId, @Param("rowId") Long rowId);
+
+    @Query("SELECT r FROM CustomTableRow r WHERE r.table.id = :tableId AND r.id IN :ids")
+    List<CustomTableRow> findByTableIdAndIdIn(@Param("tableId") Long tableId,
+                                              @Param("ids") Collection<Long> ids);
+
+    // Rows at positions [offset, offset + limit), walked on the (table_id, sort_key) index
+    @Query(value = "SELECT * FROM custom_table_rows WHERE table_id = :tableId " +
+                   "ORDER BY sort_key, id LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<CustomTableRow> findRowsAt(@Param("tableId") Long tableId,
+                                    @Param("offset") int offset,
+                                    @Param("limit") int limit);
+
+    // Next rows after (afterSortKey, afterId) in table order, for reading a table in chunks
+    @Query(value = "SELECT * FROM custom_table_rows WHERE table_id = :tableId " +
+                   "AND (sort_key > :afterSortKey OR (sort_key = :afterSortKey AND id > :afterId)) " +
+                   "ORDER BY sort_key, id LIMIT :limit", nativeQuery = true)
+    List<CustomTableRow> findChunkAfter(@Param("tableId") Long tableId,
+                                        @Param("afterSortKey") long afterSortKey,
+                                        @Param("afterId") long afterId,
+                                        @Param("limit") int limit);
+
+    @Query("SELECT COUNT(r) FROM CustomTableRow r WHERE r.table.id = :tableId")
+    long countByTableId(@Param("tableId") Long tableId);
+
+    @Query("SELECT MAX(r.sortKey) FROM CustomTableRow r WHERE r.table.id = :tableId")
+    Long findMaxSortKey(@Param("tableId") Long tableId);
+
+    @Modifying
+    @Query("DELETE FROM CustomTableRow r WHERE r.table.id = :tableId")
+    void deleteByTableId(@Param("tableId") Long tableId);
+
+    @Modifying
+    @Query("DELETE FROM CustomTableRow r WHERE r.table.id = :tableId AND r.id = :rowId")
+    int deleteByTableIdAndId(@Param("tableId") Long tableId, @Param("rowId") Long rowId);
+}
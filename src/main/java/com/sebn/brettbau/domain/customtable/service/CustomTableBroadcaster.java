@@ -0,0 +1,202 @@
+package com.sebn.brettbau.domain.customtable.service;
+
+import com.sebn.brettbau.domain.customtable.dto.TableUpdateFrame;
+import com.sebn.brettbau.domain.customtable.dto.TableUpdateMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Republishes applied table operations to /topic/table/{tableId}.
+ *
+ * Each operation gets the next sequence number of its table. Operations are
+ * collected and sent as one frame per tick; within a tick, repeated edits of
+ * the same cell collapse to the last one. The most recent operations of each
+ * table are kept so a reconnecting client can catch up from its last sequence
+ * number instead of reloading the table.
+ */
+@Component
+public class CustomTableBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomTableBroadcaster.class);
+
+    // Sequence numbers restart with the process; clients compare epochs to notice.
+    private final long epoch = System.currentTimeMillis();
+
+    private final Map<Long, TableChannel> channels = new ConcurrentHashMap<>();
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Value("${customtable.broadcast.history-size:1000}")
+    private int historySize;
+
+    public CustomTableBroadcaster(SimpMessagingTemplate messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    public static String topic(Long tableId) {
+        return "/topic/table/" + tableId;
+    }
+
+    /**
+     * Apply an operation and, if it changed the table, publish it. Operations of
+     * one table are applied one at a time, so sequence numbers follow the order
+     * in which they were applied and clients settle on the state the server has.
+     *
+     * @return whether the operation was applied and published
+     */
+    public boolean applyAndPublish(Long tableId, TableUpdateMessage op, BooleanSupplier apply) {
+        TableChannel channel = channels.computeIfAbsent(tableId, id -> new TableChannel());
+        // Separate from the channel lock, so frames are still sent while an operation is applied
+        synchronized (channel.applyLock) {
+            if (!apply.getAsBoolean()) {
+                return false;
+            }
+            publish(tableId, op);
+            return true;
+        }
+    }
+
+    /**
+     * Queue an applied operation for the next frame and assign its sequence number.
+     */
+    public void publish(Long tableId, TableUpdateMessage op) {
+        TableChannel channel = channels.computeIfAbsent(tableId, id -> new TableChannel());
+        synchronized (channel) {
+            op.setTableId(tableId);
+            op.setSeq(++channel.seq);
+            channel.pending.add(op);
+            channel.history.addLast(op);
+            while (channel.history.size() > historySize) {
+                channel.history.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * Tell clients to reload a table, e.g. after a full save or a patch.
+     */
+    public void publishReload(Long tableId, String updatedBy) {
+        TableUpdateMessage op = new TableUpdateMessage();
+        op.setUpdateType(TableUpdateMessage.UpdateType.TABLE_RELOAD);
+        op.setUpdatedBy(updatedBy);
+        publish(tableId, op);
+    }
+
+    /**
+     * Operations after {@code since}, or a frame with resync set if they are no
+     * longer available (too old, or the server restarted in between).
+     */
+    public TableUpdateFrame getUpdatesSince(Long tableId, long since, Long clientEpoch) {
+        TableChannel channel = channels.get(tableId);
+        TableUpdateFrame frame = new TableUpdateFrame();
+        frame.setTableId(tableId);
+        frame.setEpoch(epoch);
+        if (channel == null) {
+            frame.setFromSeq(since);
+            frame.setToSeq(0L);
+            frame.setOps(Collections.emptyList());
+            frame.setResync(since > 0);
+            return frame;
+        }
+
+        synchronized (channel) {
+            frame.setToSeq(channel.seq);
+            TableUpdateMessage oldest = channel.history.peekFirst();
+            boolean otherEpoch = clientEpoch != null && clientEpoch != epoch;
+            boolean tooOld = oldest != null && oldest.getSeq() > since + 1;
+            if (otherEpoch || since > channel.seq || tooOld) {
+                frame.setFromSeq(since);
+                frame.setOps(Collections.emptyList());
+                frame.setResync(true);
+                return frame;
+            }
+
+            List<TableUpdateMessage> ops = new ArrayList<>();
+            for (TableUpdateMessage op : channel.history) {
+                if (op.getSeq() > since) {
+                    ops.add(op);
+                }
+            }
+            frame.setFromSeq(since + 1);
+            frame.setOps(ops);
+            return frame;
+        }
+    }
+
+    /**
+     * Send one frame per table with everything published since the last tick.
+     */
+    @Scheduled(fixedDelayString = "${customtable.broadcast.tick-ms:50}")
+    public void sendPending() {
+        channels.forEach((tableId, channel) -> {
+            List<TableUpdateMessage> drained;
+            long fromSeq;
+            long toSeq;
+            synchronized (channel) {
+                if (channel.pending.isEmpty()) {
+                    return;
+                }
+                drained = channel.pending;
+                channel.pending = new ArrayList<>();
+                fromSeq = drained.get(0).getSeq();
+                toSeq = channel.seq;
+            }
+
+            TableUpdateFrame frame = new TableUpdateFrame();
+            frame.setTableId(tableId);
+            frame.setEpoch(epoch);
+            frame.setFromSeq(fromSeq);
+            frame.setToSeq(toSeq);
+            frame.setOps(coalesce(drained));
+            try {
+                messagingTemplate.convertAndSend(topic(tableId), frame);
+            } catch (RuntimeException e) {
+                // Clients that miss the frame catch up through the history
+                logger.error("Broadcasting updates of table {} failed: {}", tableId, e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Drop the channel of a deleted table.
+     */
+    public void remove(Long tableId) {
+        channels.remove(tableId);
+    }
+
+    // Keeps only the last edit of each cell; every other operation is kept in order.
+    private static List<TableUpdateMessage> coalesce(List<TableUpdateMessage> ops) {
+        Map<Object, TableUpdateMessage> latest = new LinkedHashMap<>();
+        for (TableUpdateMessage op : ops) {
+            Object key = op;
+            if (op.getUpdateType() == TableUpdateMessage.UpdateType.CELL_UPDATE && op.getRowId() != null) {
+                key = List.of(op.getRowId(), Objects.requireNonNullElse(op.getColumnId(), -1L));
+                // Re-inserting moves the cell to the position of its last edit
+                latest.remove(key);
+            }
+            latest.put(key, op);
+        }
+        return new ArrayList<>(latest.values());
+    }
+
+    private static class TableChannel {
+        final Object applyLock = new Object();
+        long seq;
+        List<TableUpdateMessage> pending = new ArrayList<>();
+        final Deque<TableUpdateMessage> history = new ArrayDeque<>();
+    }
+}
@@ -0,0 +1,463 @@
+package com.sebn.brettbau.domain.customtable.service;
+
+import com.sebn.brettbau.domain.customtable.dto.TableUpdateMessage;
+import com.sebn.brettbau.domain.customtable.entity.CustomColumn;
+import com.sebn.brettbau.domain.customtable.entity.CustomTableRow;
+import com.sebn.brettbau.domain.customtable.repository.CustomColumnRepository;
+import com.sebn.brettbau.domain.customtable.repository.CustomTableRepository;
+import com.sebn.brettbau.domain.customtable.repository.CustomTableRowRepository;
+import com.sebn.brettbau.util.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory working copies of the custom tables that are being edited.
+ *
+ * Cell edits are applied to the working copy right away and written to the
+ * database in batches: every flush interval, when the last user leaves a
+ * table, before the table is read or structurally changed through the
+ * service, and on shutdown. A flush writes only the edited cells, each with
+ * JSON_SET or JSON_REMOVE on its key of the stored row, and bumps the table
+ * revision in the same transaction. The version is left alone, so a patch
+ * based on the version a client loaded still applies after its cell edits
+ * have been flushed. Flushes of the same table never overlap.
+ * Because a flush never rewrites cells it did not edit, a working copy that
+ * is older than a structural change cannot undo it; such a copy is dropped
+ * once the change commits (see evictAfterCommit). At most one flush interval
+ * of edits is lost if the process dies.
+ *
+ * Row inserts and deletes still go to the database directly and are mirrored
+ * here once committed. Tables idle for longer than the idle timeout, or the
+ * least recently used ones beyond the size limit, are flushed and dropped.
+ */
+@Component
+public class CustomTableHotCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomTableHotCache.class);
+
+    private static final String SET_CELL_SQL =
+            "UPDATE custom_table_rows SET cells = JSON_SET(COALESCE(cells, '{}'), ?, CAST(? AS JSON)), " +
+            "last_modified_at = ?, last_modified_by = ? WHERE id = ? AND table_id = ?";
+
+    private static final String REMOVE_CELL_SQL =
+            "UPDATE custom_table_rows SET cells = JSON_REMOVE(COALESCE(cells, '{}'), ?), " +
+            "last_modified_at = ?, last_modified_by = ? WHERE id = ? AND table_id = ?";
+
+    private final Map<Long, HotTable> tables = new ConcurrentHashMap<>();
+
+    private final CustomTableRepository tableRepository;
+    private final CustomColumnRepository columnRepository;
+    private final CustomTableRowRepository rowRepository;
+    private final CustomTableRowCodec rowCodec;
+    private final CustomTableRowOrder rowOrder;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTransaction;
+
+    @Value("${customtable.hot-cache.max-tables:50}")
+    private int maxTables;
+
+    @Value("${customtable.hot-cache.idle-timeout-ms:600000}")
+    private long idleTimeoutMs;
+
+    public CustomTableHotCache(CustomTableRepository tableRepository,
+                               CustomColumnRepository columnRepository,
+                               CustomTableRowRepository rowRepository,
+                               CustomTableRowCodec rowCodec,
+                               CustomTableRowOrder rowOrder,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager) {
+        this.tableRepository = tableRepository;
+        this.columnRepository = columnRepository;
+        this.rowRepository = rowRepository;
+        this.rowCodec = rowCodec;
+        this.rowOrder = rowOrder;
+        this.jdbcTemplate = jdbcTemplate;
+
+        // Loads and flushes commit on their own, independent of any transaction the caller is in
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Apply a cell edit to the working copy of the table. Editing past the last
+     * row appends a row. The id of the edited row is set on the message, and
+     * for an appended row also the index it actually got.
+     */
+    public void updateCell(Long tableId, TableUpdateMessage update) {
+        while (true) {
+            HotTable hot = acquire(tableId);
+            synchronized (hot) {
+                if (hot.evicted) {
+                    // Dropped between lookup and lock; load it again
+                    continue;
+                }
+                if (!hot.columnIds.contains(update.getColumnId())) {
+                    throw new IllegalArgumentException("Column not found: " + update.getColumnId());
+                }
+
+                Long rowId = hot.resolveRow(update);
+                if (rowId == null) {
+                    rowId = appendRow(hot, update.getUpdatedBy());
+                    // Other clients place the new row by index, which may be smaller than requested
+                    update.setRowIndex(hot.rowIds.size() - 1);
+                }
+
+                Map<Long, Object> cells = hot.cells.get(rowId);
+                if (update.getNewValue() == null) {
+                    cells.remove(update.getColumnId());
+                } else {
+                    cells.put(update.getColumnId(), update.getNewValue());
+                }
+                hot.dirtyCells.computeIfAbsent(rowId, id -> new LinkedHashSet<>()).add(update.getColumnId());
+                hot.lastModifiedBy = update.getUpdatedBy();
+                hot.lastAccess = System.currentTimeMillis();
+                update.setRowId(rowId);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Mirror a committed row insert into the working copy, if the table is loaded.
+     */
+    public void onRowInserted(Long tableId, Integer position, Long rowId) {
+        TransactionHooks.afterCommit(() -> {
+            HotTable hot = tables.get(tableId);
+            if (hot == null) {
+                return;
+            }
+            synchronized (hot) {
+                if (!hot.cells.containsKey(rowId)) {
+                    int index = position == null ? hot.rowIds.size()
+                            : Math.max(0, Math.min(position, hot.rowIds.size()));
+                    hot.rowIds.add(index, rowId);
+                    hot.cells.put(rowId, new LinkedHashMap<>());
+                }
+            }
+        });
+    }
+
+    /**
+     * Mirror a committed row delete into the working copy, if the table is loaded.
+     */
+    public void onRowDeleted(Long tableId, Long rowId) {
+        TransactionHooks.afterCommit(() -> {
+            HotTable hot = tables.get(tableId);
+            if (hot == null) {
+                return;
+            }
+            synchronized (hot) {
+                if (hot.cells.remove(rowId) != null) {
+                    hot.rowIds.remove(rowId);
+                    hot.dirtyCells.remove(rowId);
+                }
+            }
+        });
+    }
+
+    /**
+     * Write pending edits of a table, e.g. before it is read from the database.
+     */
+    public void flush(Long tableId) {
+        HotTable hot = tables.get(tableId);
+        if (hot != null) {
+            flush(hot);
+        }
+    }
+
+    /**
+     * Write pending edits of a table and drop its working copy, e.g. before its
+     * columns or rows are rewritten through the database.
+     */
+    public void flushAndEvict(Long tableId) {
+        HotTable hot = tables.get(tableId);
+        if (hot != null) {
+            evict(hot, true);
+        }
+    }
+
+    /**
+     * Write pending edits of a table and drop its working copy unless it has been
+     * edited again meanwhile, e.g. when the last user leaves.
+     */
+    public void release(Long tableId) {
+        HotTable hot = tables.get(tableId);
+        if (hot != null) {
+            evict(hot, false);
+        }
+    }
+
+    /**
+     * Drop the working copy of a table once the current transaction commits,
+     * after writing its pending cell edits. Structural changes call this in
+     * addition to flushAndEvict: a copy loaded between that eviction and the
+     * commit shows the table as it was before the change.
+     */
+    public void evictAfterCommit(Long tableId) {
+        TransactionHooks.afterCommit(() -> {
+            HotTable hot = tables.get(tableId);
+            if (hot == null) {
+                return;
+            }
+            synchronized (hot.flushLock) {
+                synchronized (hot) {
+                    if (hot.evicted) {
+                        return;
+                    }
+                    // Edits arriving from now on load the committed state
+                    hot.evicted = true;
+                    tables.remove(tableId, hot);
+                }
+                // Only the edited cells are written, so this cannot undo the change
+                flush(hot);
+            }
+        });
+    }
+
+    /**
+     * Drop the working copy of a deleted table without writing it.
+     */
+    public void discard(Long tableId) {
+        HotTable hot = tables.remove(tableId);
+        if (hot != null) {
+            synchronized (hot) {
+                hot.evicted = true;
+                hot.dirtyCells.clear();
+            }
+        }
+    }
+
+    /**
+     * Write pending edits of all tables.
+     */
+    public void flushAll() {
+        tables.values().forEach(this::flush);
+    }
+
+    @Scheduled(fixedDelayString = "${customtable.hot-cache.flush-interval-ms:1000}")
+    public void flushAndEvictIdle() {
+        long idleBefore = System.currentTimeMillis() - idleTimeoutMs;
+        for (HotTable hot : tables.values()) {
+            if (hot.lastAccess < idleBefore) {
+                evict(hot, false);
+            } else {
+                flush(hot);
+            }
+        }
+
+        int excess = tables.size() - maxTables;
+        if (excess > 0) {
+            List<HotTable> leastRecentlyUsed = new ArrayList<>(tables.values());
+            leastRecentlyUsed.sort(Comparator.comparingLong(hot -> hot.lastAccess));
+            leastRecentlyUsed.stream().limit(excess).forEach(hot -> evict(hot, false));
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushAll();
+    }
+
+    private HotTable acquire(Long tableId) {
+        HotTable hot = tables.get(tableId);
+        if (hot != null) {
+            return hot;
+        }
+        // Loaded outside the map so slow loads do not block other tables
+        HotTable loaded = load(tableId);
+        HotTable existing = tables.putIfAbsent(tableId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private HotTable load(Long tableId) {
+        // Locking the table row waits for running structural changes (patches, saves) to commit
+        return writeTransaction.execute(status -> {
+            if (!tableRepository.findByIdForUpdate(tableId).isPresent()) {
+                throw new IllegalArgumentException("Table not found: " + tableId);
+            }
+            HotTable hot = new HotTable(tableId);
+            for (CustomColumn column : columnRepository.findByTableIdOrderByOrderIndexAsc(tableId)) {
+                hot.columnIds.add(column.getId());
+            }
+            for (CustomTableRow row : rowRepository.findByTableIdOrdered(tableId)) {
+                hot.rowIds.add(row.getId());
+                hot.cells.put(row.getId(), rowCodec.decode(row.getCells()));
+            }
+            logger.debug("Loaded table {} into the hot cache ({} rows)", tableId, hot.rowIds.size());
+            return hot;
+        });
+    }
+
+    // Called with the lock on hot held; new rows are written right away so they get an id.
+    private Long appendRow(HotTable hot, String userId) {
+        Long rowId = writeTransaction.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (tableRepository.touch(hot.tableId, now, userId) == 0) {
+                throw new IllegalArgumentException("Table not found: " + hot.tableId);
+            }
+            CustomTableRow row = rowRepository.save(CustomTableRow.builder()
+                    .table(tableRepository.getById(hot.tableId))
+                    .sortKey(rowOrder.keyForInsert(hot.tableId, null))
+                    .cells(rowCodec.encode(new LinkedHashMap<>()))
+                    .lastModifiedAt(now)
+                    .lastModifiedBy(userId)
+                    .build());
+            tableRepository.adjustCounts(hot.tableId, 1, 0);
+            return row.getId();
+        });
+        hot.rowIds.add(rowId);
+        hot.cells.put(rowId, new LinkedHashMap<>());
+        return rowId;
+    }
+
+    private void flush(HotTable hot) {
+        synchronized (hot.flushLock) {
+            List<Object[]> sets = new ArrayList<>();
+            List<Object[]> removes = new ArrayList<>();
+            List<Long> setColumns = new ArrayList<>();
+            List<Long> removeColumns = new ArrayList<>();
+            String userId;
+            synchronized (hot) {
+                if (hot.dirtyCells.isEmpty()) {
+                    return;
+                }
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                for (Map.Entry<Long, Set<Long>> row : hot.dirtyCells.entrySet()) {
+                    Map<Long, Object> cells = hot.cells.get(row.getKey());
+                    for (Long columnId : row.getValue()) {
+                        Object value = cells.get(columnId);
+                        String path = "$.\"" + columnId + "\"";
+                        if (value == null) {
+                            removes.add(new Object[]{path, now, hot.lastModifiedBy, row.getKey(), hot.tableId});
+                            removeColumns.add(columnId);
+                        } else {
+                            sets.add(new Object[]{path, rowCodec.encodeValue(value), now, hot.lastModifiedBy,
+                                    row.getKey(), hot.tableId});
+                            setColumns.add(columnId);
+                        }
+                    }
+                }
+                userId = hot.lastModifiedBy;
+                hot.flushing = new LinkedHashMap<>(hot.dirtyCells);
+                hot.dirtyCells.clear();
+            }
+
+            try {
+                boolean tableExists = Boolean.TRUE.equals(writeTransaction.execute(status -> {
+                    if (tableRepository.touch(hot.tableId, LocalDateTime.now(), userId) == 0) {
+                        return false;
+                    }
+                    // Edits of columns removed meanwhile are not written back
+                    Set<Long> columnIds = new HashSet<>();
+                    columnRepository.findByTableIdOrderByOrderIndexAsc(hot.tableId)
+                            .forEach(column -> columnIds.add(column.getId()));
+                    jdbcTemplate.batchUpdate(SET_CELL_SQL, existing(sets, setColumns, columnIds));
+                    jdbcTemplate.batchUpdate(REMOVE_CELL_SQL, existing(removes, removeColumns, columnIds));
+                    return true;
+                }));
+                if (!tableExists) {
+                    logger.info("Table {} no longer exists, dropping its pending edits", hot.tableId);
+                    discard(hot.tableId);
+                }
+            } catch (RuntimeException e) {
+                synchronized (hot) {
+                    if (hot.evicted) {
+                        logger.error("Flushing dropped table {} failed, its last edits are lost: {}",
+                                hot.tableId, e.getMessage(), e);
+                    } else {
+                        logger.error("Flushing table {} failed, will retry: {}", hot.tableId, e.getMessage(), e);
+                        // The working copy still holds these values (or newer ones)
+                        hot.flushing.forEach((rowId, columnIds) ->
+                                hot.dirtyCells.computeIfAbsent(rowId, id -> new LinkedHashSet<>()).addAll(columnIds));
+                    }
+                }
+            } finally {
+                hot.flushing = null;
+            }
+        }
+    }
+
+    private static List<Object[]> existing(List<Object[]> statements, List<Long> columns, Set<Long> columnIds) {
+        List<Object[]> kept = new ArrayList<>(statements.size());
+        for (int i = 0; i < statements.size(); i++) {
+            if (columnIds.contains(columns.get(i))) {
+                kept.add(statements.get(i));
+            }
+        }
+        return kept;
+    }
+
+    private void evict(HotTable hot, boolean force) {
+        synchronized (hot.flushLock) {
+            flush(hot);
+            synchronized (hot) {
+                if (hot.evicted) {
+                    return;
+                }
+                if (!hot.dirtyCells.isEmpty()) {
+                    if (force) {
+                        // The flush failed; the caller must not work on top of a partly saved table
+                        throw new IllegalStateException("Could not save pending edits of table " + hot.tableId);
+                    }
+                    // Edited again meanwhile, or the flush failed; keep it for now
+                    return;
+                }
+                hot.evicted = true;
+                tables.remove(hot.tableId, hot);
+            }
+        }
+    }
+
+    private static class HotTable {
+        final Long tableId;
+        final Object flushLock = new Object();
+        final Set<Long> columnIds = new HashSet<>();
+        final List<Long> rowIds = new ArrayList<>();
+        final Map<Long, Map<Long, Object>> cells = new HashMap<>();
+        // Row id -> ids of the edited columns of that row
+        final Map<Long, Set<Long>> dirtyCells = new LinkedHashMap<>();
+        Map<Long, Set<Long>> flushing;
+        String lastModifiedBy;
+        volatile long lastAccess = System.currentTimeMillis();
+        boolean evicted;
+
+        HotTable(Long tableId) {
+            this.tableId = tableId;
+        }
+
+        // Row id a message refers to, or null if it points past the last row
+        Long resolveRow(TableUpdateMessage update) {
+            if (update.getRowId() != null) {
+                if (!cells.containsKey(update.getRowId())) {
+                    throw new IllegalArgumentException("Row not found: " + update.getRowId());
+                }
+                return update.getRowId();
+            }
+            if (update.getRowIndex() == null || update.getRowIndex() < 0) {
+                throw new IllegalArgumentException("Either rowId or a valid rowIndex is required");
+            }
+            return update.getRowIndex() < rowIds.size() ? rowIds.get(update.getRowIndex()) : null;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.sebn.brettbau.domain.customtable.service;
+
+import com.sebn.brettbau.domain.customtable.entity.CustomTable;
+import com.sebn.brettbau.domain.customtable.entity.CustomTableSession;
+import com.sebn.brettbau.domain.customtable.repository.CustomTableRepository;
+import com.sebn.brettbau.domain.customtable.repository.CustomTableSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Who is currently looking at which custom table, kept in memory.
+ *
+ * Presence is tied to the websocket session: joining and leaving a table,
+ * heartbeats and updates refresh it, and it goes away when the session
+ * disconnects or has not been seen for the expiry timeout. Changes are sent
+ * to /topic/table/{tableId}/presence. Optionally the current state is copied
+ * to custom_table_sessions periodically, for reporting only.
+ */
+@Component
+public class CustomTablePresence {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomTablePresence.class);
+
+    // tableId -> websocket session id -> presence
+    private final Map<Long, Map<String, Presence>> tables = new ConcurrentHashMap<>();
+    // websocket session id -> tables joined in that session
+    private final Map<String, Set<Long>> sessions = new ConcurrentHashMap<>();
+    private volatile boolean changedSinceSnapshot;
+
+    private final CustomTableHotCache hotCache;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final CustomTableRepository tableRepository;
+    private final CustomTableSessionRepository sessionRepository;
+
+    @Value("${customtable.presence.expiry-ms:60000}")
+    private long expiryMs;
+
+    @Value("${customtable.presence.snapshot-enabled:false}")
+    private boolean snapshotEnabled;
+
+    public CustomTablePresence(CustomTableHotCache hotCache,
+                               SimpMessagingTemplate messagingTemplate,
+                               CustomTableRepository tableRepository,
+                               CustomTableSessionRepository sessionRepository) {
+        this.hotCache = hotCache;
+        this.messagingTemplate = messagingTemplate;
+        this.tableRepository = tableRepository;
+        this.sessionRepository = sessionRepository;
+    }
+
+    public void join(Long tableId, String userId, String sessionId) {
+        long now = System.currentTimeMillis();
+        Presence[] previous = new Presence[1];
+        // Added inside compute, so remove() cannot drop the map of the table in between
+        tables.compute(tableId, (id, present) -> {
+            Map<String, Presence> joined = present != null ? present : new ConcurrentHashMap<>();
+            previous[0] = joined.put(sessionId, new Presence(userId, now, now));
+            return joined;
+        });
+        sessions.computeIfAbsent(sessionId, id -> ConcurrentHashMap.newKeySet()).add(tableId);
+        if (previous[0] == null) {
+            changed(tableId);
+        }
+    }
+
+    public void leave(Long tableId, String sessionId) {
+        Set<Long> joined = sessions.get(sessionId);
+        if (joined != null) {
+            joined.remove(tableId);
+        }
+        remove(tableId, sessionId);
+    }
+
+    /**
+     * Mark a session as still present on all tables it joined.
+     */
+    public void heartbeat(String sessionId) {
+        Set<Long> joined = sessions.get(sessionId);
+        if (joined == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Long tableId : joined) {
+            Map<String, Presence> present = tables.get(tableId);
+            Presence presence = present != null ? present.get(sessionId) : null;
+            if (presence != null) {
+                presence.lastSeen = now;
+            }
+        }
+    }
+
+    /**
+     * Distinct users present on a table, sorted by name.
+     */
+    public List<String> getActiveUsers(Long tableId) {
+        Map<String, Presence> present = tables.get(tableId);
+        if (present == null) {
+            return new ArrayList<>();
+        }
+        Set<String> users = new TreeSet<>();
+        present.values().forEach(presence -> users.add(presence.userId));
+        return new ArrayList<>(users);
+    }
+
+    public void removeTable(Long tableId) {
+        Map<String, Presence> present = tables.remove(tableId);
+        if (present != null) {
+            present.keySet().forEach(sessionId -> {
+                Set<Long> joined = sessions.get(sessionId);
+                if (joined != null) {
+                    joined.remove(tableId);
+                }
+            });
+            changedSinceSnapshot = true;
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Set<Long> joined = sessions.remove(event.getSessionId());
+        if (joined != null) {
+            joined.forEach(tableId -> remove(tableId, event.getSessionId()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${customtable.presence.sweep-interval-ms:15000}")
+    public void expireStale() {
+        long seenBefore = System.currentTimeMillis() - expiryMs;
+        tables.forEach((tableId, present) -> present.forEach((sessionId, presence) -> {
+            if (presence.lastSeen < seenBefore) {
+                logger.info("Presence of {} on table {} expired", presence.userId, tableId);
+                Set<Long> joined = sessions.get(sessionId);
+                if (joined != null) {
+                    joined.remove(tableId);
+                    sessions.remove(sessionId, Set.of());
+                }
+                remove(tableId, sessionId);
+            }
+        }));
+    }
+
+    /**
+     * Copy the current presence to custom_table_sessions, if enabled and changed.
+     */
+    @Scheduled(fixedDelayString = "${customtable.presence.snapshot-interval-ms:60000}")
+    @Transactional
+    public void snapshot() {
+        if (!snapshotEnabled || !changedSinceSnapshot) {
+            return;
+        }
+        changedSinceSnapshot = false;
+
+        Map<Long, CustomTable> existing = tableRepository.findAllById(tables.keySet()).stream()
+                .collect(Collectors.toMap(CustomTable::getId, Function.identity()));
+        List<CustomTableSession> rows = new ArrayList<>();
+        tables.forEach((tableId, present) -> {
+            CustomTable table = existing.get(tableId);
+            if (table == null) {
+                return;
+            }
+            present.values().forEach(presence -> rows.add(CustomTableSession.builder()
+                    .table(table)
+                    .userId(presence.userId)
+                    .joinedAt(toDateTime(presence.joinedAt))
+                    .lastActiveAt(toDateTime(presence.lastSeen))
+                    .isActive(true)
+                    .build()));
+        });
+        sessionRepository.deleteAllInBatch();
+        sessionRepository.saveAll(rows);
+    }
+
+    private void remove(Long tableId, String sessionId) {
+        Map<String, Presence> present = tables.get(tableId);
+        if (present == null || present.remove(sessionId) == null) {
+            return;
+        }
+        // Checked and removed atomically with respect to join
+        boolean[] lastOut = new boolean[1];
+        tables.computeIfPresent(tableId, (id, current) -> {
+            lastOut[0] = current.isEmpty();
+            return lastOut[0] ? null : current;
+        });
+        if (lastOut[0]) {
+            // Last one out: save the table now instead of waiting for the next flush
+            hotCache.release(tableId);
+        }
+        changed(tableId);
+    }
+
+    private void changed(Long tableId) {
+        changedSinceSnapshot = true;
+        try {
+            messagingTemplate.convertAndSend(CustomTableBroadcaster.topic(tableId) + "/presence",
+                    getActiveUsers(tableId));
+        } catch (RuntimeException e) {
+            logger.warn("Could not send presence of table {}: {}", tableId, e.getMessage());
+        }
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static class Presence {
+        final String userId;
+        final long joinedAt;
+        volatile long lastSeen;
+
+        Presence(String userId, long joinedAt, long lastSeen) {
+            this.userId = userId;
+            this.joinedAt = joinedAt;
+            this.lastSeen = lastSeen;
+        }
+    }
+}
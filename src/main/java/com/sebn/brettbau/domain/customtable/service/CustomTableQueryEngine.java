@@ -0,0 +1,704 @@
+package com.sebn.brettbau.domain.customtable.service;
+
+import com.sebn.brettbau.domain.customtable.dto.CustomTableQueryDTO;
+import com.sebn.brettbau.domain.customtable.dto.CustomTableQueryResultDTO;
+import com.sebn.brettbau.domain.customtable.dto.TableQueryAggregateDTO;
+import com.sebn.brettbau.domain.customtable.dto.TableQueryFilterDTO;
+import com.sebn.brettbau.domain.customtable.dto.TableQuerySortDTO;
+import com.sebn.brettbau.domain.customtable.entity.CustomColumn;
+import com.sebn.brettbau.domain.customtable.entity.CustomTable;
+import com.sebn.brettbau.domain.customtable.entity.CustomTableRow;
+import com.sebn.brettbau.domain.customtable.repository.CustomColumnRepository;
+import com.sebn.brettbau.domain.customtable.repository.CustomTableRepository;
+import com.sebn.brettbau.domain.customtable.repository.CustomTableRowRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+/**
+ * Evaluates filter/sort/group-by queries on a custom table on the server.
+ *
+ * Cell values are stored as text. For querying, a table is turned into one
+ * vector per column: the raw values, plus for NUMBER, DATE and BOOLEAN
+ * columns a parsed numeric key (the number, epoch seconds, 1/0) so filters,
+ * sorting and aggregates compare by type. These vectors are built once per
+ * table revision and kept for the most recently queried tables.
+ */
+@Component
+public class CustomTableQueryEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomTableQueryEngine.class);
+
+    public static final int DEFAULT_LIMIT = 1000;
+    public static final int MAX_LIMIT = 10000;
+    private static final int LOAD_CHUNK_SIZE = 2000;
+
+    private final CustomTableRepository tableRepository;
+    private final CustomColumnRepository columnRepository;
+    private final CustomTableRowRepository rowRepository;
+    private final CustomTableRowCodec rowCodec;
+    private final CustomTableHotCache hotCache;
+    private final Map<Long, ColumnarTable> cache;
+
+    @Value("${customtable.query.max-cached-tables:20}")
+    private int maxCachedTables;
+
+    public CustomTableQueryEngine(CustomTableRepository tableRepository,
+                                  CustomColumnRepository columnRepository,
+                                  CustomTableRowRepository rowRepository,
+                                  CustomTableRowCodec rowCodec,
+                                  CustomTableHotCache hotCache) {
+        this.tableRepository = tableRepository;
+        this.columnRepository = columnRepository;
+        this.rowRepository = rowRepository;
+        this.rowCodec = rowCodec;
+        this.hotCache = hotCache;
+        // Access-ordered, so the least recently queried table is dropped first
+        this.cache = new LinkedHashMap<Long, ColumnarTable>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ColumnarTable> eldest) {
+                return size() > maxCachedTables;
+            }
+        };
+    }
+
+    public CustomTableQueryResultDTO query(Long tableId, CustomTableQueryDTO query) {
+        hotCache.flush(tableId);
+        CustomTable table = tableRepository.findById(tableId)
+                .orElseThrow(() -> new IllegalArgumentException("Table not found: " + tableId));
+        ColumnarTable data = columnar(table);
+
+        int[] selected = filter(data, query.getFilters());
+        boolean grouped = (query.getGroupBy() != null && !query.getGroupBy().isEmpty())
+                || (query.getAggregates() != null && !query.getAggregates().isEmpty());
+
+        int offset = query.getOffset() != null ? Math.max(query.getOffset(), 0) : 0;
+        int limit = query.getLimit() != null ? Math.min(Math.max(query.getLimit(), 0), MAX_LIMIT) : DEFAULT_LIMIT;
+
+        CustomTableQueryResultDTO result = grouped
+                ? aggregate(data, selected, query, offset, limit)
+                : select(data, selected, query, offset, limit);
+        result.setTableId(tableId);
+        result.setRevision(data.revision);
+        return result;
+    }
+
+    /**
+     * Drop the cached vectors of a table, e.g. when it is deleted.
+     */
+    public void evict(Long tableId) {
+        synchronized (cache) {
+            cache.remove(tableId);
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Plain selection
+    // ----------------------------------------------------------------------
+
+    private CustomTableQueryResultDTO select(ColumnarTable data, int[] selected, CustomTableQueryDTO query,
+                                             int offset, int limit) {
+        Comparator<Integer> order = rowOrder(data, query.getSort(), null);
+        int[] ordered = sort(selected, order);
+
+        List<ColumnVector> projection = new ArrayList<>();
+        if (query.getColumns() == null || query.getColumns().isEmpty()) {
+            projection.addAll(data.columns);
+        } else {
+            for (Long columnId : query.getColumns()) {
+                projection.add(data.column(columnId));
+            }
+        }
+
+        List<String> labels = new ArrayList<>();
+        projection.forEach(vector -> labels.add(vector.column.getName()));
+
+        int end = Math.min(ordered.length, offset + limit);
+        List<Long> rowIds = new ArrayList<>();
+        List<List<Object>> rows = new ArrayList<>();
+        for (int i = offset; i < end; i++) {
+            int row = ordered[i];
+            rowIds.add(data.rowIds[row]);
+            Object[] values = new Object[projection.size()];
+            for (int c = 0; c < projection.size(); c++) {
+                values[c] = projection.get(c).raw[row];
+            }
+            rows.add(Arrays.asList(values));
+        }
+
+        CustomTableQueryResultDTO result = new CustomTableQueryResultDTO();
+        result.setTotal((long) ordered.length);
+        result.setColumns(labels);
+        result.setRowIds(rowIds);
+        result.setData(rows);
+        return result;
+    }
+
+    // ----------------------------------------------------------------------
+    // Group-by and aggregates
+    // ----------------------------------------------------------------------
+
+    private CustomTableQueryResultDTO aggregate(ColumnarTable data, int[] selected, CustomTableQueryDTO query,
+                                                int offset, int limit) {
+        List<ColumnVector> groupBy = new ArrayList<>();
+        if (query.getGroupBy() != null) {
+            for (Long columnId : query.getGroupBy()) {
+                groupBy.add(data.column(columnId));
+            }
+        }
+        List<Aggregate> aggregates = new ArrayList<>();
+        if (query.getAggregates() != null) {
+            for (TableQueryAggregateDTO dto : query.getAggregates()) {
+                aggregates.add(new Aggregate(dto, data));
+            }
+        }
+
+        // One group per distinct combination of group-by values, in order of first appearance
+        Map<List<Object>, Group> groups = new LinkedHashMap<>();
+        for (int row : selected) {
+            List<Object> key = new ArrayList<>(groupBy.size());
+            for (ColumnVector vector : groupBy) {
+                key.add(vector.groupKey(row));
+            }
+            Group group = groups.computeIfAbsent(key, k -> new Group(row, aggregates.size()));
+            for (int a = 0; a < aggregates.size(); a++) {
+                aggregates.get(a).add(group, a, row);
+            }
+        }
+
+        Set<Long> groupColumnIds = new HashSet<>(query.getGroupBy() != null ? query.getGroupBy() : List.of());
+        Comparator<Integer> order = rowOrder(data, query.getSort(), groupColumnIds);
+        List<Group> sorted = new ArrayList<>(groups.values());
+        sorted.sort((a, b) -> order.compare(a.firstRow, b.firstRow));
+
+        List<String> labels = new ArrayList<>();
+        groupBy.forEach(vector -> labels.add(vector.column.getName()));
+        aggregates.forEach(aggregate -> labels.add(aggregate.label()));
+
+        int end = Math.min(sorted.size(), offset + limit);
+        List<List<Object>> rows = new ArrayList<>();
+        for (int i = offset; i < end; i++) {
+            Group group = sorted.get(i);
+            List<Object> values = new ArrayList<>(labels.size());
+            for (ColumnVector vector : groupBy) {
+                values.add(vector.raw[group.firstRow]);
+            }
+            for (int a = 0; a < aggregates.size(); a++) {
+                values.add(aggregates.get(a).result(group, a));
+            }
+            rows.add(values);
+        }
+
+        CustomTableQueryResultDTO result = new CustomTableQueryResultDTO();
+        result.setTotal((long) sorted.size());
+        result.setColumns(labels);
+        result.setData(rows);
+        return result;
+    }
+
+    private static class Group {
+        final int firstRow;
+        final long[] counts;
+        final double[] sums;
+        // Row holding the smallest/largest value so far, -1 if none
+        final int[] minRows;
+        final int[] maxRows;
+
+        Group(int firstRow, int aggregates) {
+            this.firstRow = firstRow;
+            this.counts = new long[aggregates];
+            this.sums = new double[aggregates];
+            this.minRows = new int[aggregates];
+            this.maxRows = new int[aggregates];
+            Arrays.fill(minRows, -1);
+            Arrays.fill(maxRows, -1);
+        }
+    }
+
+    private static class Aggregate {
+        final String function;
+        final ColumnVector vector;
+
+        Aggregate(TableQueryAggregateDTO dto, ColumnarTable data) {
+            this.function = dto.getFunction() != null ? dto.getFunction().toUpperCase(Locale.ROOT) : "";
+            this.vector = dto.getColumnId() != null ? data.column(dto.getColumnId()) : null;
+            switch (function) {
+                case "COUNT":
+                    break;
+                case "SUM":
+                case "AVG":
+                    if (vector == null || vector.kind != Kind.NUMBER) {
+                        throw new IllegalArgumentException(function + " needs a NUMBER column");
+                    }
+                    break;
+                case "MIN":
+                case "MAX":
+                    if (vector == null) {
+                        throw new IllegalArgumentException(function + " needs a column");
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported aggregate: " + dto.getFunction());
+            }
+        }
+
+        void add(Group group, int a, int row) {
+            if (vector == null) {
+                group.counts[a]++;
+                return;
+            }
+            if ("COUNT".equals(function)) {
+                if (!vector.isEmpty(row)) {
+                    group.counts[a]++;
+                }
+                return;
+            }
+            if (vector.kind != Kind.TEXT && !vector.typed.get(row)) {
+                return;
+            }
+            if (vector.kind == Kind.TEXT && vector.isEmpty(row)) {
+                return;
+            }
+            group.counts[a]++;
+            if (vector.kind == Kind.NUMBER) {
+                group.sums[a] += vector.keys[row];
+            }
+            if (group.minRows[a] < 0 || vector.compareValues(row, group.minRows[a]) < 0) {
+                group.minRows[a] = row;
+            }
+            if (group.maxRows[a] < 0 || vector.compareValues(row, group.maxRows[a]) > 0) {
+                group.maxRows[a] = row;
+            }
+        }
+
+        Object result(Group group, int a) {
+            switch (function) {
+                case "COUNT":
+                    return group.counts[a];
+                case "SUM":
+                    return group.sums[a];
+                case "AVG":
+                    return group.counts[a] > 0 ? group.sums[a] / group.counts[a] : null;
+                case "MIN":
+                    return extreme(group.minRows[a]);
+                default:
+                    return extreme(group.maxRows[a]);
+            }
+        }
+
+        // Numbers as numbers, anything else as stored
+        private Object extreme(int row) {
+            if (row < 0) {
+                return null;
+            }
+            return vector.kind == Kind.NUMBER ? (Object) vector.keys[row] : vector.raw[row];
+        }
+
+        String label() {
+            return function + "(" + (vector != null ? vector.column.getName() : "*") + ")";
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Filtering and sorting
+    // ----------------------------------------------------------------------
+
+    private int[] filter(ColumnarTable data, List<TableQueryFilterDTO> filters) {
+        List<IntPredicate> predicates = new ArrayList<>();
+        if (filters != null) {
+            for (TableQueryFilterDTO filter : filters) {
+                predicates.add(predicate(data.column(filter.getColumnId()), filter));
+            }
+        }
+        int[] selected = new int[data.size];
+        int count = 0;
+        rows:
+        for (int row = 0; row < data.size; row++) {
+            for (IntPredicate predicate : predicates) {
+                if (!predicate.test(row)) {
+                    continue rows;
+                }
+            }
+            selected[count++] = row;
+        }
+        return Arrays.copyOf(selected, count);
+    }
+
+    private static IntPredicate predicate(ColumnVector vector, TableQueryFilterDTO filter) {
+        String op = filter.getOp() != null ? filter.getOp().toUpperCase(Locale.ROOT) : "EQ";
+        switch (op) {
+            case "IS_EMPTY":
+                return vector::isEmpty;
+            case "NOT_EMPTY":
+                return row -> !vector.isEmpty(row);
+            case "CONTAINS": {
+                String needle = requireValue(filter).toLowerCase(Locale.ROOT);
+                return row -> vector.raw[row] != null && vector.raw[row].toLowerCase(Locale.ROOT).contains(needle);
+            }
+            case "STARTS_WITH": {
+                String prefix = requireValue(filter).toLowerCase(Locale.ROOT);
+                return row -> vector.raw[row] != null && vector.raw[row].toLowerCase(Locale.ROOT).startsWith(prefix);
+            }
+            case "IN": {
+                if (filter.getValues() == null) {
+                    throw new IllegalArgumentException("IN needs values");
+                }
+                List<IntPredicate> any = new ArrayList<>();
+                for (String value : filter.getValues()) {
+                    any.add(comparison(vector, value, "EQ"));
+                }
+                return row -> any.stream().anyMatch(p -> p.test(row));
+            }
+            case "EQ":
+            case "NE":
+            case "LT":
+            case "LE":
+            case "GT":
+            case "GE":
+                return comparison(vector, requireValue(filter), op);
+            default:
+                throw new IllegalArgumentException("Unsupported filter operator: " + filter.getOp());
+        }
+    }
+
+    private static IntPredicate comparison(ColumnVector vector, String value, String op) {
+        if ("NE".equals(op)) {
+            // Rows without a comparable value are never equal to anything
+            return comparison(vector, value, "EQ").negate();
+        }
+        IntPredicate matches;
+        if (vector.kind == Kind.TEXT) {
+            String operand = value.trim();
+            matches = row -> !vector.isEmpty(row) && test(op, vector.raw[row].trim().compareToIgnoreCase(operand));
+        } else {
+            Double key = vector.parse(value);
+            if (key == null) {
+                throw new IllegalArgumentException("'" + value + "' is not a valid " +
+                        vector.kind.name().toLowerCase(Locale.ROOT) + " for column " + vector.column.getName());
+            }
+            matches = row -> vector.typed.get(row) && test(op, Double.compare(vector.keys[row], key));
+        }
+        return matches;
+    }
+
+    private static boolean test(String op, int comparison) {
+        switch (op) {
+            case "EQ":
+                return comparison == 0;
+            case "NE":
+                return comparison != 0;
+            case "LT":
+                return comparison < 0;
+            case "LE":
+                return comparison <= 0;
+            case "GT":
+                return comparison > 0;
+            default:
+                return comparison >= 0;
+        }
+    }
+
+    private static String requireValue(TableQueryFilterDTO filter) {
+        if (filter.getValue() == null) {
+            throw new IllegalArgumentException("Filter on column " + filter.getColumnId() + " needs a value");
+        }
+        return filter.getValue();
+    }
+
+    // Row order from the sort specs; ties keep table order. If allowedColumns is given, only those may be used.
+    private static Comparator<Integer> rowOrder(ColumnarTable data, List<TableQuerySortDTO> sort,
+                                                Set<Long> allowedColumns) {
+        Comparator<Integer> order = (a, b) -> 0;
+        if (sort != null) {
+            for (TableQuerySortDTO spec : sort) {
+                if (allowedColumns != null && !allowedColumns.contains(spec.getColumnId())) {
+                    throw new IllegalArgumentException("Grouped results can only be sorted by group-by columns");
+                }
+                ColumnVector vector = data.column(spec.getColumnId());
+                boolean descending = "DESC".equalsIgnoreCase(spec.getDirection());
+                order = order.thenComparing((a, b) -> {
+                    boolean emptyA = vector.isEmptyForSort(a);
+                    boolean emptyB = vector.isEmptyForSort(b);
+                    if (emptyA || emptyB) {
+                        // Empty values last in either direction
+                        return Boolean.compare(emptyA, emptyB);
+                    }
+                    int comparison = vector.compareValues(a, b);
+                    return descending ? -comparison : comparison;
+                });
+            }
+        }
+        return order.thenComparing(Comparator.naturalOrder());
+    }
+
+    private static int[] sort(int[] rows, Comparator<Integer> order) {
+        Integer[] boxed = new Integer[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            boxed[i] = rows[i];
+        }
+        Arrays.sort(boxed, order);
+        int[] sorted = new int[rows.length];
+        for (int i = 0; i < boxed.length; i++) {
+            sorted[i] = boxed[i];
+        }
+        return sorted;
+    }
+
+    // ----------------------------------------------------------------------
+    // Column vectors
+    // ----------------------------------------------------------------------
+
+    private ColumnarTable columnar(CustomTable table) {
+        synchronized (cache) {
+            ColumnarTable cached = cache.get(table.getId());
+            if (cached != null && cached.revision.equals(table.getRevision())) {
+                return cached;
+            }
+        }
+        // Built outside the lock; rows are read after the revision, so they are at least that new
+        ColumnarTable built = build(table);
+        synchronized (cache) {
+            cache.put(table.getId(), built);
+        }
+        return built;
+    }
+
+    private ColumnarTable build(CustomTable table) {
+        long started = System.currentTimeMillis();
+        List<CustomColumn> columns = columnRepository.findByTableIdOrderByOrderIndexAsc(table.getId());
+
+        List<Long> rowIds = new ArrayList<>();
+        List<List<String>> raw = new ArrayList<>(columns.size());
+        columns.forEach(column -> raw.add(new ArrayList<>()));
+
+        long afterSortKey = Long.MIN_VALUE;
+        long afterId = 0;
+        while (true) {
+            List<CustomTableRow> chunk = rowRepository.findChunkAfter(table.getId(), afterSortKey, afterId, LOAD_CHUNK_SIZE);
+            for (CustomTableRow row : chunk) {
+                rowIds.add(row.getId());
+                Map<Long, Object> cells = rowCodec.decode(row.getCells());
+                for (int c = 0; c < columns.size(); c++) {
+                    Object value = cells.get(columns.get(c).getId());
+                    raw.get(c).add(value != null ? value.toString() : null);
+                }
+            }
+            if (chunk.size() < LOAD_CHUNK_SIZE) {
+                break;
+            }
+            CustomTableRow last = chunk.get(chunk.size() - 1);
+            afterSortKey = last.getSortKey();
+            afterId = last.getId();
+        }
+
+        ColumnarTable data = new ColumnarTable(table.getRevision(), rowIds.size());
+        for (int i = 0; i < rowIds.size(); i++) {
+            data.rowIds[i] = rowIds.get(i);
+        }
+        for (int c = 0; c < columns.size(); c++) {
+            data.add(new ColumnVector(columns.get(c), raw.get(c).toArray(new String[0])));
+        }
+        logger.debug("Built query vectors for table {} ({} rows, {} columns) in {} ms",
+                table.getId(), data.size, columns.size(), System.currentTimeMillis() - started);
+        return data;
+    }
+
+    private static class ColumnarTable {
+        final Long revision;
+        final int size;
+        final long[] rowIds;
+        final List<ColumnVector> columns = new ArrayList<>();
+        final Map<Long, ColumnVector> byId = new HashMap<>();
+
+        ColumnarTable(Long revision, int size) {
+            this.revision = revision;
+            this.size = size;
+            this.rowIds = new long[size];
+        }
+
+        void add(ColumnVector vector) {
+            columns.add(vector);
+            byId.put(vector.column.getId(), vector);
+        }
+
+        ColumnVector column(Long columnId) {
+            ColumnVector vector = byId.get(columnId);
+            if (vector == null) {
+                throw new IllegalArgumentException("Column not found: " + columnId);
+            }
+            return vector;
+        }
+    }
+
+    private enum Kind {
+        NUMBER, DATE, BOOLEAN, TEXT;
+
+        static Kind of(String type) {
+            if (type == null) {
+                return TEXT;
+            }
+            switch (type.toUpperCase(Locale.ROOT)) {
+                case "NUMBER":
+                    return NUMBER;
+                case "DATE":
+                    return DATE;
+                case "BOOLEAN":
+                    return BOOLEAN;
+                default:
+                    return TEXT;
+            }
+        }
+    }
+
+    private static class ColumnVector {
+        final CustomColumn column;
+        final Kind kind;
+        final String[] raw;
+        // Parsed value per row (number, epoch seconds or 1/0), valid where typed is set
+        final double[] keys;
+        final BitSet typed;
+        private final DateTimeFormatter dateFormat;
+
+        ColumnVector(CustomColumn column, String[] raw) {
+            this.column = column;
+            this.kind = Kind.of(column.getType());
+            this.raw = raw;
+            this.dateFormat = kind == Kind.DATE ? formatter(column.getDateFormat()) : null;
+            this.keys = kind == Kind.TEXT ? null : new double[raw.length];
+            this.typed = new BitSet(raw.length);
+            if (kind != Kind.TEXT) {
+                for (int row = 0; row < raw.length; row++) {
+                    Double key = parse(raw[row]);
+                    if (key != null) {
+                        keys[row] = key;
+                        typed.set(row);
+                    }
+                }
+            }
+        }
+
+        boolean isEmpty(int row) {
+            return raw[row] == null || raw[row].trim().isEmpty();
+        }
+
+        boolean isEmptyForSort(int row) {
+            return kind == Kind.TEXT ? isEmpty(row) : !typed.get(row);
+        }
+
+        int compareValues(int a, int b) {
+            return kind == Kind.TEXT
+                    ? raw[a].trim().compareToIgnoreCase(raw[b].trim())
+                    : Double.compare(keys[a], keys[b]);
+        }
+
+        // Values that compare equal fall into the same group, e.g. "10" and "10.0"
+        Object groupKey(int row) {
+            if (kind != Kind.TEXT && typed.get(row)) {
+                return keys[row];
+            }
+            return raw[row] != null ? raw[row].trim().toLowerCase(Locale.ROOT) : "";
+        }
+
+        Double parse(String value) {
+            if (value == null || value.trim().isEmpty()) {
+                return null;
+            }
+            String text = value.trim();
+            switch (kind) {
+                case NUMBER:
+                    try {
+                        // Accept a decimal comma as typed in German Excel sheets
+                        if (text.indexOf(',') >= 0 && text.indexOf('.') < 0) {
+                            text = text.replace(',', '.');
+                        }
+                        return Double.parseDouble(text);
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                case BOOLEAN:
+                    switch (text.toLowerCase(Locale.ROOT)) {
+                        case "true":
+                        case "yes":
+                        case "1":
+                            return 1d;
+                        case "false":
+                        case "no":
+                        case "0":
+                            return 0d;
+                        default:
+                            return null;
+                    }
+                case DATE:
+                    return parseDate(text);
+                default:
+                    return null;
+            }
+        }
+
+        private Double parseDate(String text) {
+            if (dateFormat != null) {
+                Double parsed = parseDate(text, dateFormat);
+                if (parsed != null) {
+                    return parsed;
+                }
+            }
+            Double parsed = parseDate(text, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            if (parsed == null) {
+                parsed = parseDate(text, DateTimeFormatter.ISO_LOCAL_DATE);
+            }
+            if (parsed == null && text.length() > 10) {
+                // e.g. 2024-05-01T10:00:00.000Z as sent by the browser
+                parsed = parseDate(text.substring(0, 10), DateTimeFormatter.ISO_LOCAL_DATE);
+            }
+            return parsed;
+        }
+
+        private static Double parseDate(String text, DateTimeFormatter formatter) {
+            try {
+                TemporalAccessor parsed = formatter.parseBest(text, LocalDateTime::from, LocalDate::from);
+                LocalDateTime dateTime = parsed instanceof LocalDateTime
+                        ? (LocalDateTime) parsed
+                        : ((LocalDate) parsed).atStartOfDay();
+                return (double) dateTime.toEpochSecond(ZoneOffset.UTC);
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+
+        private static DateTimeFormatter formatter(String pattern) {
+            if (pattern == null || pattern.trim().isEmpty()) {
+                return null;
+            }
+            // Front-end patterns such as "DD/MM/YYYY" are valid java patterns with another
+            // meaning (day-of-year, week-based year), so their tokens are always translated.
+            // Years become 'u', as 'y' (year-of-era) needs an era under STRICT resolving.
+            String normalized = pattern.replace('D', 'd').replace('Y', 'u').replace('y', 'u');
+            try {
+                return DateTimeFormatter.ofPattern(normalized).withResolverStyle(ResolverStyle.STRICT);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
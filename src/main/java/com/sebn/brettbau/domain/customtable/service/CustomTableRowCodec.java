@@ -0,0 +1,53 @@
+package com.sebn.brettbau.domain.customtable.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Encodes the cells of a row as a compact JSON object keyed by column id,
+ * e.g. {"12":"Line A","13":42}. Values keep their JSON type, and keying by
+ * column id keeps a row readable after columns are added, removed or reordered.
+ */
+@Component
+@RequiredArgsConstructor
+public class CustomTableRowCodec {
+
+    private static final TypeReference<LinkedHashMap<Long, Object>> CELLS_TYPE =
+            new TypeReference<LinkedHashMap<Long, Object>>() {};
+
+    private final ObjectMapper objectMapper;
+
+    public Map<Long, Object> decode(String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        try {
+            return objectMapper.readValue(encoded, CELLS_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt row data: " + e.getMessage(), e);
+        }
+    }
+
+    public String encode(Map<Long, Object> cells) {
+        try {
+            return objectMapper.writeValueAsString(cells);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cell values cannot be encoded: " + e.getMessage(), e);
+        }
+    }
+
+    // A single cell value as JSON, e.g. for JSON_SET on one key of a stored row
+    public String encodeValue(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cell value cannot be encoded: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.sebn.brettbau.domain.customtable.service;
+
+import com.sebn.brettbau.domain.customtable.entity.CustomTableRow;
+import com.sebn.brettbau.domain.customtable.repository.CustomTableRowRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Hands out sort keys for custom table rows.
+ *
+ * Rows are ordered by a sparse key instead of a dense index: a new row gets
+ * the midpoint between its neighbours, so inserting or deleting a row writes
+ * only that row. When two neighbours run out of room between them, the keys
+ * of the whole table are spread out again.
+ */
+@Component
+@RequiredArgsConstructor
+public class CustomTableRowOrder {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomTableRowOrder.class);
+
+    // Distance between keys of consecutive rows after a rebalance; leaves room for 32 halvings.
+    public static final long STEP = 1L << 32;
+
+    private final CustomTableRowRepository rowRepository;
+
+    /**
+     * Key of the row at the given position in a freshly built table.
+     */
+    public static long initialKey(int position) {
+        return (position + 1) * STEP;
+    }
+
+    /**
+     * The row currently at the given position, if any.
+     */
+    public Optional<CustomTableRow> rowAt(Long tableId, int position) {
+        if (position < 0) {
+            return Optional.empty();
+        }
+        return rowRepository.findRowsAt(tableId, position, 1).stream().findFirst();
+    }
+
+    /**
+     * Key that places a new row at the given position; null or past-the-end appends.
+     */
+    public long keyForInsert(Long tableId, Integer position) {
+        Long key = tryKeyForInsert(tableId, position);
+        if (key == null) {
+            rebalance(tableId);
+            key = tryKeyForInsert(tableId, position);
+        }
+        return key;
+    }
+
+    private Long tryKeyForInsert(Long tableId, Integer position) {
+        if (position == null) {
+            Long max = rowRepository.findMaxSortKey(tableId);
+            return max == null ? STEP : max + STEP;
+        }
+
+        int target = Math.max(position, 0);
+        Long before = null;
+        Long after = null;
+        if (target == 0) {
+            List<CustomTableRow> next = rowRepository.findRowsAt(tableId, 0, 1);
+            if (!next.isEmpty()) {
+                after = next.get(0).getSortKey();
+            }
+        } else {
+            List<CustomTableRow> around = rowRepository.findRowsAt(tableId, target - 1, 2);
+            if (!around.isEmpty()) {
+                before = around.get(0).getSortKey();
+            }
+            if (around.size() > 1) {
+                after = around.get(1).getSortKey();
+            }
+        }
+
+        if (before == null && after == null) {
+            // Empty table, or a position past the end of a shorter one
+            Long max = rowRepository.findMaxSortKey(tableId);
+            return max == null ? STEP : max + STEP;
+        }
+        if (after == null) {
+            return before + STEP;
+        }
+        if (before == null) {
+            return after - STEP;
+        }
+        if (after - before < 2) {
+            return null;
+        }
+        return before + (after - before) / 2;
+    }
+
+    /**
+     * Spread the keys of all rows of a table evenly again.
+     */
+    public void rebalance(Long tableId) {
+        List<CustomTableRow> rows = rowRepository.findByTableIdOrdered(tableId);
+        logger.info("Rebalancing sort keys of table {} ({} rows)", tableId, rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            rows.get(i).setSortKey(initialKey(i));
+        }
+        rowRepository.saveAll(rows);
+        rowRepository.flush();
+    }
+}
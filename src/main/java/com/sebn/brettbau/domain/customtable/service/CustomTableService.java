@@ -2,15 +2,22 @@ package com.sebn.brettbau.domain.customtable.service;
 
 import com.sebn.brettbau.domain.customtable.dto.CustomColumnDTO;
 import com.sebn.brettbau.domain.customtable.dto.CustomTableDTO;
+import com.sebn.brettbau.domain.customtable.dto.CustomTablePatchDTO;
+import com.sebn.brettbau.domain.customtable.dto.CustomTablePatchResultDTO;
+import com.sebn.brettbau.domain.customtable.dto.CustomTableQueryDTO;
+import com.sebn.brettbau.domain.customtable.dto.CustomTableQueryResultDTO;
+import com.sebn.brettbau.domain.customtable.dto.CustomTableRowDTO;
+import com.sebn.brettbau.domain.customtable.dto.CustomTableSummaryDTO;
+import com.sebn.brettbau.domain.customtable.dto.CustomTableWindowDTO;
 import com.sebn.brettbau.domain.customtable.dto.TableUpdateMessage;
 import com.sebn.brettbau.domain.customtable.entity.CustomColumn;
 import com.sebn.brettbau.domain.customtable.entity.CustomTable;
-import com.sebn.brettbau.domain.customtable.entity.CustomTableData;
-import com.sebn.brettbau.domain.customtable.entity.CustomTableSession;
+import com.sebn.brettbau.domain.customtable.entity.CustomTableRow;
 import com.sebn.brettbau.domain.customtable.repository.CustomColumnRepository;
-import com.sebn.brettbau.domain.customtable.repository.CustomTableDataRepository;
 import com.sebn.brettbau.domain.customtable.repository.CustomTableRepository;
+import com.sebn.brettbau.domain.customtable.repository.CustomTableRowRepository;
 import com.sebn.brettbau.domain.customtable.repository.CustomTableSessionRepository;
+import com.sebn.brettbau.exception.ConflictException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,8 +26,15 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,10 +43,18 @@ public class CustomTableService {
 
     private static final Logger logger = LoggerFactory.getLogger(CustomTableService.class);
 
+    // Upper bound for the number of rows returned by one window request
+    public static final int MAX_WINDOW_ROWS = 1000;
+
     private final CustomTableRepository tableRepository;
     private final CustomColumnRepository columnRepository;
-    private final CustomTableDataRepository dataRepository;
+    private final CustomTableRowRepository rowRepository;
     private final CustomTableSessionRepository sessionRepository;
+    private final CustomTableRowCodec rowCodec;
+    private final CustomTableRowOrder rowOrder;
+    private final CustomTableHotCache hotCache;
+    private final CustomTablePresence presence;
+    private final CustomTableQueryEngine queryEngine;
 
     /**
      * Creates a new CustomTable along with any provided columns and initial data.
@@ -52,6 +74,10 @@ public class CustomTableService {
                     .createdAt(LocalDateTime.now())
                     .lastModifiedBy(userId)
                     .lastModifiedAt(LocalDateTime.now())
+                    .version(0L)
+                    .revision(0L)
+                    .rowCount(dto.getData() != null ? dto.getData().size() : 0)
+                    .columnCount(dto.getColumns() != null ? dto.getColumns().size() : 0)
                     .build();
 
             CustomTable savedTable = tableRepository.save(table);
@@ -61,44 +87,16 @@ public class CustomTableService {
             if (dto.getColumns() != null) {
                 for (int i = 0; i < dto.getColumns().size(); i++) {
                     CustomColumnDTO colDto = dto.getColumns().get(i);
-                    CustomColumn column = CustomColumn.builder()
-                            .table(savedTable)
-                            .name(colDto.getName())
-                            .type(colDto.getType())
-                            // Use the loop index as the order index if not provided
-                            .orderIndex(colDto.getOrderIndex() != null ? colDto.getOrderIndex() : i)
-                            .required(colDto.getRequired() != null ? colDto.getRequired() : false)
-                            .defaultValue(colDto.getDefaultValue())
-                            .precision(colDto.getPrecision())
-                            .scale(colDto.getScale())
-                            .maxLength(colDto.getMaxLength())
-                            .dateFormat(colDto.getDateFormat())
-                            .build();
+                    CustomColumn column = CustomColumn.builder().table(savedTable).build();
+                    // Use the loop index as the order index if not provided
+                    applyColumn(column, colDto, i);
                     savedColumns.add(columnRepository.save(column));
                 }
             }
 
             // Initialize table data if provided
             if (dto.getData() != null && !dto.getData().isEmpty()) {
-                for (int rowIndex = 0; rowIndex < dto.getData().size(); rowIndex++) {
-                    List<Object> row = dto.getData().get(rowIndex);
-                    for (int colIndex = 0; colIndex < row.size(); colIndex++) {
-                        // Ensure that a corresponding column exists
-                        if (colIndex >= savedColumns.size()) {
-                            throw new IllegalArgumentException("Data column index " + colIndex +
-                                    " exceeds the number of table columns " + savedColumns.size());
-                        }
-                        CustomTableData cellData = CustomTableData.builder()
-                                .table(savedTable)
-                                .column(savedColumns.get(colIndex))
-                                .rowIndex(rowIndex)
-                                .cellValue(String.valueOf(row.get(colIndex)))
-                                .lastModifiedAt(LocalDateTime.now())
-                                .lastModifiedBy(userId)
-                                .build();
-                        dataRepository.save(cellData);
-                    }
-                }
+                rowRepository.saveAll(buildRows(savedTable, savedColumns, dto.getData(), userId));
             }
 
             return mapToDTO(savedTable);
@@ -114,21 +112,74 @@ public class CustomTableService {
      * Note: Although the method signature accepts a userId, it now returns all tables.
      */
     public List<CustomTableDTO> getTablesByUser(String userId) {
+        hotCache.flushAll();
         return tableRepository.findAll()
                 .stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Get the metadata of all tables, with their row and column counts, in a single query.
+     */
+    public List<CustomTableSummaryDTO> getTableCatalog() {
+        return tableRepository.findAllSummaries();
+    }
+
     /**
      * Get a specific table by ID.
      */
     public CustomTableDTO getTableById(Long tableId) {
+        hotCache.flush(tableId);
         CustomTable table = tableRepository.findById(tableId)
                 .orElseThrow(() -> new IllegalArgumentException("Table not found: " + tableId));
         return mapToDTO(table);
     }
 
+    /**
+     * Filter, sort, group and aggregate a table on the server.
+     */
+    public CustomTableQueryResultDTO queryTable(Long tableId, CustomTableQueryDTO query) {
+        return queryEngine.query(tableId, query != null ? query : new CustomTableQueryDTO());
+    }
+
+    /**
+     * Get the rows [offset, offset + limit) of a table, optionally restricted to some columns.
+     *
+     * Only the requested rows are read, walking the (table_id, sort_key) index.
+     */
+    public CustomTableWindowDTO getTableWindow(Long tableId, int offset, int limit, List<Long> columnIds) {
+        if (offset < 0 || limit <= 0) {
+            throw new IllegalArgumentException("offset must be >= 0 and limit > 0");
+        }
+        hotCache.flush(tableId);
+        CustomTable table = tableRepository.findById(tableId)
+                .orElseThrow(() -> new IllegalArgumentException("Table not found: " + tableId));
+
+        List<CustomColumn> columns = columnRepository.findByTableIdOrderByOrderIndexAsc(tableId);
+        if (columnIds != null && !columnIds.isEmpty()) {
+            Map<Long, CustomColumn> columnsById = columns.stream()
+                    .collect(Collectors.toMap(CustomColumn::getId, Function.identity()));
+            List<CustomColumn> selected = new ArrayList<>(columnIds.size());
+            for (Long columnId : columnIds) {
+                selected.add(requireColumn(columnsById.get(columnId), columnId));
+            }
+            columns = selected;
+        }
+
+        List<CustomTableRow> rows = rowRepository.findRowsAt(tableId, offset, Math.min(limit, MAX_WINDOW_ROWS));
+
+        CustomTableWindowDTO window = new CustomTableWindowDTO();
+        window.setTableId(tableId);
+        window.setVersion(table.getVersion());
+        window.setOffset(offset);
+        window.setTotalRows(rowRepository.countByTableId(tableId));
+        window.setColumns(columns.stream().map(this::mapColumnToDTO).collect(Collectors.toList()));
+        window.setRowIds(rows.stream().map(CustomTableRow::getId).collect(Collectors.toList()));
+        window.setData(toMatrix(rows, columns));
+        return window;
+    }
+
     /**
      * Update an existing table.
      */
@@ -140,6 +191,14 @@ public class CustomTableService {
             logger.info("Columns received: {}", (tableDTO.getColumns() != null ? tableDTO.getColumns().size() : "None"));
             logger.info("Data received: {}", (tableDTO.getData() != null ? tableDTO.getData().size() : "None"));
 
+            // Pending cell edits are saved first and the working copy is reloaded afterwards;
+            // one loaded while this runs is dropped again once it commits.
+            hotCache.flushAndEvict(tableId);
+            hotCache.evictAfterCommit(tableId);
+
+            // Bump the version first; a client sending the version it loaded gets a conflict if it is stale.
+            bumpVersion(tableId, tableDTO.getVersion(), tableDTO.getLastModifiedBy());
+
             // Fetch the table
             CustomTable table = tableRepository.findById(tableId)
                     .orElseThrow(() -> new IllegalArgumentException("Table not found: " + tableId));
@@ -147,84 +206,210 @@ public class CustomTableService {
             // Update basic table fields
             table.setName(tableDTO.getName());
             table.setDescription(tableDTO.getDescription());
-            table.setLastModifiedAt(LocalDateTime.now());
-            if (tableDTO.getLastModifiedBy() != null) {
-                table.setLastModifiedBy(tableDTO.getLastModifiedBy());
-            }
 
             CustomTable updatedTable = tableRepository.save(table);
 
-            // Update columns if provided: delete all existing columns and add new ones.
+            // Update columns if provided. Columns are matched by id so that their ids,
+            // which the stored cells are keyed by, survive the save.
             if (tableDTO.getColumns() != null) {
-                List<CustomColumn> existingColumns = columnRepository.findByTableIdOrderByOrderIndexAsc(tableId);
-                columnRepository.deleteAll(existingColumns);
-
-                for (CustomColumnDTO colDto : tableDTO.getColumns()) {
-                    CustomColumn column = CustomColumn.builder()
-                            .table(updatedTable)
-                            .name(colDto.getName())
-                            .type(colDto.getType())
-                            .orderIndex(colDto.getOrderIndex())
-                            .required(colDto.getRequired())
-                            .defaultValue(colDto.getDefaultValue())
-                            .precision(colDto.getPrecision())
-                            .scale(colDto.getScale())
-                            .maxLength(colDto.getMaxLength())
-                            .dateFormat(colDto.getDateFormat())
-                            .build();
-                    columnRepository.save(column);
+                Map<Long, CustomColumn> existingColumns = columnRepository.findByTableIdOrderByOrderIndexAsc(tableId)
+                        .stream()
+                        .collect(Collectors.toMap(CustomColumn::getId, Function.identity()));
+
+                List<CustomColumn> columns = new ArrayList<>();
+                for (int i = 0; i < tableDTO.getColumns().size(); i++) {
+                    CustomColumnDTO colDto = tableDTO.getColumns().get(i);
+                    CustomColumn column = colDto.getId() != null ? existingColumns.remove(colDto.getId()) : null;
+                    if (column == null) {
+                        column = CustomColumn.builder().table(updatedTable).build();
+                    }
+                    applyColumn(column, colDto, i);
+                    columns.add(column);
                 }
+
+                // Whatever was not sent anymore has been removed by the client.
+                columnRepository.deleteAll(existingColumns.values());
+                columnRepository.saveAll(columns);
             }
 
             // Update cell data if provided in the DTO.
             if (tableDTO.getData() != null) {
-                // Clear existing data for this table.
-                dataRepository.deleteByTableId(tableId);
+                // Clear existing rows for this table.
+                rowRepository.deleteByTableId(tableId);
 
                 // Retrieve the updated columns (assumed to be in the correct order).
                 List<CustomColumn> columns = columnRepository.findByTableIdOrderByOrderIndexAsc(tableId);
 
-                // Save new cell data.
-                for (int rowIndex = 0; rowIndex < tableDTO.getData().size(); rowIndex++) {
-                    List<Object> rowData = tableDTO.getData().get(rowIndex);
-                    for (int colIndex = 0; colIndex < rowData.size(); colIndex++) {
-                        if (colIndex >= columns.size()) {
-                            throw new IllegalArgumentException("Data column index " + colIndex +
-                                    " exceeds the number of table columns " + columns.size());
-                        }
-                        CustomColumn column = columns.get(colIndex);
-                        CustomTableData cellData = CustomTableData.builder()
-                                .table(updatedTable)
-                                .column(column)
-                                .rowIndex(rowIndex)
-                                .cellValue(String.valueOf(rowData.get(colIndex)))
-                                .lastModifiedAt(LocalDateTime.now())
-                                .lastModifiedBy(tableDTO.getLastModifiedBy())
-                                .build();
-                        dataRepository.save(cellData);
-                    }
-                }
+                // Save new rows, one record per row.
+                rowRepository.saveAll(buildRows(updatedTable, columns, tableDTO.getData(),
+                        tableDTO.getLastModifiedBy()));
             }
 
+            tableRepository.setCounts(tableId,
+                    tableDTO.getData() != null ? tableDTO.getData().size() : null,
+                    tableDTO.getColumns() != null ? tableDTO.getColumns().size() : null);
+
             return mapToDTO(updatedTable);
+        } catch (ConflictException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error updating table {}: {}", tableId, e.getMessage(), e);
             throw new RuntimeException("Error updating table: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Apply a set of changes on top of the version the client last saw.
+     *
+     * Only the listed columns and rows are written; a patch based on an outdated
+     * version is rejected with a ConflictException.
+     */
+    @Transactional
+    public CustomTablePatchResultDTO patchTable(Long tableId, CustomTablePatchDTO patch, String userId) {
+        if (patch.getBaseVersion() == null) {
+            throw new IllegalArgumentException("baseVersion is required");
+        }
+        hotCache.flushAndEvict(tableId);
+        hotCache.evictAfterCommit(tableId);
+
+        // Checking and bumping the version in one statement also locks the table row,
+        // so concurrent patches on the same base version cannot both pass.
+        bumpVersion(tableId, patch.getBaseVersion(), userId);
+
+        CustomTable table = tableRepository.findById(tableId)
+                .orElseThrow(() -> new IllegalArgumentException("Table not found: " + tableId));
+        if (patch.getName() != null) {
+            if (patch.getName().trim().isEmpty()) {
+                throw new IllegalArgumentException("Table name cannot be empty");
+            }
+            table.setName(patch.getName());
+        }
+        if (patch.getDescription() != null) {
+            table.setDescription(patch.getDescription());
+        }
+
+        int rowDelta = 0;
+        int columnDelta = 0;
+
+        // Columns
+        Map<Long, CustomColumn> columnsById = columnRepository.findByTableIdOrderByOrderIndexAsc(tableId)
+                .stream()
+                .collect(Collectors.toMap(CustomColumn::getId, Function.identity()));
+
+        if (patch.getRemovedColumnIds() != null && !patch.getRemovedColumnIds().isEmpty()) {
+            List<CustomColumn> removed = new ArrayList<>();
+            for (Long columnId : patch.getRemovedColumnIds()) {
+                removed.add(requireColumn(columnsById.remove(columnId), columnId));
+            }
+            columnRepository.deleteAll(removed);
+            columnDelta -= removed.size();
+        }
+
+        if (patch.getUpdatedColumns() != null && !patch.getUpdatedColumns().isEmpty()) {
+            List<CustomColumn> updated = new ArrayList<>();
+            for (CustomColumnDTO colDto : patch.getUpdatedColumns()) {
+                CustomColumn column = requireColumn(columnsById.get(colDto.getId()), colDto.getId());
+                applyColumn(column, colDto, column.getOrderIndex());
+                updated.add(column);
+            }
+            columnRepository.saveAll(updated);
+        }
+
+        List<CustomColumnDTO> addedColumns = new ArrayList<>();
+        if (patch.getAddedColumns() != null) {
+            int nextOrderIndex = columnsById.values().stream()
+                    .mapToInt(c -> c.getOrderIndex() != null ? c.getOrderIndex() + 1 : 0)
+                    .max()
+                    .orElse(0);
+            for (CustomColumnDTO colDto : patch.getAddedColumns()) {
+                CustomColumn column = CustomColumn.builder().table(table).build();
+                applyColumn(column, colDto, nextOrderIndex++);
+                CustomColumn saved = columnRepository.save(column);
+                columnsById.put(saved.getId(), saved);
+                addedColumns.add(mapColumnToDTO(saved));
+            }
+            columnDelta += patch.getAddedColumns().size();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+
+        // Rows: removals first, so that positions of added rows refer to the remaining rows.
+        if (patch.getRemovedRowIds() != null && !patch.getRemovedRowIds().isEmpty()) {
+            List<CustomTableRow> removed = rowRepository.findByTableIdAndIdIn(tableId, patch.getRemovedRowIds());
+            if (removed.size() != new HashSet<>(patch.getRemovedRowIds()).size()) {
+                throw new IllegalArgumentException("Some rows to remove do not belong to table " + tableId);
+            }
+            rowRepository.deleteAllInBatch(removed);
+            rowDelta -= removed.size();
+        }
+
+        List<Long> addedRowIds = new ArrayList<>();
+        if (patch.getAddedRows() != null && !patch.getAddedRows().isEmpty()) {
+            for (CustomTableRowDTO rowDto : patch.getAddedRows()) {
+                Map<Long, Object> cells = new LinkedHashMap<>();
+                mergeCells(cells, rowDto.getCells(), columnsById.keySet());
+                CustomTableRow row = rowRepository.save(CustomTableRow.builder()
+                        .table(table)
+                        .sortKey(rowOrder.keyForInsert(tableId, rowDto.getRowIndex()))
+                        .cells(rowCodec.encode(cells))
+                        .lastModifiedAt(now)
+                        .lastModifiedBy(userId)
+                        .build());
+                addedRowIds.add(row.getId());
+            }
+            rowDelta += patch.getAddedRows().size();
+        }
+
+        if (patch.getUpdatedRows() != null && !patch.getUpdatedRows().isEmpty()) {
+            Map<Long, CustomTableRowDTO> changes = new LinkedHashMap<>();
+            for (CustomTableRowDTO rowDto : patch.getUpdatedRows()) {
+                if (rowDto.getId() == null) {
+                    throw new IllegalArgumentException("Updated rows must have an id");
+                }
+                changes.put(rowDto.getId(), rowDto);
+            }
+            List<CustomTableRow> rows = rowRepository.findByTableIdAndIdIn(tableId, changes.keySet());
+            if (rows.size() != changes.size()) {
+                throw new IllegalArgumentException("Some rows to update do not belong to table " + tableId);
+            }
+            for (CustomTableRow row : rows) {
+                Map<Long, Object> cells = rowCodec.decode(row.getCells());
+                // Values of removed columns are dropped while the row is rewritten anyway.
+                cells.keySet().retainAll(columnsById.keySet());
+                mergeCells(cells, changes.get(row.getId()).getCells(), columnsById.keySet());
+                row.setCells(rowCodec.encode(cells));
+                row.setLastModifiedAt(now);
+                row.setLastModifiedBy(userId);
+            }
+            rowRepository.saveAll(rows);
+        }
+
+        CustomTable saved = tableRepository.save(table);
+        if (rowDelta != 0 || columnDelta != 0) {
+            tableRepository.adjustCounts(tableId, rowDelta, columnDelta);
+        }
+
+        CustomTablePatchResultDTO result = new CustomTablePatchResultDTO();
+        result.setTableId(tableId);
+        result.setVersion(saved.getVersion());
+        result.setAddedColumns(addedColumns);
+        result.setAddedRowIds(addedRowIds);
+        return result;
+    }
+
     /**
      * Delete a table and all its associated data.
      */
     @Transactional
     public void deleteTable(Long tableId) {
+        hotCache.discard(tableId);
+        queryEngine.evict(tableId);
+        presence.removeTable(tableId);
         sessionRepository.deleteAll(
                 sessionRepository.findByTableIdAndIsActiveTrue(tableId)
         );
 
-        dataRepository.deleteAll(
-                dataRepository.findByTableIdOrdered(tableId)
-        );
+        rowRepository.deleteByTableId(tableId);
 
         columnRepository.deleteAll(
                 columnRepository.findByTableIdOrderByOrderIndexAsc(tableId)
@@ -238,6 +423,9 @@ public class CustomTableService {
      */
     @Transactional
     public CustomColumnDTO addColumn(Long tableId, CustomColumnDTO columnDTO) {
+        hotCache.flushAndEvict(tableId);
+        hotCache.evictAfterCommit(tableId);
+        bumpVersion(tableId, null, null);
         CustomTable table = tableRepository.findById(tableId)
                 .orElseThrow(() -> new IllegalArgumentException("Table not found: " + tableId));
 
@@ -245,128 +433,106 @@ public class CustomTableService {
         int nextOrderIndex = existingColumns.isEmpty() ? 0 :
                 existingColumns.get(existingColumns.size() - 1).getOrderIndex() + 1;
 
-        CustomColumn column = CustomColumn.builder()
-                .table(table)
-                .name(columnDTO.getName())
-                .type(columnDTO.getType())
-                .orderIndex(nextOrderIndex)
-                .required(columnDTO.getRequired())
-                .defaultValue(columnDTO.getDefaultValue())
-                .precision(columnDTO.getPrecision())
-                .scale(columnDTO.getScale())
-                .maxLength(columnDTO.getMaxLength())
-                .dateFormat(columnDTO.getDateFormat())
-                .build();
+        CustomColumn column = CustomColumn.builder().table(table).build();
+        applyColumn(column, columnDTO, nextOrderIndex);
+        // New columns always go last
+        column.setOrderIndex(nextOrderIndex);
 
         CustomColumn savedColumn = columnRepository.save(column);
+        tableRepository.adjustCounts(tableId, 0, 1);
         return mapColumnToDTO(savedColumn);
     }
 
     /**
      * Insert a new row at the specified index.
+     *
+     * Only the new row is written; the id of the new row and the index it actually
+     * got (a missing or past-the-end index appends) are set on the message.
      */
     @Transactional
     public void insertRow(Long tableId, TableUpdateMessage update) {
-        List<CustomTableData> existingData = dataRepository.findByTableIdOrdered(tableId);
-
-        existingData.stream()
-                .filter(data -> data.getRowIndex() >= update.getRowIndex())
-                .forEach(data -> {
-                    data.setRowIndex(data.getRowIndex() + 1);
-                    dataRepository.save(data);
-                });
+        touch(tableId, update.getUpdatedBy());
+        long rowCount = rowRepository.countByTableId(tableId);
+        update.setRowIndex(update.getRowIndex() == null || update.getRowIndex() > rowCount
+                ? (int) rowCount
+                : Math.max(update.getRowIndex(), 0));
+
+        CustomTableRow row = CustomTableRow.builder()
+                .table(tableRepository.getById(tableId))
+                .sortKey(rowOrder.keyForInsert(tableId, update.getRowIndex()))
+                .cells(rowCodec.encode(new LinkedHashMap<>()))
+                .lastModifiedAt(LocalDateTime.now())
+                .lastModifiedBy(update.getUpdatedBy())
+                .build();
+        update.setRowId(rowRepository.save(row).getId());
+        tableRepository.adjustCounts(tableId, 1, 0);
+        hotCache.onRowInserted(tableId, update.getRowIndex(), update.getRowId());
     }
 
     /**
-     * Delete a row at the specified index.
+     * Delete the row given by id, or else the row at the specified index.
+     *
+     * @return whether a row was deleted
      */
     @Transactional
-    public void deleteRow(Long tableId, TableUpdateMessage update) {
-        dataRepository.deleteByTableIdAndRowIndex(tableId, update.getRowIndex());
-
-        List<CustomTableData> higherRows = dataRepository.findByTableIdOrdered(tableId).stream()
-                .filter(data -> data.getRowIndex() > update.getRowIndex())
-                .collect(Collectors.toList());
-
-        higherRows.forEach(data -> {
-            data.setRowIndex(data.getRowIndex() - 1);
-            dataRepository.save(data);
-        });
+    public boolean deleteRow(Long tableId, TableUpdateMessage update) {
+        touch(tableId, update.getUpdatedBy());
+        int deleted = 0;
+        if (update.getRowId() != null) {
+            deleted = rowRepository.deleteByTableIdAndId(tableId, update.getRowId());
+        } else if (update.getRowIndex() != null) {
+            Optional<CustomTableRow> row = rowOrder.rowAt(tableId, update.getRowIndex());
+            if (row.isPresent()) {
+                update.setRowId(row.get().getId());
+                rowRepository.delete(row.get());
+                deleted = 1;
+            }
+        }
+        if (deleted > 0) {
+            tableRepository.adjustCounts(tableId, -deleted, 0);
+            hotCache.onRowDeleted(tableId, update.getRowId());
+        }
+        return deleted > 0;
     }
 
     /**
      * Update a cell value.
+     *
+     * The edit is applied to the in-memory working copy of the table and saved
+     * in the next batch, see CustomTableHotCache.
      */
-    @Transactional
     public void updateCell(Long tableId, TableUpdateMessage update) {
-        Optional<CustomTableData> optionalData = dataRepository.findByTableIdAndColumnIdAndRowIndex(
-                tableId,
-                update.getColumnId(),
-                update.getRowIndex()
-        );
-
-        CustomTableData data = optionalData.orElseGet(() -> {
-            CustomTableData newData = new CustomTableData();
-            newData.setTable(tableRepository.findById(tableId).orElseThrow(
-                    () -> new IllegalArgumentException("Table not found: " + tableId)
-            ));
-            newData.setColumn(columnRepository.findById(update.getColumnId()).orElseThrow(
-                    () -> new IllegalArgumentException("Column not found: " + update.getColumnId())
-            ));
-            newData.setRowIndex(update.getRowIndex());
-            return newData;
-        });
-
-        data.setCellValue(update.getNewValue());
-        data.setLastModifiedAt(LocalDateTime.now());
-        data.setLastModifiedBy(update.getUpdatedBy());
-
-        dataRepository.save(data);
+        hotCache.updateCell(tableId, update);
     }
 
     /**
      * Start a new session for a user joining a table.
+     *
+     * Presence is kept in memory only, see CustomTablePresence.
      */
-    @Transactional
-    public void joinSession(Long tableId, String userId) {
-        CustomTable table = tableRepository.findById(tableId)
-                .orElseThrow(() -> new IllegalArgumentException("Table not found: " + tableId));
-
-        CustomTableSession session = CustomTableSession.builder()
-                .table(table)
-                .userId(userId)
-                .joinedAt(LocalDateTime.now())
-                .lastActiveAt(LocalDateTime.now())
-                .isActive(true)
-                .build();
-
-        sessionRepository.save(session);
+    public void joinSession(Long tableId, String userId, String sessionId) {
+        presence.join(tableId, userId, sessionId);
     }
-    
+
     /**
-     * Update column properties.
+     * Keep the sessions of a websocket connection alive.
      */
-    @Transactional
-    public void updateColumn(Long tableId, TableUpdateMessage update) {
-        // Implement any necessary column update logic here.
+    public void heartbeat(String sessionId) {
+        presence.heartbeat(sessionId);
     }
-
+    
     /**
      * End a session for a user leaving a table.
      */
-    @Transactional
-    public void leaveSession(Long tableId, String userId) {
-        sessionRepository.deleteByUserIdAndTableId(userId, tableId);
+    public void leaveSession(Long tableId, String sessionId) {
+        presence.leave(tableId, sessionId);
     }
 
     /**
      * Get a list of active users for a table.
      */
     public List<String> getActiveUsers(Long tableId) {
-        return sessionRepository.findByTableIdAndIsActiveTrue(tableId)
-                .stream()
-                .map(CustomTableSession::getUserId)
-                .collect(Collectors.toList());
+        return presence.getActiveUsers(tableId);
     }
 
     // Helper method to map a CustomTable entity to its DTO.
@@ -379,6 +545,7 @@ public class CustomTableService {
         dto.setCreatedAt(table.getCreatedAt());
         dto.setLastModifiedAt(table.getLastModifiedAt());
         dto.setLastModifiedBy(table.getLastModifiedBy());
+        dto.setVersion(table.getVersion());
 
         // Fetch columns for the table and map them to DTOs.
         List<CustomColumn> columns = columnRepository.findByTableIdOrderByOrderIndexAsc(table.getId());
@@ -386,44 +553,120 @@ public class CustomTableService {
             columns.stream().map(this::mapColumnToDTO).collect(Collectors.toList())
         );
 
-        // Fetch table data (cell values) for the table.
-        List<CustomTableData> tableData = dataRepository.findAllByTableId(table.getId());
-
-        // Organize the data into a 2D list.
-        if (!tableData.isEmpty()) {
-            // Determine the maximum row index.
-            int maxRowIndex = tableData.stream()
-                .mapToInt(CustomTableData::getRowIndex)
-                .max()
-                .orElse(-1);
-
-            // Create a 2D list with an entry for each row.
-            List<List<Object>> data = new ArrayList<>();
-            for (int i = 0; i <= maxRowIndex; i++) {
-                data.add(new ArrayList<>(columns.size()));
-            }
+        // Fetch the table rows, already ordered by sort key.
+        List<CustomTableRow> rows = rowRepository.findByTableIdOrdered(table.getId());
+        dto.setData(toMatrix(rows, columns));
+        dto.setRowIds(rows.stream().map(CustomTableRow::getId).collect(Collectors.toList()));
+
+        return dto;
+    }
 
-            // Populate the 2D list with cell values.
-            for (CustomTableData cellData : tableData) {
-                int rowIndex = cellData.getRowIndex();
-                // Find the column's index in the fetched columns list.
-                int colIndex = columns.indexOf(cellData.getColumn());
-                
-                // Ensure the row has enough cells.
-                while (data.get(rowIndex).size() < columns.size()) {
-                    data.get(rowIndex).add(null);
+    // Helper method to organize rows into a 2D list, one value per given column.
+    private List<List<Object>> toMatrix(List<CustomTableRow> rows, List<CustomColumn> columns) {
+        // Resolve each column id to its position once instead of searching per cell.
+        Map<Long, Integer> columnPositions = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            columnPositions.put(columns.get(i).getId(), i);
+        }
+
+        List<List<Object>> data = new ArrayList<>(rows.size());
+        for (CustomTableRow row : rows) {
+            Object[] values = new Object[columns.size()];
+            rowCodec.decode(row.getCells()).forEach((columnId, value) -> {
+                Integer colIndex = columnPositions.get(columnId);
+                // Values of columns that no longer exist, or were not requested, are skipped.
+                if (colIndex != null) {
+                    values[colIndex] = value;
+                }
+            });
+            data.add(Arrays.asList(values));
+        }
+        return data;
+    }
+
+    // Helper method to pack a 2D list of values into one row entity per row.
+    private List<CustomTableRow> buildRows(CustomTable table, List<CustomColumn> columns,
+                                           List<List<Object>> data, String userId) {
+        List<CustomTableRow> rows = new ArrayList<>(data.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (int rowIndex = 0; rowIndex < data.size(); rowIndex++) {
+            List<Object> rowData = data.get(rowIndex);
+            Map<Long, Object> cells = new LinkedHashMap<>();
+            for (int colIndex = 0; colIndex < rowData.size(); colIndex++) {
+                // Ensure that a corresponding column exists
+                if (colIndex >= columns.size()) {
+                    throw new IllegalArgumentException("Data column index " + colIndex +
+                            " exceeds the number of table columns " + columns.size());
                 }
-                
-                // Set the cell value at the correct row and column index.
-                data.get(rowIndex).set(colIndex, cellData.getCellValue());
+                cells.put(columns.get(colIndex).getId(), rowData.get(colIndex));
             }
+            rows.add(CustomTableRow.builder()
+                    .table(table)
+                    .sortKey(CustomTableRowOrder.initialKey(rowIndex))
+                    .cells(rowCodec.encode(cells))
+                    .lastModifiedAt(now)
+                    .lastModifiedBy(userId)
+                    .build());
+        }
+        return rows;
+    }
 
-            dto.setData(data);
-        } else {
-            dto.setData(new ArrayList<>());
+    // Helper method to bump the table version, optionally checking the version the client saw.
+    private void bumpVersion(Long tableId, Long expectedVersion, String userId) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = expectedVersion == null
+                ? tableRepository.bumpVersion(tableId, now, userId)
+                : tableRepository.touchIfVersion(tableId, expectedVersion, now, userId);
+        if (updated == 0) {
+            CustomTable table = tableRepository.findById(tableId)
+                    .orElseThrow(() -> new IllegalArgumentException("Table not found: " + tableId));
+            throw new ConflictException("Table " + tableId + " was modified by someone else (version " +
+                    table.getVersion() + ", expected " + expectedVersion + ")");
         }
+    }
 
-        return dto;
+    // Helper method to record a live edit; like cell edits, it does not move the version.
+    private void touch(Long tableId, String userId) {
+        if (tableRepository.touch(tableId, LocalDateTime.now(), userId) == 0) {
+            throw new IllegalArgumentException("Table not found: " + tableId);
+        }
+    }
+
+    // Helper method to copy the editable column properties from a DTO.
+    private void applyColumn(CustomColumn column, CustomColumnDTO dto, Integer defaultOrderIndex) {
+        column.setName(dto.getName());
+        column.setType(dto.getType());
+        column.setOrderIndex(dto.getOrderIndex() != null ? dto.getOrderIndex() : defaultOrderIndex);
+        column.setRequired(dto.getRequired() != null ? dto.getRequired() : false);
+        column.setDefaultValue(dto.getDefaultValue());
+        column.setPrecision(dto.getPrecision());
+        column.setScale(dto.getScale());
+        column.setMaxLength(dto.getMaxLength());
+        column.setDateFormat(dto.getDateFormat());
+    }
+
+    private CustomColumn requireColumn(CustomColumn column, Long columnId) {
+        if (column == null) {
+            throw new IllegalArgumentException("Column not found: " + columnId);
+        }
+        return column;
+    }
+
+    // Helper method to apply changed cells to a decoded row; a null value clears the cell.
+    private void mergeCells(Map<Long, Object> cells, Map<Long, Object> changes, Set<Long> columnIds) {
+        if (changes == null) {
+            return;
+        }
+        changes.forEach((columnId, value) -> {
+            if (!columnIds.contains(columnId)) {
+                throw new IllegalArgumentException("Column not found: " + columnId);
+            }
+            if (value == null) {
+                cells.remove(columnId);
+            } else {
+                cells.put(columnId, value);
+            }
+        });
     }
 
     // Helper method to map a CustomColumn entity to its DTO.
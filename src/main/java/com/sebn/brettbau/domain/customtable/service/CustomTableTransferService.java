@@ -0,0 +1,518 @@
+package com.sebn.brettbau.domain.customtable.service;
+
+import com.sebn.brettbau.domain.customtable.dto.CustomTableImportJobDTO;
+import com.sebn.brettbau.domain.customtable.entity.CustomColumn;
+import com.sebn.brettbau.domain.customtable.entity.CustomTable;
+import com.sebn.brettbau.domain.customtable.entity.CustomTableRow;
+import com.sebn.brettbau.domain.customtable.repository.CustomColumnRepository;
+import com.sebn.brettbau.domain.customtable.repository.CustomTableRepository;
+import com.sebn.brettbau.domain.customtable.repository.CustomTableRowRepository;
+import com.sebn.brettbau.util.CountingInputStream;
+import com.sebn.brettbau.util.XlsxRowReader;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CSV and XLSX import/export of custom tables.
+ *
+ * Both directions stream: exports read the table in chunks and write each
+ * chunk straight to the response, imports read the uploaded file row by row
+ * and insert rows in JDBC batches. Memory use does not depend on the size of
+ * the sheet. Imports run in the background and report their progress.
+ */
+@Service
+public class CustomTableTransferService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomTableTransferService.class);
+
+    private static final int EXPORT_CHUNK_SIZE = 1000;
+    private static final int IMPORT_BATCH_SIZE = 500;
+    // Rows of an XLSX export kept in memory before they are flushed to a temp file
+    private static final int XLSX_WINDOW_SIZE = 100;
+    private static final long FINISHED_JOB_RETENTION_HOURS = 1;
+
+    private static final String INSERT_ROW_SQL =
+            "INSERT INTO custom_table_rows (table_id, sort_key, cells, last_modified_at, last_modified_by) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private final CustomTableRepository tableRepository;
+    private final CustomColumnRepository columnRepository;
+    private final CustomTableRowRepository rowRepository;
+    private final CustomTableRowCodec rowCodec;
+    private final CustomTableHotCache hotCache;
+    private final CustomTableBroadcaster broadcaster;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor importExecutor;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public CustomTableTransferService(CustomTableRepository tableRepository,
+                                      CustomColumnRepository columnRepository,
+                                      CustomTableRowRepository rowRepository,
+                                      CustomTableRowCodec rowCodec,
+                                      CustomTableHotCache hotCache,
+                                      CustomTableBroadcaster broadcaster,
+                                      JdbcTemplate jdbcTemplate,
+                                      PlatformTransactionManager transactionManager) {
+        this.tableRepository = tableRepository;
+        this.columnRepository = columnRepository;
+        this.rowRepository = rowRepository;
+        this.rowCodec = rowCodec;
+        this.hotCache = hotCache;
+        this.broadcaster = broadcaster;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.importExecutor = new ThreadPoolTaskExecutor();
+        this.importExecutor.setCorePoolSize(2);
+        this.importExecutor.setMaxPoolSize(2);
+        this.importExecutor.setQueueCapacity(10);
+        this.importExecutor.setThreadNamePrefix("table-import-");
+        this.importExecutor.initialize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        importExecutor.shutdown();
+    }
+
+    public enum Format {
+        CSV("csv", "text/csv"),
+        XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public static Format parse(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported format: " + value);
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Export
+    // ----------------------------------------------------------------------
+
+    /**
+     * File name for an export of the table; also checks that the table exists.
+     */
+    public String exportFileName(Long tableId, Format format) {
+        CustomTable table = tableRepository.findById(tableId)
+                .orElseThrow(() -> new IllegalArgumentException("Table not found: " + tableId));
+        String name = table.getName() != null ? table.getName() : "table-" + tableId;
+        return name.replaceAll("[^A-Za-z0-9._-]+", "_") + "." + format.getExtension();
+    }
+
+    /**
+     * Write the table to the stream: a header row with the column names, then one line per row.
+     */
+    public void export(Long tableId, Format format, OutputStream out) throws IOException {
+        hotCache.flush(tableId);
+        List<CustomColumn> columns = columnRepository.findByTableIdOrderByOrderIndexAsc(tableId);
+        if (format == Format.CSV) {
+            exportCsv(tableId, columns, out);
+        } else {
+            exportXlsx(tableId, columns, out);
+        }
+    }
+
+    private void exportCsv(Long tableId, List<CustomColumn> columns, OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT);
+        List<Object> header = new ArrayList<>(columns.size());
+        columns.forEach(column -> header.add(column.getName()));
+        printer.printRecord(header);
+
+        forEachChunk(tableId, rows -> {
+            for (CustomTableRow row : rows) {
+                Map<Long, Object> cells = rowCodec.decode(row.getCells());
+                List<Object> values = new ArrayList<>(columns.size());
+                for (CustomColumn column : columns) {
+                    Object value = cells.get(column.getId());
+                    values.add(value != null ? value : "");
+                }
+                printer.printRecord(values);
+            }
+            printer.flush();
+        });
+        printer.flush();
+    }
+
+    private void exportXlsx(Long tableId, List<CustomColumn> columns, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(XLSX_WINDOW_SIZE);
+        try {
+            Sheet sheet = workbook.createSheet("Data");
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < columns.size(); i++) {
+                header.createCell(i).setCellValue(columns.get(i).getName());
+            }
+
+            int[] rowNum = {1};
+            forEachChunk(tableId, rows -> {
+                for (CustomTableRow row : rows) {
+                    Map<Long, Object> cells = rowCodec.decode(row.getCells());
+                    Row sheetRow = sheet.createRow(rowNum[0]++);
+                    for (int i = 0; i < columns.size(); i++) {
+                        Object value = cells.get(columns.get(i).getId());
+                        if (value != null) {
+                            setCellValue(sheetRow.createCell(i), columns.get(i), value);
+                        }
+                    }
+                }
+            });
+            workbook.write(out);
+        } finally {
+            // Removes the temp files backing the flushed rows
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    // Numbers and booleans are written as such so they stay usable in Excel.
+    private static void setCellValue(Cell cell, CustomColumn column, Object value) {
+        String type = column.getType() != null ? column.getType().toUpperCase(Locale.ROOT) : "";
+        if (value instanceof Number) {
+            cell.setCellValue(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            cell.setCellValue((Boolean) value);
+        } else if ("NUMBER".equals(type)) {
+            try {
+                cell.setCellValue(Double.parseDouble(value.toString().trim()));
+            } catch (NumberFormatException e) {
+                cell.setCellValue(value.toString());
+            }
+        } else if ("BOOLEAN".equals(type)
+                && ("true".equalsIgnoreCase(value.toString()) || "false".equalsIgnoreCase(value.toString()))) {
+            cell.setCellValue(Boolean.parseBoolean(value.toString()));
+        } else {
+            cell.setCellValue(value.toString());
+        }
+    }
+
+    private interface ChunkConsumer {
+        void accept(List<CustomTableRow> rows) throws IOException;
+    }
+
+    // Reads the table in table order, one keyset-paginated chunk at a time.
+    private void forEachChunk(Long tableId, ChunkConsumer consumer) throws IOException {
+        long afterSortKey = Long.MIN_VALUE;
+        long afterId = 0;
+        while (true) {
+            List<CustomTableRow> rows = rowRepository.findChunkAfter(tableId, afterSortKey, afterId, EXPORT_CHUNK_SIZE);
+            if (rows.isEmpty()) {
+                return;
+            }
+            consumer.accept(rows);
+            CustomTableRow last = rows.get(rows.size() - 1);
+            afterSortKey = last.getSortKey();
+            afterId = last.getId();
+            if (rows.size() < EXPORT_CHUNK_SIZE) {
+                return;
+            }
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Import
+    // ----------------------------------------------------------------------
+
+    /**
+     * Append the rows of an uploaded CSV or XLSX file to a table in the background.
+     *
+     * The first row of the file holds column names; they are matched to the
+     * table's columns by name, and a TEXT column is added for each unknown name.
+     */
+    public CustomTableImportJobDTO startImport(Long tableId, MultipartFile file, String userId) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        if (!tableRepository.existsById(tableId)) {
+            throw new IllegalArgumentException("Table not found: " + tableId);
+        }
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : "upload";
+        int dot = fileName.lastIndexOf('.');
+        Format format = Format.parse(dot >= 0 ? fileName.substring(dot + 1) : "");
+
+        // The upload is gone once the request ends, so keep a copy for the background job
+        Path copy;
+        try {
+            copy = Files.createTempFile("custom-table-import-", "." + format.getExtension());
+            file.transferTo(copy);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not store uploaded file: " + e.getMessage(), e);
+        }
+
+        removeOldJobs();
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), tableId, fileName, copy.toFile().length());
+        jobs.put(job.id, job);
+        try {
+            importExecutor.execute(() -> runImport(job, copy, format, userId));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.id);
+            deleteQuietly(copy);
+            throw new IllegalStateException("Too many imports are running, please try again later");
+        }
+        return job.toDTO();
+    }
+
+    public CustomTableImportJobDTO getImportJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new IllegalArgumentException("Import job not found: " + jobId);
+        }
+        return job.toDTO();
+    }
+
+    private void runImport(ImportJob job, Path file, Format format, String userId) {
+        logger.info("Importing {} into table {} (job {})", job.fileName, job.tableId, job.id);
+        RowSink sink = new RowSink(job, userId);
+        try {
+            // Rows are appended through JDBC, so the in-memory working copy has to go
+            hotCache.flushAndEvict(job.tableId);
+            if (format == Format.CSV) {
+                try (InputStream in = new CountingInputStream(Files.newInputStream(file), job.bytesRead);
+                     BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                    for (CSVRecord record : CSVFormat.DEFAULT.parse(reader)) {
+                        List<String> values = new ArrayList<>(record.size());
+                        record.forEach(values::add);
+                        sink.accept(values);
+                    }
+                }
+            } else {
+                // Progress of an xlsx file is measured on its uncompressed sheet
+                XlsxRowReader.read(file.toFile(), sink::accept, job.bytesRead, job.totalBytes);
+            }
+            sink.finish();
+            job.status = "DONE";
+            logger.info("Imported {} rows into table {} (job {})", job.rowsImported.get(), job.tableId, job.id);
+        } catch (Exception e) {
+            logger.error("Import job {} failed: {}", job.id, e.getMessage(), e);
+            job.error = e.getMessage();
+            job.status = "FAILED";
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            // Rows imported before a failure stay; make the table reflect them
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        tableRepository.touch(job.tableId, LocalDateTime.now(), userId));
+                hotCache.flushAndEvict(job.tableId);
+                broadcaster.publishReload(job.tableId, userId);
+            } catch (RuntimeException e) {
+                logger.warn("Could not finish import job {}: {}", job.id, e.getMessage());
+            }
+            deleteQuietly(file);
+        }
+    }
+
+    // Turns file rows into table rows and inserts them in batches.
+    private class RowSink {
+        private final ImportJob job;
+        private final String userId;
+        private final List<Object[]> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        private List<Long> columnIds;
+        private long nextSortKey;
+
+        RowSink(ImportJob job, String userId) {
+            this.job = job;
+            this.userId = userId;
+        }
+
+        void accept(List<String> values) {
+            if (columnIds == null) {
+                // The header is the first row that is not blank
+                if (values.stream().allMatch(value -> value == null || value.trim().isEmpty())) {
+                    return;
+                }
+                columnIds = resolveColumns(job.tableId, values);
+                Long maxSortKey = rowRepository.findMaxSortKey(job.tableId);
+                nextSortKey = (maxSortKey != null ? maxSortKey : 0) + CustomTableRowOrder.STEP;
+                return;
+            }
+
+            Map<Long, Object> cells = new LinkedHashMap<>();
+            for (int i = 0; i < values.size() && i < columnIds.size(); i++) {
+                String value = values.get(i);
+                if (value != null && !value.isEmpty()) {
+                    cells.put(columnIds.get(i), value);
+                }
+            }
+            if (cells.isEmpty()) {
+                return;
+            }
+
+            batch.add(new Object[]{job.tableId, nextSortKey, rowCodec.encode(cells),
+                    Timestamp.valueOf(LocalDateTime.now()), userId});
+            nextSortKey += CustomTableRowOrder.STEP;
+            if (batch.size() >= IMPORT_BATCH_SIZE) {
+                writeBatch();
+            }
+        }
+
+        void finish() {
+            if (columnIds == null) {
+                throw new IllegalArgumentException("The file has no header row");
+            }
+            if (!batch.isEmpty()) {
+                writeBatch();
+            }
+        }
+
+        private void writeBatch() {
+            int size = batch.size();
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_ROW_SQL, batch);
+                tableRepository.adjustCounts(job.tableId, size, 0);
+            });
+            batch.clear();
+            job.rowsImported.addAndGet(size);
+        }
+    }
+
+    // Column id for each header name; unknown names get a new TEXT column.
+    private List<Long> resolveColumns(Long tableId, List<String> header) {
+        return transactionTemplate.execute(status -> {
+            List<CustomColumn> existing = columnRepository.findByTableIdOrderByOrderIndexAsc(tableId);
+            Map<String, Long> byName = new HashMap<>();
+            int nextOrderIndex = 0;
+            for (CustomColumn column : existing) {
+                if (column.getName() != null) {
+                    byName.putIfAbsent(column.getName().trim().toLowerCase(Locale.ROOT), column.getId());
+                }
+                if (column.getOrderIndex() != null) {
+                    nextOrderIndex = Math.max(nextOrderIndex, column.getOrderIndex() + 1);
+                }
+            }
+
+            CustomTable table = tableRepository.getById(tableId);
+            List<Long> columnIds = new ArrayList<>(header.size());
+            int created = 0;
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i) != null && !header.get(i).trim().isEmpty()
+                        ? header.get(i).trim() : "Column " + (i + 1);
+                Long columnId = byName.get(name.toLowerCase(Locale.ROOT));
+                if (columnId == null) {
+                    CustomColumn column = columnRepository.save(CustomColumn.builder()
+                            .table(table)
+                            .name(name)
+                            .type("TEXT")
+                            .orderIndex(nextOrderIndex++)
+                            .required(false)
+                            .build());
+                    columnId = column.getId();
+                    byName.put(name.toLowerCase(Locale.ROOT), columnId);
+                    created++;
+                }
+                columnIds.add(columnId);
+            }
+            if (created > 0) {
+                tableRepository.adjustCounts(tableId, 0, created);
+            }
+            return columnIds;
+        });
+    }
+
+    private void removeOldJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(FINISHED_JOB_RETENTION_HOURS);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete temp file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static class ImportJob {
+        final String id;
+        final Long tableId;
+        final String fileName;
+        final AtomicLong totalBytes = new AtomicLong();
+        final AtomicLong bytesRead = new AtomicLong();
+        final AtomicLong rowsImported = new AtomicLong();
+        final LocalDateTime startedAt = LocalDateTime.now();
+        volatile String status = "RUNNING";
+        volatile String error;
+        volatile LocalDateTime finishedAt;
+
+        ImportJob(String id, Long tableId, String fileName, long totalBytes) {
+            this.id = id;
+            this.tableId = tableId;
+            this.fileName = fileName;
+            this.totalBytes.set(totalBytes);
+        }
+
+        CustomTableImportJobDTO toDTO() {
+            CustomTableImportJobDTO dto = new CustomTableImportJobDTO();
+            dto.setId(id);
+            dto.setTableId(tableId);
+            dto.setFileName(fileName);
+            dto.setStatus(status);
+            dto.setRowsImported(rowsImported.get());
+            if ("DONE".equals(status)) {
+                dto.setProgress(100);
+            } else if (bytesRead.get() > 0 && totalBytes.get() > 0) {
+                dto.setProgress((int) Math.min(99, bytesRead.get() * 100 / totalBytes.get()));
+            }
+            dto.setError(error);
+            dto.setStartedAt(startedAt);
+            dto.setFinishedAt(finishedAt);
+            return dto;
+        }
+    }
+}
@@ -1,8 +1,16 @@
 package com.sebn.brettbau.domain.preventive_maintenance.controller;
 
 import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardFacetsDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardImportResultDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardPageDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardSearchHitDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardSearchIndexStatsDTO;
 import com.sebn.brettbau.domain.preventive_maintenance.dto.BulkBoardRequest;
+import com.sebn.brettbau.domain.preventive_maintenance.service.BoardImportService;
 import com.sebn.brettbau.domain.preventive_maintenance.service.BoardService;
+import com.sebn.brettbau.domain.preventive_maintenance.service.ReferenceDataVersions;
+import com.sebn.brettbau.domain.preventive_maintenance.service.ReferenceDataVersions.Aggregate;
 import com.sebn.brettbau.domain.role.service.RoleService;
 import com.sebn.brettbau.domain.security.Module;
 import com.sebn.brettbau.domain.security.PermissionType;
@@ -15,6 +23,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,16 +47,22 @@ public class BoardController {
     private final RoleService roleService;
     private final UserService userService;
     private final PackRepository packRepository;
+    private final BoardImportService boardImportService;
+    private final ReferenceDataVersions referenceDataVersions;
 
     @Autowired
     public BoardController(BoardService boardService,
                            RoleService roleService,
                            UserService userService,
-                           PackRepository packRepository) {
+                           PackRepository packRepository,
+                           BoardImportService boardImportService,
+                           ReferenceDataVersions referenceDataVersions) {
         this.boardService = boardService;
         this.roleService = roleService;
         this.userService = userService;
         this.packRepository = packRepository;
+        this.boardImportService = boardImportService;
+        this.referenceDataVersions = referenceDataVersions;
     }
 
     /**
@@ -59,11 +74,13 @@ public class BoardController {
      * @param projet           (optional) Filter by projet
      * @param plant            (optional) Filter by plant
      * @param fbType1          (optional) Filter by FB Type 1
+     * @param ifNoneMatch      (optional) ETag of the client's copy; 304 if boards did not change
      * @return List of BoardDTOs
      */
     @GetMapping
     public ResponseEntity<?> getAllBoards(
         @RequestHeader(value = "X-Requesting-Module", required = false) String requestingModule,
+        @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
         @RequestParam(value = "search", required = false) String search,
         @RequestParam(value = "projet", required = false) String projet,
         @RequestParam(value = "plant", required = false) String plant,
@@ -83,8 +100,13 @@ public class BoardController {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access Denied.");
             }
 
+            String etag = referenceDataVersions.etag(Aggregate.BOARDS);
+            if (referenceDataVersions.notModified(ifNoneMatch, etag, Aggregate.BOARDS)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+
             List<BoardDTO> boards = boardService.getBoardsFiltered(search, projet, plant, fbType1);
-            return ResponseEntity.ok(boards);
+            return ResponseEntity.ok().eTag(etag).body(boards);
         } catch (IllegalArgumentException ex) {
             // Handle invalid module name in header
             logger.error("Invalid requesting module: {}", ex.getMessage(), ex);
@@ -96,6 +118,147 @@ public class BoardController {
         }
     }
 
+    /**
+     * Get one page of boards, filtered and sorted in the database.
+     * Example: GET /api/boards/page?projet=abc&sort=boardNumber&direction=asc&size=50
+     *
+     * Uses keyset pagination: pass the returned nextCursor as cursor to get the
+     * next page. Sort may be id, boardNumber, fbName, projet, plant, fbType1,
+     * status or creationDate.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<?> getBoardsPage(
+        @RequestHeader(value = "X-Requesting-Module", required = false) String requestingModule,
+        @RequestParam(value = "search", required = false) String search,
+        @RequestParam(value = "projet", required = false) String projet,
+        @RequestParam(value = "plant", required = false) String plant,
+        @RequestParam(value = "fbType1", required = false) String fbType1,
+        @RequestParam(value = "sort", defaultValue = "id") String sort,
+        @RequestParam(value = "direction", defaultValue = "asc") String direction,
+        @RequestParam(value = "cursor", required = false) String cursor,
+        @RequestParam(value = "size", defaultValue = "50") int size
+    ) {
+        Module callingModule;
+        try {
+            callingModule = (requestingModule != null) ? Module.valueOf(requestingModule.toUpperCase()) : null;
+        } catch (IllegalArgumentException ex) {
+            logger.error("Invalid requesting module: {}", ex.getMessage(), ex);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid requesting module.");
+        }
+        try {
+            boolean hasAccess = roleService.hasPermissionOrIndirectAccess(
+                userService.getCurrentUser().getRole(),
+                Module.BOARD,
+                PermissionType.READ,
+                callingModule
+            );
+
+            if (!hasAccess) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access Denied.");
+            }
+
+            BoardPageDTO page = boardService.getBoardsPage(
+                search, projet, plant, fbType1, sort, direction, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Invalid board page request: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+        } catch (Exception ex) {
+            logger.error("Error retrieving board page: {}", ex.getMessage(), ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An unexpected error occurred while retrieving boards.");
+        }
+    }
+
+    /**
+     * Type-ahead search on board number and FB name, served from memory.
+     * Example: GET /api/boards/search?q=FB-12&limit=20
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchBoards(
+        @RequestHeader(value = "X-Requesting-Module", required = false) String requestingModule,
+        @RequestParam(value = "q") String query,
+        @RequestParam(value = "limit", defaultValue = "20") int limit
+    ) {
+        Module callingModule;
+        try {
+            callingModule = (requestingModule != null) ? Module.valueOf(requestingModule.toUpperCase()) : null;
+        } catch (IllegalArgumentException ex) {
+            logger.error("Invalid requesting module: {}", ex.getMessage(), ex);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid requesting module.");
+        }
+        try {
+            boolean hasAccess = roleService.hasPermissionOrIndirectAccess(
+                userService.getCurrentUser().getRole(),
+                Module.BOARD,
+                PermissionType.READ,
+                callingModule
+            );
+
+            if (!hasAccess) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access Denied.");
+            }
+
+            List<BoardSearchHitDTO> hits = boardService.searchBoards(query, limit);
+            return ResponseEntity.ok(hits);
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Invalid board search request: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+        } catch (Exception ex) {
+            logger.error("Error searching boards: {}", ex.getMessage(), ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An unexpected error occurred while searching boards.");
+        }
+    }
+
+    /**
+     * Size and timing of the board search index.
+     * Example: GET /api/boards/search/stats
+     */
+    @GetMapping("/search/stats")
+    public ResponseEntity<?> getSearchIndexStats() {
+        try {
+            boolean hasAccess = roleService.roleHasPermission(
+                userService.getCurrentUser().getRole(),
+                Module.BOARD,
+                PermissionType.READ
+            );
+
+            if (!hasAccess) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access Denied.");
+            }
+
+            BoardSearchIndexStatsDTO stats = boardService.getSearchIndexStats();
+            return ResponseEntity.ok(stats);
+        } catch (Exception ex) {
+            logger.error("Error retrieving search index stats: {}", ex.getMessage(), ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to retrieve search index stats.");
+        }
+    }
+
+    /**
+     * Reference data versions and how many list reads were answered with 304 Not Modified.
+     */
+    @GetMapping("/etag-stats")
+    public ResponseEntity<?> getConditionalGetStats() {
+        try {
+            boolean hasAccess = roleService.roleHasPermission(
+                userService.getCurrentUser().getRole(),
+                Module.BOARD,
+                PermissionType.READ
+            );
+            if (!hasAccess) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access Denied.");
+            }
+            return ResponseEntity.ok(referenceDataVersions.getStats());
+        } catch (Exception ex) {
+            logger.error("Error retrieving ETag stats: {}", ex.getMessage(), ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to retrieve ETag stats.");
+        }
+    }
+
     /**
      * Create new board.
      * Example: POST /api/boards
@@ -234,6 +397,44 @@ public class BoardController {
 
     // ------------------- Updated Endpoints for Distinct Values -------------------
 
+    /**
+     * Get the filter panel values with counts in one call.
+     * Example: GET /api/boards/facets?projet=abc
+     *
+     * Returns projets, plants and fbTypes1, each counted under all other applied filters.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<?> getBoardFacets(
+            @RequestHeader(value = "X-Requesting-Module", required = false) String requestingModule,
+            @RequestParam(value = "search", required = false) String search,
+            @RequestParam(value = "projet", required = false) String projet,
+            @RequestParam(value = "plant", required = false) String plant,
+            @RequestParam(value = "fbType1", required = false) String fbType1) {
+        try {
+            Module callingModule = (requestingModule != null) ? Module.valueOf(requestingModule.toUpperCase()) : null;
+
+            boolean hasAccess = roleService.hasPermissionOrIndirectAccess(
+                userService.getCurrentUser().getRole(),
+                Module.BOARD,
+                PermissionType.READ,
+                callingModule
+            );
+            if (!hasAccess) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access Denied.");
+            }
+
+            BoardFacetsDTO facets = boardService.getBoardFacets(search, projet, plant, fbType1);
+            return ResponseEntity.ok(facets);
+        } catch (IllegalArgumentException ex) {
+            logger.error("Invalid requesting module: {}", ex.getMessage(), ex);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid requesting module.");
+        } catch (Exception ex) {
+            logger.error("Error fetching board facets: {}", ex.getMessage(), ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to retrieve board facets.");
+        }
+    }
+
     /**
      * Get all distinct projects.
      * Example: GET /api/boards/projects
@@ -364,6 +565,65 @@ public class BoardController {
         }
     }
 
+    /**
+     * Import boards from a CSV or XLSX file; the first row names the board fields.
+     * Example: POST /api/boards/import (multipart, part "file")
+     *
+     * Unlike /bulk, valid rows are created even if other rows fail; the response
+     * lists the outcome of every row.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importBoards(@RequestParam("file") MultipartFile file) {
+        try {
+            boolean hasPermission = roleService.roleHasPermission(
+                userService.getCurrentUser().getRole(),
+                Module.BOARD,
+                PermissionType.CREATE
+            );
+            if (!hasPermission) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access Denied.");
+            }
+
+            BoardImportResultDTO result = boardImportService.importFile(file);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Board import rejected: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+        } catch (Exception ex) {
+            logger.error("Error during board import: {}", ex.getMessage(), ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An error occurred during board import.");
+        }
+    }
+
+    /**
+     * Import boards given as JSON, with a result per row.
+     * Example: POST /api/boards/import/rows
+     */
+    @PostMapping("/import/rows")
+    public ResponseEntity<?> importBoardRows(@RequestBody BulkBoardRequest request) {
+        try {
+            boolean hasPermission = roleService.roleHasPermission(
+                userService.getCurrentUser().getRole(),
+                Module.BOARD,
+                PermissionType.CREATE
+            );
+            if (!hasPermission) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access Denied.");
+            }
+            if (request.getBoards() == null) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("No boards given.");
+            }
+
+            BoardImportResultDTO result = boardImportService.importBoards(request.getBoards());
+            return ResponseEntity.ok(result);
+        } catch (Exception ex) {
+            logger.error("Error during board import: {}", ex.getMessage(), ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An error occurred during board import.");
+        }
+    }
+
     // ------------------- Packs Endpoint (Example) -------------------
 
     /**
@@ -372,7 +632,8 @@ public class BoardController {
      */
     @GetMapping("/packs")
     public ResponseEntity<?> getAllPacks(
-            @RequestHeader(value = "X-Requesting-Module", required = false) String requestingModule) {
+            @RequestHeader(value = "X-Requesting-Module", required = false) String requestingModule,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         try {
             Module callingModule = (requestingModule != null) ? Module.valueOf(requestingModule.toUpperCase()) : null;
 
@@ -386,8 +647,14 @@ public class BoardController {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access Denied.");
             }
 
+            // Packs are serialized with their site and project
+            String etag = referenceDataVersions.etag(Aggregate.PACKS, Aggregate.SITES, Aggregate.PROJECTS);
+            if (referenceDataVersions.notModified(ifNoneMatch, etag, Aggregate.PACKS)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+
             List<Pack> packs = packRepository.findAll();
-            return ResponseEntity.ok(packs);
+            return ResponseEntity.ok().eTag(etag).body(packs);
         } catch (IllegalArgumentException ex) {
             logger.error("Invalid module: {}", ex.getMessage(), ex);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid requesting module.");
@@ -2,8 +2,11 @@
 
 package com.sebn.brettbau.domain.preventive_maintenance.controller;
 
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardStatusJobRunDTO;
 import com.sebn.brettbau.domain.preventive_maintenance.dto.ChecklistDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.MaintenanceStatusSummaryDTO;
 import com.sebn.brettbau.domain.preventive_maintenance.dto.ProgressResponse;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.TechnicianLeaderboardDTO;
 import com.sebn.brettbau.domain.preventive_maintenance.service.ChecklistService;
 import com.sebn.brettbau.domain.role.service.RoleService;
 import com.sebn.brettbau.domain.security.Module;
@@ -295,5 +298,146 @@ public class ChecklistController {
             return ResponseEntity.status(500).build();
         }
     }
-}
 
+    /**
+     * Progress of all technicians, most completed checklists first, optionally
+     * limited to a site and/or project.
+     * Requires READ permission on the USERS_PREVENTIVE module.
+     */
+    @GetMapping("/progress/leaderboard")
+    public ResponseEntity<TechnicianLeaderboardDTO> getLeaderboard(
+            @RequestParam(required = false) Long siteId,
+            @RequestParam(required = false) Long projectId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestHeader(value = "X-Requesting-Module", required = false) String requestingModule) {
+        try {
+            User currentUser = userService.getCurrentUser();
+
+            Module callingModule = null;
+            if (requestingModule != null) {
+                try {
+                    callingModule = Module.valueOf(requestingModule.toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    throw new AccessDeniedException("Invalid requesting module: " + requestingModule);
+                }
+            }
+
+            boolean hasAccess = roleService.hasPermissionOrIndirectAccess(
+                    currentUser.getRole(),
+                    Module.USERS_PREVENTIVE,
+                    PermissionType.READ,
+                    callingModule
+            );
+
+            if (!hasAccess) {
+                throw new AccessDeniedException("No permission to view user progress.");
+            }
+
+            return ResponseEntity.ok(checklistService.getLeaderboard(siteId, projectId, page, size));
+        } catch (AccessDeniedException ade) {
+            return ResponseEntity.status(403).build();
+        } catch (IllegalArgumentException iae) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(500).build();
+        }
+    }
+
+    /**
+     * Maintenance status of every board of a site, project or pack for an ISO week
+     * (defaults to the current week), with counts per status.
+     * Requires READ permission on the USERS_PREVENTIVE module.
+     */
+    @GetMapping("/status")
+    public ResponseEntity<MaintenanceStatusSummaryDTO> getMaintenanceStatuses(
+            @RequestParam(required = false) Long siteId,
+            @RequestParam(required = false) Long projectId,
+            @RequestParam(required = false) Long packId,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) Integer week) {
+        try {
+            User currentUser = userService.getCurrentUser();
+
+            boolean hasAccess = roleService.roleHasPermission(
+                    currentUser.getRole(),
+                    Module.USERS_PREVENTIVE,
+                    PermissionType.READ
+            );
+
+            if (!hasAccess) {
+                throw new AccessDeniedException("No permission to read maintenance statuses.");
+            }
+
+            return ResponseEntity.ok(
+                    checklistService.getMaintenanceStatuses(siteId, projectId, packId, year, week));
+        } catch (AccessDeniedException ade) {
+            return ResponseEntity.status(403).build();
+        } catch (IllegalArgumentException iae) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(500).build();
+        }
+    }
+
+    /**
+     * Figures of the last nightly board status run (duration, boards processed, rows changed).
+     * Requires READ permission on the USERS_PREVENTIVE module.
+     */
+    @GetMapping("/status-job")
+    public ResponseEntity<BoardStatusJobRunDTO> getBoardStatusJob() {
+        try {
+            User currentUser = userService.getCurrentUser();
+
+            boolean hasAccess = roleService.roleHasPermission(
+                    currentUser.getRole(),
+                    Module.USERS_PREVENTIVE,
+                    PermissionType.READ
+            );
+
+            if (!hasAccess) {
+                throw new AccessDeniedException("No permission to view the board status job.");
+            }
+
+            BoardStatusJobRunDTO lastRun = checklistService.getLastBoardStatusRun();
+            if (lastRun == null) {
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.ok(lastRun);
+        } catch (AccessDeniedException ade) {
+            return ResponseEntity.status(403).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(500).build();
+        }
+    }
+
+    /**
+     * Run the board status job now.
+     * Requires UPDATE permission on the USERS_PREVENTIVE module.
+     */
+    @PostMapping("/status-job/run")
+    public ResponseEntity<BoardStatusJobRunDTO> runBoardStatusJob() {
+        try {
+            User currentUser = userService.getCurrentUser();
+
+            boolean hasAccess = roleService.roleHasPermission(
+                    currentUser.getRole(),
+                    Module.USERS_PREVENTIVE,
+                    PermissionType.UPDATE
+            );
+
+            if (!hasAccess) {
+                throw new AccessDeniedException("No permission to run the board status job.");
+            }
+
+            return ResponseEntity.ok(checklistService.runBoardStatusJob());
+        } catch (AccessDeniedException ade) {
+            return ResponseEntity.status(403).build();
+        } catch (IllegalStateException ise) {
+            // Already running
+            return ResponseEntity.status(409).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(500).build();
+        }
+    }
+}
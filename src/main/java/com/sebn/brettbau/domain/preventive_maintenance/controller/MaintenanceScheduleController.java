@@ -2,6 +2,7 @@
 
 package com.sebn.brettbau.domain.preventive_maintenance.controller;
 
+import com.sebn.brettbau.domain.preventive_maintenance.dto.MaintenanceDueDTO;
 import com.sebn.brettbau.domain.preventive_maintenance.dto.MaintenanceScheduleDTO;
 import com.sebn.brettbau.domain.preventive_maintenance.service.MaintenanceScheduleService;
 import com.sebn.brettbau.domain.role.service.RoleService;
@@ -104,6 +105,54 @@ public class MaintenanceScheduleController {
         }
     }
 
+    /**
+     * Packs scheduled for maintenance in the current week and the following ones.
+     * Requires READ permission on the MAINTENANCE_SCHEDULE module.
+     *
+     * @param weeks            Number of weeks to look at, the current one included (1-104).
+     * @param requestingModule Optional header indicating the requesting module.
+     * @return ResponseEntity containing the due packs, soonest first.
+     */
+    @GetMapping("/due")
+    public ResponseEntity<List<MaintenanceDueDTO>> getDue(
+            @RequestParam(defaultValue = "4") int weeks,
+            @RequestHeader(value = "X-Requesting-Module", required = false) String requestingModule) {
+        try {
+            User currentUser = userService.getCurrentUser();
+
+            // Validate requestingModule if provided
+            Module callingModule = null;
+            if (requestingModule != null) {
+                try {
+                    callingModule = Module.valueOf(requestingModule.toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    throw new AccessDeniedException("Invalid requesting module: " + requestingModule);
+                }
+            }
+
+            boolean hasAccess = roleService.hasPermissionOrIndirectAccess(
+                    currentUser.getRole(),
+                    Module.MAINTENANCE_SCHEDULE,
+                    PermissionType.READ,
+                    callingModule
+            );
+
+            if (!hasAccess) {
+                throw new AccessDeniedException("No permission to read maintenance schedules.");
+            }
+
+            return ResponseEntity.ok(scheduleService.getDue(weeks));
+
+        } catch (AccessDeniedException ade) {
+            return ResponseEntity.status(403).body(null);
+        } catch (IllegalArgumentException iae) {
+            return ResponseEntity.badRequest().body(null);
+        } catch (Exception e) {
+            // Log the error and return a generic error response
+            return ResponseEntity.status(500).body(null);
+        }
+    }
+
     /**
      * Assign a pack to a week.
      * Requires CREATE permission on the MAINTENANCE_SCHEDULE module.
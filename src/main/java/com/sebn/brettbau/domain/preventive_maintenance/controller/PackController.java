@@ -3,6 +3,8 @@ package com.sebn.brettbau.domain.preventive_maintenance.controller;
 
 import com.sebn.brettbau.domain.preventive_maintenance.dto.PackDTO;
 import com.sebn.brettbau.domain.preventive_maintenance.service.PackService;
+import com.sebn.brettbau.domain.preventive_maintenance.service.ReferenceDataVersions;
+import com.sebn.brettbau.domain.preventive_maintenance.service.ReferenceDataVersions.Aggregate;
 import com.sebn.brettbau.domain.role.service.RoleService;
 import com.sebn.brettbau.domain.security.Module;
 import com.sebn.brettbau.domain.security.PermissionType;
@@ -10,6 +12,7 @@ import com.sebn.brettbau.domain.user.entity.User;
 import com.sebn.brettbau.domain.user.service.UserService;
 import com.sebn.brettbau.exception.ResourceNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.*;
@@ -34,17 +37,21 @@ public class PackController {
     private final PackService packService;
     private final RoleService roleService;
     private final UserService userService;
+    private final ReferenceDataVersions referenceDataVersions;
 
     @Autowired
-    public PackController(PackService packService, RoleService roleService, UserService userService) {
+    public PackController(PackService packService, RoleService roleService, UserService userService,
+                          ReferenceDataVersions referenceDataVersions) {
         this.packService = packService;
         this.roleService = roleService;
         this.userService = userService;
+        this.referenceDataVersions = referenceDataVersions;
     }
 
     @GetMapping
     public ResponseEntity<List<PackDTO>> getAllPacks(
-            @RequestHeader(value = "X-Requesting-Module", required = false) String requestingModule) {
+            @RequestHeader(value = "X-Requesting-Module", required = false) String requestingModule,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         try {
             User currentUser = userService.getCurrentUser();
 
@@ -78,8 +85,13 @@ public class PackController {
                 throw new AccessDeniedException("No permission to read pack.");
             }
 
+            String etag = referenceDataVersions.etag(Aggregate.PACKS);
+            if (referenceDataVersions.notModified(ifNoneMatch, etag, Aggregate.PACKS)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+
             List<PackDTO> packs = packService.getAllPacks();
-            return ResponseEntity.ok(packs);
+            return ResponseEntity.ok().eTag(etag).body(packs);
         } catch (AccessDeniedException ade) {
             return ResponseEntity.status(403).body(null);
         } catch (Exception e) {
@@ -2,12 +2,15 @@ package com.sebn.brettbau.domain.preventive_maintenance.controller;
 
 import com.sebn.brettbau.domain.preventive_maintenance.dto.ProjectDTO;
 import com.sebn.brettbau.domain.preventive_maintenance.service.ProjectService;
+import com.sebn.brettbau.domain.preventive_maintenance.service.ReferenceDataVersions;
+import com.sebn.brettbau.domain.preventive_maintenance.service.ReferenceDataVersions.Aggregate;
 import com.sebn.brettbau.domain.role.service.RoleService;
 import com.sebn.brettbau.domain.security.Module;
 import com.sebn.brettbau.domain.security.PermissionType;
 import com.sebn.brettbau.domain.user.entity.User;
 import com.sebn.brettbau.domain.user.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.*;
@@ -31,22 +34,30 @@ public class ProjectController {
     private final ProjectService projectService;
     private final RoleService roleService;
     private final UserService userService;
+    private final ReferenceDataVersions referenceDataVersions;
 
     @Autowired
-    public ProjectController(ProjectService projectService, RoleService roleService, UserService userService) {
+    public ProjectController(ProjectService projectService, RoleService roleService, UserService userService,
+                             ReferenceDataVersions referenceDataVersions) {
         this.projectService = projectService;
         this.roleService = roleService;
         this.userService = userService;
+        this.referenceDataVersions = referenceDataVersions;
     }
 
     @GetMapping
     public ResponseEntity<List<ProjectDTO>> getAllProjects(
-        @RequestHeader(value = "X-Requesting-Module", required = false) String requestingModule
+        @RequestHeader(value = "X-Requesting-Module", required = false) String requestingModule,
+        @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch
     ) {
         try {
             verifyPermission(PermissionType.READ, requestingModule, Module.PROJECT);
+            String etag = referenceDataVersions.etag(Aggregate.PROJECTS);
+            if (referenceDataVersions.notModified(ifNoneMatch, etag, Aggregate.PROJECTS)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
             List<ProjectDTO> projects = projectService.getAllProjects();
-            return ResponseEntity.ok(projects);
+            return ResponseEntity.ok().eTag(etag).body(projects);
         } catch (AccessDeniedException ade) {
             return ResponseEntity.status(403).body(null);
         } catch (Exception e) {
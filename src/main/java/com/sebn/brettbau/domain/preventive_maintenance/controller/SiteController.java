@@ -3,6 +3,8 @@
 package com.sebn.brettbau.domain.preventive_maintenance.controller;
 
 import com.sebn.brettbau.domain.preventive_maintenance.dto.SiteDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.service.ReferenceDataVersions;
+import com.sebn.brettbau.domain.preventive_maintenance.service.ReferenceDataVersions.Aggregate;
 import com.sebn.brettbau.domain.preventive_maintenance.service.SiteService;
 import com.sebn.brettbau.domain.role.service.RoleService;
 import com.sebn.brettbau.domain.security.Module;
@@ -10,6 +12,7 @@ import com.sebn.brettbau.domain.security.PermissionType;
 import com.sebn.brettbau.domain.user.entity.User;
 import com.sebn.brettbau.domain.user.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.*;
@@ -33,12 +36,15 @@ public class SiteController {
     private final SiteService siteService;
     private final RoleService roleService;
     private final UserService userService;
+    private final ReferenceDataVersions referenceDataVersions;
 
     @Autowired
-    public SiteController(SiteService siteService, RoleService roleService, UserService userService) {
+    public SiteController(SiteService siteService, RoleService roleService, UserService userService,
+                          ReferenceDataVersions referenceDataVersions) {
         this.siteService = siteService;
         this.roleService = roleService;
         this.userService = userService;
+        this.referenceDataVersions = referenceDataVersions;
     }
 
     /**
@@ -46,11 +52,13 @@ public class SiteController {
      * Requires READ permission on the SITE module or indirect access through another permitted module.
      *
      * @param requestingModule Optional header indicating the requesting module.
+     * @param ifNoneMatch      Optional ETag of the client's copy; 304 if no site changed.
      * @return ResponseEntity containing the list of SiteDTOs.
      */
     @GetMapping
     public ResponseEntity<List<SiteDTO>> getAllSites(
-            @RequestHeader(value = "X-Requesting-Module", required = false) String requestingModule) {
+            @RequestHeader(value = "X-Requesting-Module", required = false) String requestingModule,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         try {
             User currentUser = userService.getCurrentUser();
 
@@ -93,8 +101,13 @@ public class SiteController {
                 }
             }
 
+            String etag = referenceDataVersions.etag(Aggregate.SITES);
+            if (referenceDataVersions.notModified(ifNoneMatch, etag, Aggregate.SITES)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+
             List<SiteDTO> sites = siteService.getAllSites();
-            return ResponseEntity.ok(sites);
+            return ResponseEntity.ok().eTag(etag).body(sites);
 
         } catch (AccessDeniedException ade) {
             return ResponseEntity.status(403).body(null);
@@ -0,0 +1,14 @@
+package com.sebn.brettbau.domain.preventive_maintenance.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BoardFacetValueDTO {
+    private String value;
+    private long count;
+    private boolean selected;
+}
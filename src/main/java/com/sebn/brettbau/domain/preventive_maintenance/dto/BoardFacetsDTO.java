@@ -0,0 +1,21 @@
+package com.sebn.brettbau.domain.preventive_maintenance.dto;
+
+import lombok.*;
+import java.util.List;
+
+/**
+ * Filter panel values with counts. Each facet is counted with all applied
+ * filters except its own, so other values of the same facet stay selectable.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BoardFacetsDTO {
+    // Boards matching all applied filters
+    private long total;
+    private List<BoardFacetValueDTO> projets;
+    private List<BoardFacetValueDTO> plants;
+    private List<BoardFacetValueDTO> fbTypes1;
+}
@@ -0,0 +1,19 @@
+package com.sebn.brettbau.domain.preventive_maintenance.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BoardImportResultDTO {
+    private int total;
+    private int created;
+    private int failed;
+    private long durationMs;
+    // File columns that do not match a board field and were skipped
+    private List<String> ignoredColumns;
+    private List<BoardImportRowResultDTO> rows;
+}
@@ -0,0 +1,23 @@
+package com.sebn.brettbau.domain.preventive_maintenance.dto;
+
+import lombok.*;
+
+/**
+ * Outcome of one imported row. Row numbers are file lines (the header is row 1)
+ * or, for JSON input, 1-based list positions.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BoardImportRowResultDTO {
+    public static final String CREATED = "CREATED";
+    public static final String FAILED = "FAILED";
+
+    private int rowNumber;
+    private String boardNumber;
+    private String status;
+    private Long boardId;
+    private String message;
+}
@@ -0,0 +1,22 @@
+package com.sebn.brettbau.domain.preventive_maintenance.dto;
+
+import lombok.*;
+import java.util.List;
+
+/**
+ * One page of boards. Pass {@code nextCursor} back as {@code cursor} to get
+ * the following page; it is null on the last page.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BoardPageDTO {
+    private List<BoardDTO> content;
+    private String sort;
+    private String direction;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
@@ -0,0 +1,18 @@
+package com.sebn.brettbau.domain.preventive_maintenance.dto;
+
+import lombok.*;
+
+/**
+ * One type-ahead search result; lower rank is a better match.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BoardSearchHitDTO {
+    private Long id;
+    private String boardNumber;
+    private String fbName;
+    private int rank;
+}
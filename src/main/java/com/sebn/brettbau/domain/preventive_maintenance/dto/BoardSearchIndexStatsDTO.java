@@ -0,0 +1,23 @@
+package com.sebn.brettbau.domain.preventive_maintenance.dto;
+
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Size and timing figures of the in-memory board search index.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BoardSearchIndexStatsDTO {
+    private int boards;
+    private int trigrams;
+    private long postings;
+    private long estimatedBytes;
+    private long lastRebuildMillis;
+    private LocalDateTime lastRebuildAt;
+    private long searches;
+    private double averageSearchMicros;
+}
@@ -0,0 +1,27 @@
+package com.sebn.brettbau.domain.preventive_maintenance.dto;
+
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Figures of one run of the nightly board status job.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BoardStatusJobRunDTO {
+    private LocalDateTime startedAt;
+    private long durationMs;
+    // Boards whose latest checklist expired (candidates for PENDING)
+    private int boardsProcessed;
+    private int setPending;
+    private int setDanger;
+    private int rowsChanged;
+    private int chunks;
+    private boolean success;
+    private String error;
+    // Runs since the application started
+    private long runs;
+}
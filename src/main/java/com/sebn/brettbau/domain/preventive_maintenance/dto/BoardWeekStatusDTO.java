@@ -0,0 +1,22 @@
+package com.sebn.brettbau.domain.preventive_maintenance.dto;
+
+import com.sebn.brettbau.domain.preventive_maintenance.enums.BoardMaintenanceStatus;
+import lombok.*;
+
+/**
+ * Maintenance status of one board for a given week.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BoardWeekStatusDTO {
+    private Long boardId;
+    private String boardNumber;
+    private Long packId;
+    private BoardMaintenanceStatus status;
+    // Week of the board's latest checklist, null without checklist
+    private Integer checklistWeek;
+    private Boolean qualityValidated;
+}
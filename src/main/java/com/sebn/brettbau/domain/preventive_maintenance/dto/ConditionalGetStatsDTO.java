@@ -0,0 +1,20 @@
+package com.sebn.brettbau.domain.preventive_maintenance.dto;
+
+import lombok.*;
+
+import java.util.Map;
+
+/**
+ * Current reference data versions and how many reads were answered with 304 Not Modified.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConditionalGetStatsDTO {
+    private Map<String, Long> versions;
+    // Per endpoint aggregate (BOARDS, PACKS, ...)
+    private Map<String, Long> notModified;
+    private long totalNotModified;
+}
@@ -0,0 +1,24 @@
+package com.sebn.brettbau.domain.preventive_maintenance.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * A pack scheduled for maintenance in an upcoming week.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MaintenanceDueDTO {
+    private Long packId;
+    private String packName;
+    private Integer year;
+    private Integer weekNumber;
+    // Monday of the scheduled week
+    private LocalDate weekStart;
+    // 0 for the current week
+    private Integer weeksAhead;
+}
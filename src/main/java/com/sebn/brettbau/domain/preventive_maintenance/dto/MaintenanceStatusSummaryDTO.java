@@ -0,0 +1,23 @@
+package com.sebn.brettbau.domain.preventive_maintenance.dto;
+
+import com.sebn.brettbau.domain.preventive_maintenance.enums.BoardMaintenanceStatus;
+import lombok.*;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintenance status of all boards of a site/project/pack for one ISO week.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MaintenanceStatusSummaryDTO {
+    private int year;
+    private int week;
+    private List<Long> packIds;
+    // Number of boards per status; every status is present
+    private Map<BoardMaintenanceStatus, Long> counts;
+    private List<BoardWeekStatusDTO> boards;
+}
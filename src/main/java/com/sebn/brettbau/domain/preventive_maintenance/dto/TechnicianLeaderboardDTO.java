@@ -0,0 +1,23 @@
+package com.sebn.brettbau.domain.preventive_maintenance.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * One page of the technician leaderboard.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TechnicianLeaderboardDTO {
+    // ISO week the counters are relative to
+    private int week;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+    private List<TechnicianProgressDTO> content;
+}
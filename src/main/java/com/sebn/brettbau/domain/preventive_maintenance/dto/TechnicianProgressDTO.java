@@ -0,0 +1,23 @@
+package com.sebn.brettbau.domain.preventive_maintenance.dto;
+
+import lombok.*;
+
+/**
+ * Checklist progress of one technician, as shown on the leaderboard.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TechnicianProgressDTO {
+    private String technicianName;
+    // Null when no user has this username
+    private Long userId;
+    private String fullName;
+    private long total;
+    private long completed;
+    private long advanced;
+    private long retard;
+    private String status; // "Advanced" or "Retard"
+}
@@ -2,12 +2,17 @@ package com.sebn.brettbau.domain.preventive_maintenance.repository;
 
 import com.sebn.brettbau.domain.preventive_maintenance.entity.Board;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface BoardRepository extends JpaRepository<Board, Long> {
+public interface BoardRepository extends JpaRepository<Board, Long>,
+        JpaSpecificationExecutor<Board>, BoardRepositoryCustom {
 
     boolean existsByBoardNumber(String boardNumber);
 
@@ -19,4 +24,26 @@ public interface BoardRepository extends JpaRepository<Board, Long> {
 
     @Query("SELECT DISTINCT b.fbType1 FROM Board b WHERE b.fbType1 IS NOT NULL AND b.fbType1 <> ''")
     List<String> findDistinctFbType1();
+
+    @Modifying
+    @Query("UPDATE Board b SET b.status = 'PENDING' " +
+           "WHERE b.id IN :ids AND (b.status IS NULL OR b.status <> 'PENDING')")
+    int markPending(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT b.pack.id FROM Board b WHERE b.status = 'PENDING' AND b.pack IS NOT NULL")
+    List<Long> findPackIdsWithPendingBoards();
+
+    // Chunked: MySQL applies the LIMIT, call until it returns less than limit
+    @Modifying
+    @Query(value = "UPDATE boards SET status = 'DANGER' " +
+                   "WHERE status = 'PENDING' AND pack_id IN (:packIds) LIMIT :limit", nativeQuery = true)
+    int markPendingAsDanger(@Param("packIds") Collection<Long> packIds, @Param("limit") int limit);
+
+    // id, boardNumber, packId of the boards in the given packs
+    @Query("SELECT b.id, b.boardNumber, b.pack.id FROM Board b WHERE b.pack.id IN :packIds ORDER BY b.id")
+    List<Object[]> findStatusKeysByPackIds(@Param("packIds") Collection<Long> packIds);
+
+    // id, boardNumber, fbName of every board, for the search index
+    @Query("SELECT b.id, b.boardNumber, b.fbName FROM Board b")
+    List<Object[]> findSearchKeys();
 }
@@ -0,0 +1,28 @@
+package com.sebn.brettbau.domain.preventive_maintenance.repository;
+
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.entity.Board;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface BoardRepositoryCustom {
+
+    /**
+     * Boards matching the specification as list DTOs, read in one query.
+     *
+     * Only the board's own columns are selected and the pack and user ids come
+     * from the foreign keys, so no entity, proxy or checklist is loaded. With a
+     * limit, at most that many rows are read and no count query is issued.
+     *
+     * @param limit maximum number of rows, or null for all
+     */
+    List<BoardDTO> findBoardRows(Specification<Board> spec, Sort sort, Integer limit);
+
+    /**
+     * Number of matching boards per (projet, plant, fbType1) combination.
+     * Each row is {projet, plant, fbType1, count}.
+     */
+    List<Object[]> countByFacets(Specification<Board> spec);
+}
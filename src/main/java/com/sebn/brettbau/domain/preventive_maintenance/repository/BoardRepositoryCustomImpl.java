@@ -0,0 +1,125 @@
+package com.sebn.brettbau.domain.preventive_maintenance.repository;
+
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.entity.Board;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BoardRepositoryCustomImpl implements BoardRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Entity attributes selected for list views, also used as tuple aliases
+    private static final List<String> LIST_ATTRIBUTES = List.of(
+            "id", "boardNumber", "fbId", "fbName", "fbSize", "firstTechLevel", "projet", "plant", "inUse",
+            "testClip", "area", "fbType1", "fbType2", "fbType3", "side", "derivate", "creationReason",
+            "firstYellowReleaseDate", "firstOrangeReleaseDate", "firstGreenReleaseDate", "firstUseByProdDate",
+            "currentTechLevel", "nextTechLevel", "lastTechChangeImplemented", "lastTechChangeImpleDate",
+            "lastTechChangeReleaseDate", "comment1", "comment2", "comment3", "creationDate", "cost", "quantity",
+            "storagePlace", "status");
+
+    @Override
+    public List<BoardDTO> findBoardRows(Specification<Board> spec, Sort sort, Integer limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Board> root = query.from(Board.class);
+
+        List<Selection<?>> selections = new ArrayList<>(LIST_ATTRIBUTES.size() + 2);
+        for (String attribute : LIST_ATTRIBUTES) {
+            selections.add(root.get(attribute).alias(attribute));
+        }
+        // Id of a to-one association is read from the foreign key column, without a join
+        selections.add(root.get("pack").get("id").alias("packId"));
+        selections.add(root.get("assignedUser").get("id").alias("assignedUserId"));
+        query.multiselect(selections);
+
+        Predicate predicate = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (limit != null) {
+            typedQuery.setMaxResults(limit);
+        }
+        List<Tuple> tuples = typedQuery.getResultList();
+        List<BoardDTO> boards = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            boards.add(toDTO(tuple));
+        }
+        return boards;
+    }
+
+    private static BoardDTO toDTO(Tuple t) {
+        return BoardDTO.builder()
+                .id(t.get("id", Long.class))
+                .boardNumber(t.get("boardNumber", String.class))
+                .fbId(t.get("fbId", String.class))
+                .fbName(t.get("fbName", String.class))
+                .fbSize(t.get("fbSize", String.class))
+                .firstTechLevel(t.get("firstTechLevel", String.class))
+                .projet(t.get("projet", String.class))
+                .plant(t.get("plant", String.class))
+                .inUse(t.get("inUse", String.class))
+                .testClip(t.get("testClip", Boolean.class))
+                .area(t.get("area", String.class))
+                .fbType1(t.get("fbType1", String.class))
+                .fbType2(t.get("fbType2", String.class))
+                .fbType3(t.get("fbType3", String.class))
+                .side(t.get("side", String.class))
+                .derivate(t.get("derivate", String.class))
+                .creationReason(t.get("creationReason", String.class))
+                .firstYellowReleaseDate(t.get("firstYellowReleaseDate", LocalDate.class))
+                .firstOrangeReleaseDate(t.get("firstOrangeReleaseDate", LocalDate.class))
+                .firstGreenReleaseDate(t.get("firstGreenReleaseDate", LocalDate.class))
+                .firstUseByProdDate(t.get("firstUseByProdDate", LocalDate.class))
+                .currentTechLevel(t.get("currentTechLevel", String.class))
+                .nextTechLevel(t.get("nextTechLevel", String.class))
+                .lastTechChangeImplemented(t.get("lastTechChangeImplemented", String.class))
+                .lastTechChangeImpleDate(t.get("lastTechChangeImpleDate", LocalDate.class))
+                .lastTechChangeReleaseDate(t.get("lastTechChangeReleaseDate", LocalDate.class))
+                .comment1(t.get("comment1", String.class))
+                .comment2(t.get("comment2", String.class))
+                .comment3(t.get("comment3", String.class))
+                .creationDate(t.get("creationDate", LocalDate.class))
+                .cost(t.get("cost", Double.class))
+                .quantity(t.get("quantity", Integer.class))
+                .storagePlace(t.get("storagePlace", String.class))
+                .status(t.get("status", String.class))
+                .packId(t.get("packId", Long.class))
+                .assignedUserId(t.get("assignedUserId", Long.class))
+                .build();
+    }
+
+    @Override
+    public List<Object[]> countByFacets(Specification<Board> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Board> root = query.from(Board.class);
+
+        query.multiselect(root.get("projet"), root.get("plant"), root.get("fbType1"), cb.count(root));
+        Predicate predicate = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.groupBy(root.get("projet"), root.get("plant"), root.get("fbType1"));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+}
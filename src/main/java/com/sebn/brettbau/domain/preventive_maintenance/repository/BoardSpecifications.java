@@ -0,0 +1,76 @@
+package com.sebn.brettbau.domain.preventive_maintenance.repository;
+
+import com.sebn.brettbau.domain.preventive_maintenance.entity.Board;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+
+/**
+ * Reusable query conditions for boards, so filtering happens in SQL.
+ */
+public final class BoardSpecifications {
+
+    private BoardSpecifications() {
+    }
+
+    /**
+     * All filters of the board list; blank parameters are ignored.
+     */
+    public static Specification<Board> filtered(String search, String projet, String plant, String fbType1) {
+        return Specification.where(search(search))
+                .and(attributeEquals("projet", projet))
+                .and(attributeEquals("plant", plant))
+                .and(attributeEquals("fbType1", fbType1));
+    }
+
+    /**
+     * Board number or FB name contains the term. The default MySQL collation
+     * compares case-insensitively.
+     */
+    public static Specification<Board> search(String term) {
+        if (term == null || term.trim().isEmpty()) {
+            return null;
+        }
+        String pattern = "%" + escapeLike(term.trim()) + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(root.get("boardNumber"), pattern, '\\'),
+                cb.like(root.get("fbName"), pattern, '\\'));
+    }
+
+    public static Specification<Board> attributeEquals(String attribute, String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get(attribute), value);
+    }
+
+    /**
+     * Rows after (value, id) in the order "attribute, id" ascending or descending.
+     *
+     * MySQL sorts NULL first ascending and last descending, so null values are
+     * handled explicitly to keep the keyset consistent with ORDER BY.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Board> after(String attribute, Comparable value, Long id, boolean descending) {
+        return (root, query, cb) -> {
+            Path<Long> idPath = root.get("id");
+            Predicate idAfter = descending ? cb.lessThan(idPath, id) : cb.greaterThan(idPath, id);
+            if ("id".equals(attribute)) {
+                return idAfter;
+            }
+            Path<Comparable> path = root.get(attribute);
+            if (value == null) {
+                Predicate sameNull = cb.and(cb.isNull(path), idAfter);
+                return descending ? sameNull : cb.or(sameNull, cb.isNotNull(path));
+            }
+            Predicate beyond = descending ? cb.lessThan(path, value) : cb.greaterThan(path, value);
+            Predicate tie = cb.and(cb.equal(path, value), idAfter);
+            return descending ? cb.or(beyond, tie, cb.isNull(path)) : cb.or(beyond, tie);
+        };
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
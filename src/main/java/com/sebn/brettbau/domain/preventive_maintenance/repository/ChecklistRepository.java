@@ -2,9 +2,15 @@ package com.sebn.brettbau.domain.preventive_maintenance.repository;
 
 import com.sebn.brettbau.domain.preventive_maintenance.entity.Checklist;
 import com.sebn.brettbau.domain.preventive_maintenance.entity.Board;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,5 +23,72 @@ public interface ChecklistRepository extends JpaRepository<Checklist, Long> {
     Optional<Checklist> findTopByBoardOrderByCreatedAtDesc(Board board);
     
     List<Checklist> findByTechnicianName(String technicianName);
-}
 
+    /**
+     * Progress counters of one technician relative to the given week, as a
+     * single row {total, completed, advanced, retard}.
+     */
+    @Query("SELECT COUNT(c), " +
+            "SUM(CASE WHEN c.qualityValidated = true AND c.weekNumber <= :week THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN c.qualityValidated = true AND c.weekNumber > :week THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN c.qualityValidated = false AND c.weekNumber < :week THEN 1 ELSE 0 END) " +
+            "FROM Checklist c WHERE c.technicianName = :technicianName")
+    List<Object[]> aggregateProgress(@Param("technicianName") String technicianName, @Param("week") int week);
+
+    /**
+     * Progress counters of every technician relative to the given week, as rows
+     * {technicianName, userId, fullName, total, completed, advanced, retard},
+     * most completed first. Site and project filter on the board's pack.
+     */
+    @Query(value = "SELECT c.technicianName, MIN(u.id), MIN(u.fullName), COUNT(c), " +
+            "SUM(CASE WHEN c.qualityValidated = true AND c.weekNumber <= :week THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN c.qualityValidated = true AND c.weekNumber > :week THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN c.qualityValidated = false AND c.weekNumber < :week THEN 1 ELSE 0 END) " +
+            "FROM Checklist c LEFT JOIN c.board b LEFT JOIN b.pack p " +
+            "LEFT JOIN User u ON u.username = c.technicianName " +
+            "WHERE c.technicianName IS NOT NULL " +
+            "AND (:siteId IS NULL OR p.site.id = :siteId) " +
+            "AND (:projectId IS NULL OR p.project.id = :projectId) " +
+            "GROUP BY c.technicianName " +
+            "ORDER BY SUM(CASE WHEN c.qualityValidated = true AND c.weekNumber <= :week THEN 1 ELSE 0 END) DESC, " +
+            "SUM(CASE WHEN c.qualityValidated = true AND c.weekNumber > :week THEN 1 ELSE 0 END) DESC, " +
+            "c.technicianName ASC",
+            countQuery = "SELECT COUNT(DISTINCT c.technicianName) FROM Checklist c " +
+                    "LEFT JOIN c.board b LEFT JOIN b.pack p " +
+                    "WHERE c.technicianName IS NOT NULL " +
+                    "AND (:siteId IS NULL OR p.site.id = :siteId) " +
+                    "AND (:projectId IS NULL OR p.project.id = :projectId)")
+    Page<Object[]> findTechnicianProgress(@Param("week") int week,
+                                          @Param("siteId") Long siteId,
+                                          @Param("projectId") Long projectId,
+                                          Pageable pageable);
+
+    /**
+     * Boards not yet PENDING whose latest validated checklist has expired.
+     * Uses idx_checklists_board_validation for the per-board maximum. Native
+     * BIGINT results come back as BigInteger, hence Number.
+     */
+    @Query(value = "SELECT DISTINCT c.board_id FROM checklists c " +
+            "JOIN (SELECT board_id, MAX(validation_date) AS latest FROM checklists " +
+            "      WHERE validation_date IS NOT NULL GROUP BY board_id) l " +
+            "  ON l.board_id = c.board_id AND c.validation_date = l.latest " +
+            "JOIN boards b ON b.id = c.board_id " +
+            "WHERE c.expiry_date IS NOT NULL AND c.expiry_date < :now " +
+            "AND (b.status IS NULL OR b.status <> 'PENDING')",
+            nativeQuery = true)
+    List<Number> findBoardIdsWithExpiredLatestChecklist(@Param("now") LocalDateTime now);
+
+    /**
+     * Latest checklist (by created_at) of every board in the given packs, as
+     * {board_id, week_number, quality_validated}. On equal created_at the
+     * highest id comes first.
+     */
+    @Query(value = "SELECT c.board_id, c.week_number, c.quality_validated FROM checklists c " +
+            "JOIN (SELECT c2.board_id, MAX(c2.created_at) AS latest FROM checklists c2 " +
+            "      JOIN boards b2 ON b2.id = c2.board_id " +
+            "      WHERE b2.pack_id IN (:packIds) GROUP BY c2.board_id) l " +
+            "  ON l.board_id = c.board_id AND c.created_at = l.latest " +
+            "ORDER BY c.board_id, c.id DESC",
+            nativeQuery = true)
+    List<Object[]> findLatestByPackIds(@Param("packIds") Collection<Long> packIds);
+}
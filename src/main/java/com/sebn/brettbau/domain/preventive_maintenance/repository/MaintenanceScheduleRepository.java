@@ -3,6 +3,7 @@ package com.sebn.brettbau.domain.preventive_maintenance.repository;
 
 import com.sebn.brettbau.domain.preventive_maintenance.entity.MaintenanceSchedule;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -23,4 +24,8 @@ public interface MaintenanceScheduleRepository extends JpaRepository<Maintenance
             Integer year, 
             Integer weekNumber
     );
+
+    // packId, year, weekNumber of every schedule, for the maintenance calendar
+    @Query("SELECT s.packId, s.year, s.weekNumber FROM MaintenanceSchedule s")
+    List<Object[]> findCalendarSlots();
 }
@@ -0,0 +1,168 @@
+package com.sebn.brettbau.domain.preventive_maintenance.service;
+
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardFacetValueDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardFacetsDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.repository.BoardRepository;
+import com.sebn.brettbau.domain.preventive_maintenance.repository.BoardSpecifications;
+import com.sebn.brettbau.util.TransactionHooks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Facet counts for the board filter panel.
+ *
+ * One GROUP BY projet, plant, fbType1 query gives the number of boards per
+ * combination; that list is small (combinations, not boards) and is kept in
+ * memory until a board is written or the TTL expires. All facets are then
+ * counted from it in one pass. A search term cannot be answered from the
+ * combinations, so with a search the grouped query runs with the search
+ * condition and is not cached.
+ */
+@Component
+public class BoardFacetCache {
+
+    private final BoardRepository boardRepository;
+
+    @Value("${board.facets.cache-ttl-ms:300000}")
+    private long ttlMs;
+
+    private volatile Snapshot snapshot;
+    // Bumped on every invalidation, so a load that raced with a write is not kept
+    private final AtomicLong generation = new AtomicLong();
+
+    public BoardFacetCache(BoardRepository boardRepository) {
+        this.boardRepository = boardRepository;
+    }
+
+    public BoardFacetsDTO getFacets(String search, String projet, String plant, String fbType1) {
+        List<Combination> combinations = (search == null || search.trim().isEmpty())
+                ? cachedCombinations()
+                : load(search);
+
+        String selectedProjet = blankToNull(projet);
+        String selectedPlant = blankToNull(plant);
+        String selectedFbType1 = blankToNull(fbType1);
+
+        Map<String, Long> projets = new HashMap<>();
+        Map<String, Long> plants = new HashMap<>();
+        Map<String, Long> fbTypes1 = new HashMap<>();
+        long total = 0;
+        for (Combination c : combinations) {
+            boolean projetMatches = selectedProjet == null || selectedProjet.equals(c.projet);
+            boolean plantMatches = selectedPlant == null || selectedPlant.equals(c.plant);
+            boolean fbType1Matches = selectedFbType1 == null || selectedFbType1.equals(c.fbType1);
+
+            // Each facet ignores its own selection
+            if (plantMatches && fbType1Matches) {
+                add(projets, c.projet, c.count);
+            }
+            if (projetMatches && fbType1Matches) {
+                add(plants, c.plant, c.count);
+            }
+            if (projetMatches && plantMatches) {
+                add(fbTypes1, c.fbType1, c.count);
+            }
+            if (projetMatches && plantMatches && fbType1Matches) {
+                total += c.count;
+            }
+        }
+
+        return BoardFacetsDTO.builder()
+                .total(total)
+                .projets(values(projets, selectedProjet))
+                .plants(values(plants, selectedPlant))
+                .fbTypes1(values(fbTypes1, selectedFbType1))
+                .build();
+    }
+
+    /**
+     * Drop the cached combinations once the current transaction commits.
+     */
+    public void invalidate() {
+        TransactionHooks.afterCommit(this::clear);
+    }
+
+    private synchronized void clear() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private List<Combination> cachedCombinations() {
+        Snapshot current = snapshot;
+        if (current != null && System.currentTimeMillis() - current.loadedAt < ttlMs) {
+            return current.combinations;
+        }
+        long loadedAt = System.currentTimeMillis();
+        long loadedGeneration = generation.get();
+        List<Combination> combinations = load(null);
+        // Keep it unless a write invalidated the cache while we were loading
+        synchronized (this) {
+            if (generation.get() == loadedGeneration) {
+                snapshot = new Snapshot(combinations, loadedAt);
+            }
+        }
+        return combinations;
+    }
+
+    private List<Combination> load(String search) {
+        List<Object[]> rows = boardRepository.countByFacets(BoardSpecifications.search(search));
+        List<Combination> combinations = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            combinations.add(new Combination((String) row[0], (String) row[1], (String) row[2], (Long) row[3]));
+        }
+        return combinations;
+    }
+
+    private static void add(Map<String, Long> counts, String value, long count) {
+        // Same rule as the distinct-value endpoints: no null or empty values
+        if (value != null && !value.isEmpty()) {
+            counts.merge(value, count, Long::sum);
+        }
+    }
+
+    private static List<BoardFacetValueDTO> values(Map<String, Long> counts, String selected) {
+        List<BoardFacetValueDTO> values = new ArrayList<>(counts.size() + 1);
+        counts.forEach((value, count) -> values.add(new BoardFacetValueDTO(value, count, value.equals(selected))));
+        // A selected value without matches still shows up, with count 0
+        if (selected != null && !counts.containsKey(selected)) {
+            values.add(new BoardFacetValueDTO(selected, 0, true));
+        }
+        values.sort((a, b) -> a.getValue().compareToIgnoreCase(b.getValue()));
+        return values;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static class Combination {
+        final String projet;
+        final String plant;
+        final String fbType1;
+        final long count;
+
+        Combination(String projet, String plant, String fbType1, Long count) {
+            this.projet = projet;
+            this.plant = plant;
+            this.fbType1 = fbType1;
+            this.count = Objects.requireNonNullElse(count, 0L);
+        }
+    }
+
+    private static class Snapshot {
+        final List<Combination> combinations;
+        final long loadedAt;
+
+        Snapshot(List<Combination> combinations, long loadedAt) {
+            this.combinations = combinations;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
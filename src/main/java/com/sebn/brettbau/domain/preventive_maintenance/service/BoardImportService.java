@@ -0,0 +1,515 @@
+package com.sebn.brettbau.domain.preventive_maintenance.service;
+
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardImportResultDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardImportRowResultDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.entity.Pack;
+import com.sebn.brettbau.domain.preventive_maintenance.repository.PackRepository;
+import com.sebn.brettbau.domain.user.entity.User;
+import com.sebn.brettbau.domain.user.repository.UserRepository;
+import com.sebn.brettbau.util.XlsxRowReader;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Bulk board import from CSV/XLSX files or JSON rows.
+ *
+ * Rows are processed in batches: the packs and users referenced by a batch
+ * are checked with one IN query each, invalid rows are reported and skipped,
+ * and the rest are inserted with a single JDBC batch. If the database rejects
+ * a batch, its rows are retried one by one so only the offending rows fail.
+ * Every row gets a result (created with its id, or failed with the reason).
+ */
+@Service
+public class BoardImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoardImportService.class);
+
+    private static final int IMPORT_BATCH_SIZE = 500;
+
+    private static final String INSERT_BOARD_SQL =
+            "INSERT INTO boards (board_number, fb_id, fb_name, fb_size, first_tech_level, projet, plant, in_use, " +
+            "test_clip, area, fb_type1, fb_type2, fb_type3, side, derivate, creation_reason, " +
+            "first_yellow_release_date, first_orange_release_date, first_green_release_date, first_use_by_prod_date, " +
+            "current_tech_level, next_tech_level, last_tech_change_implemented, last_tech_change_imple_date, " +
+            "last_tech_change_release_date, comment_1, comment_2, comment_3, creation_date, cost, quantity, " +
+            "storage_place, status, assigned_user_id, pack_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Dates as found in exports: ISO, German, and Excel's default display format
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("d.M.yyyy"),
+            DateTimeFormatter.ofPattern("d/M/yyyy"),
+            DateTimeFormatter.ofPattern("M/d/yy"));
+
+    // Normalized column header -> setter; see normalize()
+    private static final Map<String, BiConsumer<BoardDTO, String>> FIELDS = fields();
+
+    private final PackRepository packRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BoardSearchIndex searchIndex;
+    private final BoardFacetCache facetCache;
+    private final MaintenanceStatusService maintenanceStatusService;
+    private final ReferenceDataVersions referenceDataVersions;
+
+    public BoardImportService(PackRepository packRepository,
+                              UserRepository userRepository,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              BoardSearchIndex searchIndex,
+                              BoardFacetCache facetCache,
+                              MaintenanceStatusService maintenanceStatusService,
+                              ReferenceDataVersions referenceDataVersions) {
+        this.packRepository = packRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.searchIndex = searchIndex;
+        this.facetCache = facetCache;
+        this.maintenanceStatusService = maintenanceStatusService;
+        this.referenceDataVersions = referenceDataVersions;
+    }
+
+    /**
+     * Import boards from a CSV or XLSX file whose first row names the board fields
+     * (e.g. "boardNumber", "Board Number" or "board_number").
+     */
+    public BoardImportResultDTO importFile(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : "";
+        String extension = fileName.contains(".")
+                ? fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT)
+                : "";
+        if (!"csv".equals(extension) && !"xlsx".equals(extension)) {
+            throw new IllegalArgumentException("Unsupported file type, expected .csv or .xlsx");
+        }
+
+        long started = System.currentTimeMillis();
+        Path copy = null;
+        try {
+            // Parsed from disk so large uploads are never held in memory as a whole
+            copy = Files.createTempFile("board-import-", "." + extension);
+            file.transferTo(copy);
+
+            Pipeline pipeline = new Pipeline();
+            FileRows rows = new FileRows(pipeline);
+            if ("csv".equals(extension)) {
+                try (BufferedReader reader = Files.newBufferedReader(copy, StandardCharsets.UTF_8)) {
+                    for (CSVRecord record : CSVFormat.DEFAULT.parse(reader)) {
+                        List<String> values = new ArrayList<>(record.size());
+                        record.forEach(values::add);
+                        rows.accept((int) record.getRecordNumber(), values);
+                    }
+                }
+            } else {
+                int[] rowNumber = {0};
+                XlsxRowReader.read(copy.toFile(), values -> rows.accept(++rowNumber[0], values));
+            }
+            BoardImportResultDTO result = pipeline.finish(started);
+            result.setIgnoredColumns(rows.ignoredColumns);
+            logger.info("Imported {}: {} boards created, {} rows failed in {} ms",
+                    fileName, result.getCreated(), result.getFailed(), result.getDurationMs());
+            return result;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read " + fileName + ": " + e.getMessage(), e);
+        } finally {
+            if (copy != null) {
+                try {
+                    Files.deleteIfExists(copy);
+                } catch (IOException e) {
+                    logger.warn("Could not delete temp file {}", copy);
+                }
+            }
+        }
+    }
+
+    /**
+     * Import boards given as DTOs; row numbers in the result are 1-based list positions.
+     */
+    public BoardImportResultDTO importBoards(List<BoardDTO> boards) {
+        long started = System.currentTimeMillis();
+        Pipeline pipeline = new Pipeline();
+        int rowNumber = 1;
+        for (BoardDTO board : boards) {
+            pipeline.add(rowNumber++, board);
+        }
+        BoardImportResultDTO result = pipeline.finish(started);
+        result.setIgnoredColumns(Collections.emptyList());
+        return result;
+    }
+
+    // ----------------------------------------------------------------------
+
+    // Turns file rows into DTOs; the first row is the header.
+    private static class FileRows {
+        final Pipeline pipeline;
+        final List<String> ignoredColumns = new ArrayList<>();
+        List<String> header;
+        List<BiConsumer<BoardDTO, String>> setters;
+
+        FileRows(Pipeline pipeline) {
+            this.pipeline = pipeline;
+        }
+
+        void accept(int rowNumber, List<String> values) {
+            if (values.stream().allMatch(v -> v == null || v.trim().isEmpty())) {
+                return;
+            }
+            // The header is the first row that is not blank
+            if (setters == null) {
+                readHeader(values);
+                return;
+            }
+            BoardDTO board = new BoardDTO();
+            List<String> errors = new ArrayList<>();
+            for (int i = 0; i < values.size() && i < setters.size(); i++) {
+                BiConsumer<BoardDTO, String> setter = setters.get(i);
+                String value = values.get(i) != null ? values.get(i).trim() : "";
+                if (setter == null || value.isEmpty()) {
+                    continue;
+                }
+                try {
+                    setter.accept(board, value);
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    errors.add(header.get(i) + ": invalid value '" + value + "'");
+                }
+            }
+            if (errors.isEmpty()) {
+                pipeline.add(rowNumber, board);
+            } else {
+                pipeline.fail(rowNumber, board.getBoardNumber(), String.join("; ", errors));
+            }
+        }
+
+        private void readHeader(List<String> values) {
+            header = new ArrayList<>(values.size());
+            setters = new ArrayList<>(values.size());
+            for (int i = 0; i < values.size(); i++) {
+                String name = values.get(i) != null ? values.get(i).trim() : "";
+                // Excel starts UTF-8 CSV files with a byte order mark
+                if (i == 0 && name.startsWith("\uFEFF")) {
+                    name = name.substring(1);
+                }
+                BiConsumer<BoardDTO, String> setter = FIELDS.get(normalize(name));
+                if (setter == null && !name.isEmpty()) {
+                    ignoredColumns.add(name);
+                }
+                header.add(name);
+                setters.add(setter);
+            }
+            if (!setters.contains(FIELDS.get("boardnumber"))) {
+                throw new IllegalArgumentException("The first non-empty row must be a header with a boardNumber column");
+            }
+        }
+    }
+
+    private class Pipeline {
+        final List<BoardImportRowResultDTO> results = new ArrayList<>();
+        final List<PendingRow> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        // Ids already looked up, so each pack/user is queried at most once per import
+        final Set<Long> existingPacks = new HashSet<>();
+        final Set<Long> missingPacks = new HashSet<>();
+        final Set<Long> existingUsers = new HashSet<>();
+        final Set<Long> missingUsers = new HashSet<>();
+
+        void add(int rowNumber, BoardDTO board) {
+            batch.add(new PendingRow(rowNumber, board));
+            if (batch.size() >= IMPORT_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void fail(int rowNumber, String boardNumber, String message) {
+            results.add(new BoardImportRowResultDTO(
+                    rowNumber, boardNumber, BoardImportRowResultDTO.FAILED, null, message));
+        }
+
+        BoardImportResultDTO finish(long started) {
+            flush();
+            facetCache.invalidate();
+            maintenanceStatusService.invalidateAll();
+            referenceDataVersions.bump(ReferenceDataVersions.Aggregate.BOARDS);
+            results.sort(Comparator.comparingInt(BoardImportRowResultDTO::getRowNumber));
+            int created = (int) results.stream()
+                    .filter(r -> BoardImportRowResultDTO.CREATED.equals(r.getStatus()))
+                    .count();
+            return BoardImportResultDTO.builder()
+                    .total(results.size())
+                    .created(created)
+                    .failed(results.size() - created)
+                    .durationMs(System.currentTimeMillis() - started)
+                    .rows(results)
+                    .build();
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            resolveReferences();
+            List<PendingRow> valid = new ArrayList<>(batch.size());
+            for (PendingRow row : batch) {
+                String error = validate(row.board);
+                if (error != null) {
+                    fail(row.rowNumber, row.board.getBoardNumber(), error);
+                } else {
+                    valid.add(row);
+                }
+            }
+            insert(valid);
+            batch.clear();
+        }
+
+        private void resolveReferences() {
+            Set<Long> packIds = new HashSet<>();
+            Set<Long> userIds = new HashSet<>();
+            for (PendingRow row : batch) {
+                Long packId = row.board.getPackId();
+                if (packId != null && !existingPacks.contains(packId) && !missingPacks.contains(packId)) {
+                    packIds.add(packId);
+                }
+                Long userId = row.board.getAssignedUserId();
+                if (userId != null && !existingUsers.contains(userId) && !missingUsers.contains(userId)) {
+                    userIds.add(userId);
+                }
+            }
+            if (!packIds.isEmpty()) {
+                for (Pack pack : packRepository.findAllById(packIds)) {
+                    existingPacks.add(pack.getId());
+                }
+                packIds.removeAll(existingPacks);
+                missingPacks.addAll(packIds);
+            }
+            if (!userIds.isEmpty()) {
+                for (User user : userRepository.findAllById(userIds)) {
+                    existingUsers.add(user.getId());
+                }
+                userIds.removeAll(existingUsers);
+                missingUsers.addAll(userIds);
+            }
+        }
+
+        private String validate(BoardDTO board) {
+            List<String> errors = new ArrayList<>();
+            if (isBlank(board.getBoardNumber())) {
+                errors.add("Board Number is required");
+            }
+            if (isBlank(board.getFbName())) {
+                errors.add("FB Name is required");
+            }
+            if (isBlank(board.getFbSize())) {
+                errors.add("FB Size is required");
+            }
+            if (board.getPackId() != null && missingPacks.contains(board.getPackId())) {
+                errors.add("Pack not found with id: " + board.getPackId());
+            }
+            if (board.getAssignedUserId() != null && missingUsers.contains(board.getAssignedUserId())) {
+                errors.add("User not found with id: " + board.getAssignedUserId());
+            }
+            return errors.isEmpty() ? null : String.join("; ", errors);
+        }
+
+        private void insert(List<PendingRow> rows) {
+            if (rows.isEmpty()) {
+                return;
+            }
+            List<Long> ids;
+            try {
+                ids = transactionTemplate.execute(status -> insertBatch(rows));
+            } catch (DataAccessException e) {
+                if (rows.size() > 1) {
+                    // Find the rows the database refuses
+                    for (PendingRow row : rows) {
+                        insert(List.of(row));
+                    }
+                } else {
+                    PendingRow row = rows.get(0);
+                    fail(row.rowNumber, row.board.getBoardNumber(),
+                            NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                }
+                return;
+            }
+            for (int i = 0; i < rows.size(); i++) {
+                PendingRow row = rows.get(i);
+                Long id = i < ids.size() ? ids.get(i) : null;
+                results.add(new BoardImportRowResultDTO(
+                        row.rowNumber, row.board.getBoardNumber(), BoardImportRowResultDTO.CREATED, id, null));
+                if (id != null) {
+                    searchIndex.put(id, row.board.getBoardNumber(), row.board.getFbName());
+                }
+            }
+        }
+    }
+
+    private List<Long> insertBatch(List<PendingRow> rows) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_BOARD_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (PendingRow row : rows) {
+                    Object[] values = insertValues(row.board);
+                    for (int i = 0; i < values.length; i++) {
+                        statement.setObject(i + 1, values[i]);
+                    }
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                List<Long> ids = new ArrayList<>(rows.size());
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                return ids;
+            }
+        });
+    }
+
+    private static Object[] insertValues(BoardDTO b) {
+        return new Object[] {
+                b.getBoardNumber(), b.getFbId(), b.getFbName(), b.getFbSize(), b.getFirstTechLevel(),
+                b.getProjet(), b.getPlant(), b.getInUse(), b.getTestClip(), b.getArea(),
+                b.getFbType1(), b.getFbType2(), b.getFbType3(), b.getSide(), b.getDerivate(), b.getCreationReason(),
+                sqlDate(b.getFirstYellowReleaseDate()), sqlDate(b.getFirstOrangeReleaseDate()),
+                sqlDate(b.getFirstGreenReleaseDate()), sqlDate(b.getFirstUseByProdDate()),
+                b.getCurrentTechLevel(), b.getNextTechLevel(), b.getLastTechChangeImplemented(),
+                sqlDate(b.getLastTechChangeImpleDate()), sqlDate(b.getLastTechChangeReleaseDate()),
+                b.getComment1(), b.getComment2(), b.getComment3(), sqlDate(b.getCreationDate()),
+                b.getCost(), b.getQuantity(), b.getStoragePlace(),
+                // Same default as the Board entity
+                b.getStatus() != null ? b.getStatus() : "PENDING",
+                b.getAssignedUserId(), b.getPackId()
+        };
+    }
+
+    private static class PendingRow {
+        final int rowNumber;
+        final BoardDTO board;
+
+        PendingRow(int rowNumber, BoardDTO board) {
+            this.rowNumber = rowNumber;
+            this.board = board;
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Column mapping
+    // ----------------------------------------------------------------------
+
+    private static Map<String, BiConsumer<BoardDTO, String>> fields() {
+        Map<String, BiConsumer<BoardDTO, String>> fields = new HashMap<>();
+        fields.put("boardnumber", BoardDTO::setBoardNumber);
+        fields.put("fbid", BoardDTO::setFbId);
+        fields.put("fbname", BoardDTO::setFbName);
+        fields.put("fbsize", BoardDTO::setFbSize);
+        fields.put("firsttechlevel", BoardDTO::setFirstTechLevel);
+        fields.put("projet", BoardDTO::setProjet);
+        fields.put("plant", BoardDTO::setPlant);
+        fields.put("inuse", BoardDTO::setInUse);
+        fields.put("testclip", (b, v) -> b.setTestClip(parseBoolean(v)));
+        fields.put("area", BoardDTO::setArea);
+        fields.put("fbtype1", BoardDTO::setFbType1);
+        fields.put("fbtype2", BoardDTO::setFbType2);
+        fields.put("fbtype3", BoardDTO::setFbType3);
+        fields.put("side", BoardDTO::setSide);
+        fields.put("derivate", BoardDTO::setDerivate);
+        fields.put("creationreason", BoardDTO::setCreationReason);
+        fields.put("firstyellowreleasedate", (b, v) -> b.setFirstYellowReleaseDate(parseDate(v)));
+        fields.put("firstorangereleasedate", (b, v) -> b.setFirstOrangeReleaseDate(parseDate(v)));
+        fields.put("firstgreenreleasedate", (b, v) -> b.setFirstGreenReleaseDate(parseDate(v)));
+        fields.put("firstusebyproddate", (b, v) -> b.setFirstUseByProdDate(parseDate(v)));
+        fields.put("currenttechlevel", BoardDTO::setCurrentTechLevel);
+        fields.put("nexttechlevel", BoardDTO::setNextTechLevel);
+        fields.put("lasttechchangeimplemented", BoardDTO::setLastTechChangeImplemented);
+        fields.put("lasttechchangeimpledate", (b, v) -> b.setLastTechChangeImpleDate(parseDate(v)));
+        fields.put("lasttechchangereleasedate", (b, v) -> b.setLastTechChangeReleaseDate(parseDate(v)));
+        fields.put("comment1", BoardDTO::setComment1);
+        fields.put("comment2", BoardDTO::setComment2);
+        fields.put("comment3", BoardDTO::setComment3);
+        fields.put("packid", (b, v) -> b.setPackId(Long.valueOf(v)));
+        fields.put("assigneduserid", (b, v) -> b.setAssignedUserId(Long.valueOf(v)));
+        fields.put("cost", (b, v) -> b.setCost(Double.valueOf(v.replace(',', '.'))));
+        fields.put("quantity", (b, v) -> b.setQuantity(Integer.valueOf(v)));
+        fields.put("storageplace", BoardDTO::setStoragePlace);
+        fields.put("creationdate", (b, v) -> b.setCreationDate(parseDate(v)));
+        fields.put("status", BoardDTO::setStatus);
+        return fields;
+    }
+
+    // "Board Number", "board_number" and "boardNumber" all become "boardnumber"
+    private static String normalize(String header) {
+        return header.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+    }
+
+    private static LocalDate parseDate(String value) {
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(value, format);
+            } catch (DateTimeParseException ignored) {
+                // try the next format
+            }
+        }
+        throw new DateTimeParseException("Unsupported date", value, 0);
+    }
+
+    private static Boolean parseBoolean(String value) {
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "true":
+            case "yes":
+            case "ja":
+            case "x":
+            case "1":
+                return true;
+            case "false":
+            case "no":
+            case "nein":
+            case "0":
+                return false;
+            default:
+                throw new IllegalArgumentException("Not a boolean: " + value);
+        }
+    }
+
+    private static java.sql.Date sqlDate(LocalDate date) {
+        return date != null ? java.sql.Date.valueOf(date) : null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
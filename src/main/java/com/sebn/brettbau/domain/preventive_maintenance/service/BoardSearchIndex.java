@@ -0,0 +1,401 @@
+package com.sebn.brettbau.domain.preventive_maintenance.service;
+
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardSearchHitDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardSearchIndexStatsDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.repository.BoardRepository;
+import com.sebn.brettbau.util.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over board numbers and FB names for type-ahead search.
+ *
+ * Every three-character substring of the lower-cased board number and FB name
+ * points to a sorted array of board ids. A query of three or more characters
+ * intersects the arrays of its own trigrams and then checks the few remaining
+ * candidates; shorter queries scan the (small) entry map. The index is built
+ * at startup, kept current by BoardServiceImpl after each committed write and
+ * rebuilt periodically to pick up changes made elsewhere.
+ */
+@Component
+public class BoardSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoardSearchIndex.class);
+
+    // Match ranks, best first
+    private static final int RANK_EXACT_NUMBER = 0;
+    private static final int RANK_NUMBER_PREFIX = 1;
+    private static final int RANK_NAME_PREFIX = 2;
+    private static final int RANK_NUMBER_CONTAINS = 3;
+    private static final int RANK_NAME_CONTAINS = 4;
+
+    private static final Comparator<BoardSearchHitDTO> BEST_FIRST = Comparator
+            .comparingInt(BoardSearchHitDTO::getRank)
+            .thenComparing(hit -> hit.getBoardNumber() != null ? hit.getBoardNumber() : "")
+            .thenComparing(BoardSearchHitDTO::getId);
+
+    private final BoardRepository boardRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    // Changes seen while a rebuild reads the database; replayed onto the new index
+    private List<Entry> changesDuringRebuild;
+
+    private final AtomicLong searches = new AtomicLong();
+    private final AtomicLong searchNanos = new AtomicLong();
+    private volatile long lastRebuildMillis;
+    private volatile LocalDateTime lastRebuildAt;
+
+    public BoardSearchIndex(BoardRepository boardRepository) {
+        this.boardRepository = boardRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${board.search-index.rebuild-interval-ms:900000}",
+            fixedDelayString = "${board.search-index.rebuild-interval-ms:900000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Long, Entry> newEntries = new HashMap<>();
+        Map<Long, Postings> newPostings = new HashMap<>();
+        try {
+            for (Object[] row : boardRepository.findSearchKeys()) {
+                Entry entry = new Entry((Long) row[0], (String) row[1], (String) row[2]);
+                newEntries.put(entry.id, entry);
+                addPostings(newPostings, entry);
+            }
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.error("Board search index rebuild failed: {}", ex.getMessage(), ex);
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            List<Entry> changes = changesDuringRebuild;
+            changesDuringRebuild = null;
+            entries.clear();
+            entries.putAll(newEntries);
+            postings.clear();
+            postings.putAll(newPostings);
+            for (Entry change : changes) {
+                apply(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        lastRebuildMillis = System.currentTimeMillis() - started;
+        lastRebuildAt = LocalDateTime.now();
+        logger.info("Board search index rebuilt: {} boards, {} trigrams in {} ms",
+                newEntries.size(), newPostings.size(), lastRebuildMillis);
+    }
+
+    /**
+     * Index (or re-index) a board once the current transaction commits.
+     */
+    public void put(Long id, String boardNumber, String fbName) {
+        TransactionHooks.afterCommit(() -> change(new Entry(id, boardNumber, fbName)));
+    }
+
+    /**
+     * Remove a board once the current transaction commits.
+     */
+    public void remove(Long id) {
+        TransactionHooks.afterCommit(() -> change(Entry.removed(id)));
+    }
+
+    /**
+     * Boards whose number or FB name contains the term, best matches first.
+     */
+    public List<BoardSearchHitDTO> search(String term, int limit) {
+        long started = System.nanoTime();
+        String query = normalize(term);
+        if (query.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // Worst of the kept hits on top, so it can be dropped when a better one arrives
+        PriorityQueue<BoardSearchHitDTO> best = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+        lock.readLock().lock();
+        try {
+            if (query.length() < 3) {
+                for (Entry entry : entries.values()) {
+                    offer(best, entry, query, limit);
+                }
+            } else {
+                for (long id : candidates(query)) {
+                    offer(best, entries.get(id), query, limit);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<BoardSearchHitDTO> hits = new ArrayList<>(best);
+        hits.sort(BEST_FIRST);
+        searches.incrementAndGet();
+        searchNanos.addAndGet(System.nanoTime() - started);
+        return hits;
+    }
+
+    public BoardSearchIndexStatsDTO getStats() {
+        lock.readLock().lock();
+        try {
+            long postingCount = 0;
+            // HashMap node + boxed key + Postings + array header, then 8 bytes per slot
+            long bytes = 0;
+            for (Postings list : postings.values()) {
+                postingCount += list.size;
+                bytes += 32 + 16 + 24 + 16 + 8L * list.ids.length;
+            }
+            for (Entry entry : entries.values()) {
+                bytes += 32 + 16 + 40 + stringBytes(entry.boardNumber) + stringBytes(entry.fbName);
+                if (entry.lowerNumber != entry.boardNumber) {
+                    bytes += stringBytes(entry.lowerNumber);
+                }
+                if (entry.lowerName != entry.fbName) {
+                    bytes += stringBytes(entry.lowerName);
+                }
+            }
+            // Hash tables themselves
+            bytes += 8L * (entries.size() + postings.size()) * 2;
+
+            long count = searches.get();
+            return BoardSearchIndexStatsDTO.builder()
+                    .boards(entries.size())
+                    .trigrams(postings.size())
+                    .postings(postingCount)
+                    .estimatedBytes(bytes)
+                    .lastRebuildMillis(lastRebuildMillis)
+                    .lastRebuildAt(lastRebuildAt)
+                    .searches(count)
+                    .averageSearchMicros(count > 0 ? searchNanos.get() / 1000.0 / count : 0)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ----------------------------------------------------------------------
+
+    private void change(Entry change) {
+        lock.writeLock().lock();
+        try {
+            apply(change);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(Entry change) {
+        Entry previous = change.isRemoval() ? entries.remove(change.id) : entries.put(change.id, change);
+        if (previous != null) {
+            for (long gram : previous.trigrams()) {
+                Postings list = postings.get(gram);
+                if (list != null && list.remove(previous.id) && list.size == 0) {
+                    postings.remove(gram);
+                }
+            }
+        }
+        if (!change.isRemoval()) {
+            addPostings(postings, change);
+        }
+    }
+
+    private static void addPostings(Map<Long, Postings> target, Entry entry) {
+        for (long gram : entry.trigrams()) {
+            target.computeIfAbsent(gram, g -> new Postings()).add(entry.id);
+        }
+    }
+
+    // Ids containing every trigram of the query, smallest posting list first
+    private long[] candidates(String query) {
+        Set<Long> grams = trigrams(query);
+        List<Postings> lists = new ArrayList<>(grams.size());
+        for (long gram : grams) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                return new long[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+
+        long[] result = Arrays.copyOf(lists.get(0).ids, lists.get(0).size);
+        int size = result.length;
+        for (int l = 1; l < lists.size() && size > 0; l++) {
+            Postings other = lists.get(l);
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (Arrays.binarySearch(other.ids, 0, other.size, result[i]) >= 0) {
+                    result[kept++] = result[i];
+                }
+            }
+            size = kept;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static void offer(PriorityQueue<BoardSearchHitDTO> best, Entry entry, String query, int limit) {
+        if (entry == null) {
+            return;
+        }
+        int rank = entry.rank(query);
+        if (rank < 0) {
+            return;
+        }
+        best.add(new BoardSearchHitDTO(entry.id, entry.boardNumber, entry.fbName, rank));
+        if (best.size() > limit) {
+            best.poll();
+        }
+    }
+
+    static Set<Long> trigrams(String lower) {
+        Set<Long> grams = new LinkedHashSet<>();
+        if (lower == null) {
+            return grams;
+        }
+        for (int i = 0; i + 3 <= lower.length(); i++) {
+            grams.add(((long) lower.charAt(i) << 32) | ((long) lower.charAt(i + 1) << 16) | lower.charAt(i + 2));
+        }
+        return grams;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long stringBytes(String value) {
+        // Object header + fields + byte[] header, Latin-1 compact strings
+        return value == null ? 0 : 24 + 16 + value.length();
+    }
+
+    private static class Entry {
+        final Long id;
+        final String boardNumber;
+        final String fbName;
+        final String lowerNumber;
+        final String lowerName;
+        private final boolean removal;
+
+        Entry(Long id, String boardNumber, String fbName) {
+            this(id, boardNumber, fbName, false);
+        }
+
+        private Entry(Long id, String boardNumber, String fbName, boolean removal) {
+            this.id = id;
+            this.boardNumber = boardNumber;
+            this.fbName = fbName;
+            this.lowerNumber = boardNumber != null ? boardNumber.toLowerCase(Locale.ROOT) : null;
+            this.lowerName = fbName != null ? fbName.toLowerCase(Locale.ROOT) : null;
+            this.removal = removal;
+        }
+
+        static Entry removed(Long id) {
+            return new Entry(id, null, null, true);
+        }
+
+        boolean isRemoval() {
+            return removal;
+        }
+
+        Set<Long> trigrams() {
+            Set<Long> grams = BoardSearchIndex.trigrams(lowerNumber);
+            grams.addAll(BoardSearchIndex.trigrams(lowerName));
+            return grams;
+        }
+
+        int rank(String query) {
+            if (lowerNumber != null) {
+                if (lowerNumber.equals(query)) {
+                    return RANK_EXACT_NUMBER;
+                }
+                if (lowerNumber.startsWith(query)) {
+                    return RANK_NUMBER_PREFIX;
+                }
+            }
+            if (lowerName != null && lowerName.startsWith(query)) {
+                return RANK_NAME_PREFIX;
+            }
+            if (lowerNumber != null && lowerNumber.contains(query)) {
+                return RANK_NUMBER_CONTAINS;
+            }
+            if (lowerName != null && lowerName.contains(query)) {
+                return RANK_NAME_CONTAINS;
+            }
+            return -1;
+        }
+    }
+
+    // Sorted, growable array of board ids
+    private static class Postings {
+        long[] ids = new long[4];
+        int size;
+
+        void add(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + Math.max(4, size >> 1));
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+    }
+}
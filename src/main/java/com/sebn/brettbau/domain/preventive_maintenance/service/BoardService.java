@@ -1,6 +1,10 @@
 package com.sebn.brettbau.domain.preventive_maintenance.service;
 
 import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardFacetsDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardPageDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardSearchHitDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardSearchIndexStatsDTO;
 import java.util.List;
 
 /**
@@ -15,6 +19,25 @@ public interface BoardService {
      */
     List<BoardDTO> getBoardsFiltered(String search, String projet, String plant, String fbType1);
 
+    /**
+     * Keyset-paginated variant of {@link #getBoardsFiltered}. The cursor comes from
+     * the previous page and must be used with the same sort and direction.
+     */
+    BoardPageDTO getBoardsPage(String search, String projet, String plant, String fbType1,
+                               String sort, String direction, String cursor, int size);
+
+    /**
+     * Type-ahead search on board number and FB name, best matches first.
+     */
+    List<BoardSearchHitDTO> searchBoards(String term, int limit);
+
+    BoardSearchIndexStatsDTO getSearchIndexStats();
+
+    /**
+     * Filter values with counts for projet, plant and fbType1 under the applied filters.
+     */
+    BoardFacetsDTO getBoardFacets(String search, String projet, String plant, String fbType1);
+
     BoardDTO getBoardById(Long id);
 
     BoardDTO createBoard(BoardDTO boardDTO);
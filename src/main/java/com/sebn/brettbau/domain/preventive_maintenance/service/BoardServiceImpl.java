@@ -1,10 +1,15 @@
 package com.sebn.brettbau.domain.preventive_maintenance.service;
 
 import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardFacetsDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardPageDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardSearchHitDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardSearchIndexStatsDTO;
 import com.sebn.brettbau.domain.preventive_maintenance.entity.Board;
 import com.sebn.brettbau.domain.preventive_maintenance.entity.Pack;
 import com.sebn.brettbau.domain.preventive_maintenance.mapper.BoardMapper;
 import com.sebn.brettbau.domain.preventive_maintenance.repository.BoardRepository;
+import com.sebn.brettbau.domain.preventive_maintenance.repository.BoardSpecifications;
 import com.sebn.brettbau.domain.preventive_maintenance.repository.PackRepository;
 import com.sebn.brettbau.domain.user.entity.User;
 import com.sebn.brettbau.domain.user.repository.UserRepository;
@@ -14,11 +19,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -30,6 +47,13 @@ public class BoardServiceImpl implements BoardService {
 
     private static final Logger logger = LoggerFactory.getLogger(BoardServiceImpl.class);
 
+    // Attributes /api/boards/page may sort by; each has an index (V9.12)
+    private static final Set<String> SORTABLE_ATTRIBUTES = new LinkedHashSet<>(Arrays.asList(
+            "id", "boardNumber", "fbName", "projet", "plant", "fbType1", "status", "creationDate"));
+
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_SEARCH_RESULTS = 100;
+
     @Autowired
     private BoardRepository boardRepository;
 
@@ -42,42 +66,152 @@ public class BoardServiceImpl implements BoardService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private BoardSearchIndex searchIndex;
+
+    @Autowired
+    private BoardFacetCache facetCache;
+
+    @Autowired
+    private MaintenanceStatusService maintenanceStatusService;
+
+    @Autowired
+    private ReferenceDataVersions referenceDataVersions;
+
     @Override
     public List<BoardDTO> getAllBoards() {
-        List<Board> boards = boardRepository.findAll();
-        return boards.stream()
-                .map(boardMapper::toDTO)
-                .collect(Collectors.toList());
+        return boardRepository.findBoardRows(null, Sort.by("id"), null);
     }
 
     @Override
     public List<BoardDTO> getBoardsFiltered(String search, String projet, String plant, String fbType1) {
-        // For simplicity, we just load all and filter in-memory.
-        // In production, consider creating a JPA Specification or custom queries.
-
-        List<Board> boards = boardRepository.findAll();
-        return boards.stream()
-            .filter(b -> {
-                if (search != null && !search.isEmpty()) {
-                    // example: match boardNumber or fbName
-                    String s = search.toLowerCase();
-                    boolean matchesName = (b.getFbName() != null && b.getFbName().toLowerCase().contains(s));
-                    boolean matchesBoardNum = (b.getBoardNumber() != null && b.getBoardNumber().toLowerCase().contains(s));
-                    if (!(matchesName || matchesBoardNum)) return false;
-                }
-                if (projet != null && !projet.isEmpty()) {
-                    if (!projet.equals(b.getProjet())) return false;
-                }
-                if (plant != null && !plant.isEmpty()) {
-                    if (!plant.equals(b.getPlant())) return false;
-                }
-                if (fbType1 != null && !fbType1.isEmpty()) {
-                    if (!fbType1.equals(b.getFbType1())) return false;
+        return boardRepository.findBoardRows(
+                BoardSpecifications.filtered(search, projet, plant, fbType1), Sort.by("id"), null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BoardPageDTO getBoardsPage(String search, String projet, String plant, String fbType1,
+                                      String sort, String direction, String cursor, int size) {
+        String sortAttribute = (sort == null || sort.isEmpty()) ? "id" : sort;
+        if (!SORTABLE_ATTRIBUTES.contains(sortAttribute)) {
+            throw new IllegalArgumentException("Cannot sort boards by '" + sort + "'. Allowed: " + SORTABLE_ATTRIBUTES);
+        }
+        boolean descending = "desc".equalsIgnoreCase(direction);
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        Specification<Board> spec = BoardSpecifications.filtered(search, projet, plant, fbType1);
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] position = decodeCursor(cursor, sortAttribute);
+            Long afterId = Long.valueOf(position[0]);
+            spec = spec.and(BoardSpecifications.after(
+                    sortAttribute, parseSortValue(sortAttribute, position[1]), afterId, descending));
+        }
+
+        Sort.Direction sortDirection = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort order = "id".equals(sortAttribute)
+                ? Sort.by(sortDirection, "id")
+                : Sort.by(sortDirection, sortAttribute).and(Sort.by(sortDirection, "id"));
+
+        // One extra row tells whether there is a next page
+        List<BoardDTO> boards = boardRepository.findBoardRows(spec, order, size + 1);
+        boolean hasNext = boards.size() > size;
+        if (hasNext) {
+            boards = boards.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            BoardDTO last = boards.get(boards.size() - 1);
+            nextCursor = encodeCursor(sortAttribute, last.getId(), sortValue(last, sortAttribute));
+        }
+
+        return BoardPageDTO.builder()
+                .content(boards)
+                .sort(sortAttribute)
+                .direction(sortDirection.name())
+                .size(boards.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    // Cursor = base64url("sort:id:" + ("=" + value | "" for null))
+    private static String encodeCursor(String sort, Long id, Object value) {
+        String raw = sort + ":" + id + ":" + (value != null ? "=" + value : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor, String sort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            if (parts.length != 3 || !parts[0].equals(sort)) {
+                throw new IllegalArgumentException("Cursor does not belong to sort '" + sort + "'");
+            }
+            if (!parts[2].isEmpty() && !parts[2].startsWith("=")) {
+                throw new IllegalArgumentException("Malformed sort value");
+            }
+            Long.parseLong(parts[1]);
+            return new String[] { parts[1], parts[2].isEmpty() ? null : parts[2].substring(1) };
+        } catch (IllegalArgumentException ex) {
+            // Also covers bad base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid cursor: " + ex.getMessage());
+        }
+    }
+
+    private static Object sortValue(BoardDTO board, String sort) {
+        switch (sort) {
+            case "boardNumber": return board.getBoardNumber();
+            case "fbName": return board.getFbName();
+            case "projet": return board.getProjet();
+            case "plant": return board.getPlant();
+            case "fbType1": return board.getFbType1();
+            case "status": return board.getStatus();
+            case "creationDate": return board.getCreationDate();
+            default: return board.getId();
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Comparable parseSortValue(String sort, String value) {
+        if (value == null) {
+            return null;
+        }
+        switch (sort) {
+            case "creationDate":
+                try {
+                    return LocalDate.parse(value);
+                } catch (DateTimeParseException ex) {
+                    throw new IllegalArgumentException("Invalid cursor");
                 }
-                return true;
-            })
-            .map(boardMapper::toDTO)
-            .collect(Collectors.toList());
+            case "id":
+                return Long.valueOf(value);
+            default:
+                return value;
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BoardSearchHitDTO> searchBoards(String term, int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+        return searchIndex.search(term, limit);
+    }
+
+    @Override
+    public BoardSearchIndexStatsDTO getSearchIndexStats() {
+        return searchIndex.getStats();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BoardFacetsDTO getBoardFacets(String search, String projet, String plant, String fbType1) {
+        return facetCache.getFacets(search, projet, plant, fbType1);
     }
 
     @Override
@@ -113,6 +247,10 @@ public class BoardServiceImpl implements BoardService {
         }
 
         Board savedBoard = boardRepository.save(board);
+        searchIndex.put(savedBoard.getId(), savedBoard.getBoardNumber(), savedBoard.getFbName());
+        facetCache.invalidate();
+        maintenanceStatusService.invalidateAll();
+        referenceDataVersions.bump(ReferenceDataVersions.Aggregate.BOARDS);
         return boardMapper.toDTO(savedBoard);
     }
 
@@ -143,6 +281,10 @@ public class BoardServiceImpl implements BoardService {
         }
 
         Board savedBoard = boardRepository.save(existingBoard);
+        searchIndex.put(savedBoard.getId(), savedBoard.getBoardNumber(), savedBoard.getFbName());
+        facetCache.invalidate();
+        maintenanceStatusService.invalidateAll();
+        referenceDataVersions.bump(ReferenceDataVersions.Aggregate.BOARDS);
         return boardMapper.toDTO(savedBoard);
     }
 
@@ -151,6 +293,10 @@ public class BoardServiceImpl implements BoardService {
         Board existingBoard = boardRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Board not found with id: " + id));
         boardRepository.delete(existingBoard);
+        searchIndex.remove(id);
+        facetCache.invalidate();
+        maintenanceStatusService.invalidateAll();
+        referenceDataVersions.bump(ReferenceDataVersions.Aggregate.BOARDS);
     }
 
     @Override
@@ -174,25 +320,36 @@ public class BoardServiceImpl implements BoardService {
         List<BoardDTO> createdBoards = new ArrayList<>();
         List<String> errors = new ArrayList<>();
 
+        // Look up every referenced pack and user once instead of once per row
+        Map<Long, Pack> packs = packRepository.findAllById(boardDTOs.stream()
+                        .map(BoardDTO::getPackId).filter(Objects::nonNull).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(Pack::getId, Function.identity()));
+        Map<Long, User> users = userRepository.findAllById(boardDTOs.stream()
+                        .map(BoardDTO::getAssignedUserId).filter(Objects::nonNull).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(User::getId, Function.identity()));
+
         for (BoardDTO dto : boardDTOs) {
             try {
                 Board board = boardMapper.toEntity(dto);
 
                 if (dto.getPackId() != null) {
-                    Pack pack = packRepository.findById(dto.getPackId())
-                            .orElseThrow(() -> new ResourceNotFoundException(
-                                    "Pack not found with id: " + dto.getPackId()));
+                    Pack pack = packs.get(dto.getPackId());
+                    if (pack == null) {
+                        throw new ResourceNotFoundException("Pack not found with id: " + dto.getPackId());
+                    }
                     board.setPack(pack);
                 }
 
                 if (dto.getAssignedUserId() != null) {
-                    User user = userRepository.findById(dto.getAssignedUserId())
-                            .orElseThrow(() -> new ResourceNotFoundException(
-                                    "User not found with id: " + dto.getAssignedUserId()));
+                    User user = users.get(dto.getAssignedUserId());
+                    if (user == null) {
+                        throw new ResourceNotFoundException("User not found with id: " + dto.getAssignedUserId());
+                    }
                     board.setAssignedUser(user);
                 }
 
                 Board savedBoard = boardRepository.save(board);
+                searchIndex.put(savedBoard.getId(), savedBoard.getBoardNumber(), savedBoard.getFbName());
                 createdBoards.add(boardMapper.toDTO(savedBoard));
             } catch (ResourceNotFoundException rnfe) {
                 String errorMsg = "Row with boardNumber=" + dto.getBoardNumber()
@@ -207,6 +364,10 @@ public class BoardServiceImpl implements BoardService {
             }
         }
 
+        facetCache.invalidate();
+        maintenanceStatusService.invalidateAll();
+        referenceDataVersions.bump(ReferenceDataVersions.Aggregate.BOARDS);
+
         if (!errors.isEmpty()) {
             throw new RuntimeException("Errors occurred during bulk board creation: " + String.join("; ", errors));
         }
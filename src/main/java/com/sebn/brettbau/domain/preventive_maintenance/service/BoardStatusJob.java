@@ -0,0 +1,136 @@
+package com.sebn.brettbau.domain.preventive_maintenance.service;
+
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardStatusJobRunDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.repository.BoardRepository;
+import com.sebn.brettbau.domain.preventive_maintenance.repository.ChecklistRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.IsoFields;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Recomputes board statuses from checklists with set-based statements.
+ *
+ * One grouped query finds the boards whose latest validated checklist has
+ * expired and that are not PENDING yet; those are set to PENDING with bulk
+ * UPDATEs of at most chunk-size ids. PENDING boards of packs whose latest
+ * scheduled week (per MaintenanceCalendar) lies before the current ISO week
+ * are then set to DANGER in LIMIT-ed UPDATEs. Each chunk commits on its own,
+ * so locks are short and the work done is proportional to the boards that
+ * change, not to all boards.
+ */
+@Component
+public class BoardStatusJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoardStatusJob.class);
+
+    private final ChecklistRepository checklistRepository;
+    private final BoardRepository boardRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReferenceDataVersions referenceDataVersions;
+    private final MaintenanceCalendar maintenanceCalendar;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong runs = new AtomicLong();
+    private volatile BoardStatusJobRunDTO lastRun;
+
+    @Value("${board.status-job.chunk-size:500}")
+    private int chunkSize;
+
+    public BoardStatusJob(ChecklistRepository checklistRepository,
+                          BoardRepository boardRepository,
+                          PlatformTransactionManager transactionManager,
+                          ReferenceDataVersions referenceDataVersions,
+                          MaintenanceCalendar maintenanceCalendar) {
+        this.checklistRepository = checklistRepository;
+        this.boardRepository = boardRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.referenceDataVersions = referenceDataVersions;
+        this.maintenanceCalendar = maintenanceCalendar;
+    }
+
+    public BoardStatusJobRunDTO run() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Board status job is already running");
+        }
+        long started = System.currentTimeMillis();
+        BoardStatusJobRunDTO run = BoardStatusJobRunDTO.builder()
+                .startedAt(LocalDateTime.now())
+                .build();
+        try {
+            List<Long> expired = checklistRepository.findBoardIdsWithExpiredLatestChecklist(LocalDateTime.now())
+                    .stream()
+                    .map(Number::longValue)
+                    .collect(Collectors.toList());
+            run.setBoardsProcessed(expired.size());
+
+            for (int from = 0; from < expired.size(); from += chunkSize) {
+                List<Long> chunk = expired.subList(from, Math.min(from + chunkSize, expired.size()));
+                Integer updated = transactionTemplate.execute(status -> boardRepository.markPending(chunk));
+                run.setSetPending(run.getSetPending() + (updated != null ? updated : 0));
+                run.setChunks(run.getChunks() + 1);
+            }
+
+            List<Long> overdue = packsPastScheduledWeek(LocalDate.now());
+            for (int from = 0; from < overdue.size(); from += chunkSize) {
+                List<Long> packs = overdue.subList(from, Math.min(from + chunkSize, overdue.size()));
+                int updated;
+                do {
+                    Integer result = transactionTemplate.execute(status ->
+                            boardRepository.markPendingAsDanger(packs, chunkSize));
+                    updated = result != null ? result : 0;
+                    run.setSetDanger(run.getSetDanger() + updated);
+                    run.setChunks(run.getChunks() + 1);
+                } while (updated == chunkSize);
+            }
+
+            run.setSuccess(true);
+        } catch (RuntimeException ex) {
+            run.setError(ex.getMessage());
+            logger.error("Board status job failed: {}", ex.getMessage(), ex);
+        } finally {
+            run.setRowsChanged(run.getSetPending() + run.getSetDanger());
+            if (run.getRowsChanged() > 0) {
+                referenceDataVersions.bump(ReferenceDataVersions.Aggregate.BOARDS);
+            }
+            run.setDurationMs(System.currentTimeMillis() - started);
+            run.setRuns(runs.incrementAndGet());
+            lastRun = run;
+            running.set(false);
+        }
+        logger.info("Board status job: {} expired boards, {} set PENDING, {} set DANGER in {} ms",
+                run.getBoardsProcessed(), run.getSetPending(), run.getSetDanger(), run.getDurationMs());
+        return run;
+    }
+
+    /**
+     * Figures of the last run, or null if the job has not run since startup.
+     */
+    public BoardStatusJobRunDTO getLastRun() {
+        return lastRun;
+    }
+
+    // Packs with PENDING boards whose latest scheduled week up to today has already passed.
+    // A pack scheduled for the current week still has until its end; one without any
+    // scheduled week so far is never overdue.
+    List<Long> packsPastScheduledWeek(LocalDate today) {
+        int current = MaintenanceCalendar.slot(today.get(IsoFields.WEEK_BASED_YEAR),
+                today.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+        return boardRepository.findPackIdsWithPendingBoards().stream()
+                .filter(packId -> {
+                    int scheduled = maintenanceCalendar.previousBefore(packId, current + 1);
+                    return scheduled != -1 && scheduled < current;
+                })
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
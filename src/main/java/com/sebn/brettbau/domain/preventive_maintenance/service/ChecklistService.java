@@ -1,18 +1,23 @@
 package com.sebn.brettbau.domain.preventive_maintenance.service;
 
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardStatusJobRunDTO;
 import com.sebn.brettbau.domain.preventive_maintenance.dto.ChecklistDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.MaintenanceStatusSummaryDTO;
 import com.sebn.brettbau.domain.preventive_maintenance.dto.ProgressResponse;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.TechnicianLeaderboardDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.TechnicianProgressDTO;
 import com.sebn.brettbau.domain.preventive_maintenance.entity.Board;
 import com.sebn.brettbau.domain.preventive_maintenance.entity.Checklist;
-import com.sebn.brettbau.domain.preventive_maintenance.entity.MaintenanceSchedule;
 import com.sebn.brettbau.domain.preventive_maintenance.enums.BoardMaintenanceStatus;
 import com.sebn.brettbau.domain.preventive_maintenance.mapper.ChecklistMapper;
 import com.sebn.brettbau.domain.preventive_maintenance.repository.BoardRepository;
 import com.sebn.brettbau.domain.preventive_maintenance.repository.ChecklistRepository;
-import com.sebn.brettbau.domain.preventive_maintenance.repository.MaintenanceScheduleRepository;
 import com.sebn.brettbau.domain.user.entity.User;
 import com.sebn.brettbau.domain.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
@@ -22,7 +27,9 @@ import java.time.temporal.TemporalAdjusters;
 import java.time.temporal.WeekFields;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,7 +38,19 @@ public class ChecklistService {
     private final ChecklistRepository checklistRepository;
     private final BoardRepository boardRepository;
     private final UserRepository userRepository;
-    private final MaintenanceScheduleRepository maintenanceScheduleRepository;  // Added repository dependency
+    private final MaintenanceCalendar maintenanceCalendar;
+    private final BoardStatusJob boardStatusJob;
+    private final MaintenanceStatusService maintenanceStatusService;
+    private final ReferenceDataVersions referenceDataVersions;
+
+    public static final int MAX_LEADERBOARD_PAGE_SIZE = 100;
+    private static final int MAX_CACHED_LEADERBOARDS = 256;
+
+    // "week:siteId:projectId:page:size" -> page; entries expire after the TTL
+    private final Map<String, CachedLeaderboard> leaderboardCache = new ConcurrentHashMap<>();
+
+    @Value("${checklist.leaderboard.cache-ttl-ms:60000}")
+    private long leaderboardTtlMs;
 
     /**
      * Retrieve all checklists.
@@ -55,50 +74,16 @@ public class ChecklistService {
      * Calculate maintenance status for a board based on schedule and checklists.
      */
     public BoardMaintenanceStatus calculateBoardStatus(Board board, int currentWeek, List<Integer> scheduledWeeks) {
-        // Find closest scheduled week (past or future)
-        Optional<Integer> nextScheduledWeek = scheduledWeeks.stream()
-                .filter(week -> week >= currentWeek)
-                .min(Integer::compareTo);
-
-        Optional<Integer> previousScheduledWeek = scheduledWeeks.stream()
-                .filter(week -> week < currentWeek)
-                .max(Integer::compareTo);
-
         // Get latest checklist for the board
         Optional<Checklist> latestChecklist = checklistRepository
                 .findTopByBoardOrderByCreatedAtDesc(board);
 
-        if (latestChecklist.isEmpty()) {
-            // No checklist exists - determine if we're behind schedule
-            return previousScheduledWeek.isPresent() ? 
-                   BoardMaintenanceStatus.RETARD : 
-                   BoardMaintenanceStatus.PENDING;
-        }
-
-        Checklist checklist = latestChecklist.get();
-        int checklistWeek = checklist.getWeekNumber();
-
-        // If checklist is validated, check its timing
-        if (checklist.getQualityValidated()) {
-            if (nextScheduledWeek.isPresent() && checklistWeek < nextScheduledWeek.get()) {
-                return BoardMaintenanceStatus.ADVANCED;
-            } else if (previousScheduledWeek.isPresent() && checklistWeek <= previousScheduledWeek.get()) {
-                return BoardMaintenanceStatus.COMPLETED;
-            }
-        }
-
-        // Check if we're behind schedule
-        if (previousScheduledWeek.isPresent() && checklistWeek <= previousScheduledWeek.get()
-            && !checklist.getQualityValidated()) {
-            return BoardMaintenanceStatus.RETARD;
-        }
-
-        // In progress but not yet due
-        if (!checklist.getQualityValidated()) {
-            return BoardMaintenanceStatus.IN_PROGRESS;
-        }
-
-        return BoardMaintenanceStatus.PENDING;
+        return MaintenanceStatusService.evaluate(
+                latestChecklist.map(Checklist::getWeekNumber).orElse(null),
+                latestChecklist.map(Checklist::getQualityValidated).orElse(null),
+                latestChecklist.isPresent(),
+                currentWeek,
+                scheduledWeeks);
     }
 
     /**
@@ -129,7 +114,11 @@ public class ChecklistService {
         }
 
         boardRepository.save(board);
-        return ChecklistMapper.toDTO(checklistRepository.save(checklist));
+        Checklist saved = checklistRepository.save(checklist);
+        maintenanceStatusService.invalidatePack(board.getPack() != null ? board.getPack().getId() : null);
+        // The board's status changed
+        referenceDataVersions.bump(ReferenceDataVersions.Aggregate.BOARDS);
+        return ChecklistMapper.toDTO(saved);
     }
 
     /**
@@ -140,7 +129,10 @@ public class ChecklistService {
                 .orElseThrow(() -> new RuntimeException("Checklist not found"));
 
         updateChecklistFields(checklist, dto);
-        return ChecklistMapper.toDTO(checklistRepository.save(checklist));
+        Checklist saved = checklistRepository.save(checklist);
+        Board board = checklist.getBoard();
+        maintenanceStatusService.invalidatePack(board != null && board.getPack() != null ? board.getPack().getId() : null);
+        return ChecklistMapper.toDTO(saved);
     }
 
     /**
@@ -148,6 +140,7 @@ public class ChecklistService {
      */
     public void deleteChecklist(Long id) {
         checklistRepository.deleteById(id);
+        maintenanceStatusService.invalidateAll();
     }
 
     /**
@@ -174,69 +167,49 @@ public class ChecklistService {
      */
     @Scheduled(cron = "0 0 0 * * ?") // Runs at midnight every day
     public void updateBoardStatuses() {
-        List<Board> boards = boardRepository.findAll();
-        LocalDateTime now = LocalDateTime.now();
+        boardStatusJob.run();
+    }
 
-        for (Board board : boards) {
-            Checklist latestChecklist = checklistRepository
-                    .findTopByBoardOrderByValidationDateDesc(board)
-                    .orElse(null);
-
-            if (latestChecklist != null && latestChecklist.getExpiryDate() != null) {
-                if (now.isAfter(latestChecklist.getExpiryDate())) {
-                    board.setStatus("PENDING");
-                    boardRepository.save(board);
-                }
-            }
-
-            if ("PENDING".equals(board.getStatus()) && isPastScheduledWeek(board)) {
-                board.setStatus("DANGER");
-                boardRepository.save(board);
-            }
-        }
+    /**
+     * Maintenance status of every board of a site, project or pack for an ISO week.
+     */
+    public MaintenanceStatusSummaryDTO getMaintenanceStatuses(Long siteId, Long projectId, Long packId,
+                                                             Integer year, Integer week) {
+        return maintenanceStatusService.getStatuses(siteId, projectId, packId, year, week);
     }
 
-    private boolean isPastScheduledWeek(Board board) {
-        int currentWeek = LocalDateTime.now().get(WeekFields.ISO.weekOfWeekBasedYear());
-        return getCurrentScheduledWeek(board) < currentWeek;
+    /**
+     * Figures of the last board status run, or null if it has not run since startup.
+     */
+    public BoardStatusJobRunDTO getLastBoardStatusRun() {
+        return boardStatusJob.getLastRun();
+    }
+
+    /**
+     * Run the board status job now, e.g. after bulk checklist changes.
+     */
+    public BoardStatusJobRunDTO runBoardStatusJob() {
+        return boardStatusJob.run();
     }
 
     /**
-     * Updated calculateNextMaintenanceDate using MaintenanceScheduleRepository.
+     * Start of the pack's next scheduled week, looked up in the maintenance calendar.
      */
     private LocalDateTime calculateNextMaintenanceDate(Board board) {
         // Get current week and year
         LocalDateTime now = LocalDateTime.now();
         int currentYear = now.getYear();
         int currentWeek = now.get(WeekFields.ISO.weekOfWeekBasedYear());
-        
-        // Find next scheduled maintenance for this pack in current year
-        Optional<MaintenanceSchedule> nextSchedule = maintenanceScheduleRepository
-            .findFirstByPackIdAndYearAndWeekNumberGreaterThanOrderByWeekNumberAsc(
-                board.getPack().getId(),
-                currentYear,
-                currentWeek
-            );
-
-        if (nextSchedule.isPresent()) {
-            return now
-                .with(WeekFields.ISO.weekOfWeekBasedYear(), nextSchedule.get().getWeekNumber())
-                .with(WeekFields.ISO.dayOfWeek(), 1) // Start of week (Monday)
-                .withHour(0)
-                .withMinute(0)
-                .withSecond(0);
-        }
 
-        // If no next schedule in current year, look for first schedule of next year
-        List<MaintenanceSchedule> nextYearSchedules = maintenanceScheduleRepository
-            .findByPackIdAndYearOrderByWeekNumberAsc(board.getPack().getId(), currentYear + 1);
+        // Next scheduled maintenance for this pack, this year or the next
+        int next = maintenanceCalendar.nextAfter(board.getPack().getId(),
+                MaintenanceCalendar.slot(currentYear, currentWeek));
 
-        if (!nextYearSchedules.isEmpty()) {
-            // Use first schedule of next year
+        if (next >= 0 && MaintenanceCalendar.yearOf(next) <= currentYear + 1) {
             return now
-                .plusYears(1)
-                .with(WeekFields.ISO.weekOfWeekBasedYear(), nextYearSchedules.get(0).getWeekNumber())
-                .with(WeekFields.ISO.dayOfWeek(), 1)
+                .plusYears(MaintenanceCalendar.yearOf(next) - currentYear)
+                .with(WeekFields.ISO.weekOfWeekBasedYear(), MaintenanceCalendar.weekOf(next))
+                .with(WeekFields.ISO.dayOfWeek(), 1) // Start of week (Monday)
                 .withHour(0)
                 .withMinute(0)
                 .withSecond(0);
@@ -256,11 +229,6 @@ public class ChecklistService {
         return currentWeek + 1; // Example placeholder
     }
 
-    private int getCurrentScheduledWeek(Board board) {
-        // TODO: Implement your logic based on board's schedule.
-        return LocalDateTime.now().get(WeekFields.of(Locale.getDefault()).weekOfWeekBasedYear());
-    }
-
     private String determineWorkStatus(Integer percentage) {
         if (percentage == null || percentage == 0) {
             return "NOT_STARTED";
@@ -281,35 +249,92 @@ public class ChecklistService {
     }
 
     /**
-     * Get user progress including advanced and retard counts.
+     * Get user progress including advanced and retard counts, counted by the database.
      */
     public ProgressResponse getUserProgress(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Use technician name instead of ID for fetching checklists
-        List<Checklist> userChecklists = checklistRepository.findByTechnicianName(user.getUsername());
-
         int currentWeek = LocalDateTime.now().get(WeekFields.ISO.weekOfWeekBasedYear());
 
-        long advanced = userChecklists.stream()
-                .filter(cl -> cl.getQualityValidated() && cl.getWeekNumber() > currentWeek)
-                .count();
+        // Use technician name instead of ID for matching checklists
+        Object[] row = checklistRepository.aggregateProgress(user.getUsername(), currentWeek).get(0);
+        return toProgressResponse(count(row[0]), count(row[1]), count(row[2]), count(row[3]));
+    }
+
+    /**
+     * Progress of every technician, most completed checklists first, optionally
+     * limited to the boards of a site and/or project. Pages are cached briefly.
+     */
+    public TechnicianLeaderboardDTO getLeaderboard(Long siteId, Long projectId, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_LEADERBOARD_PAGE_SIZE) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + MAX_LEADERBOARD_PAGE_SIZE);
+        }
+        int currentWeek = LocalDateTime.now().get(WeekFields.ISO.weekOfWeekBasedYear());
+        String key = currentWeek + ":" + siteId + ":" + projectId + ":" + page + ":" + size;
 
-        long retard = userChecklists.stream()
-                .filter(cl -> !cl.getQualityValidated() && cl.getWeekNumber() < currentWeek)
-                .count();
+        long now = System.currentTimeMillis();
+        CachedLeaderboard cached = leaderboardCache.get(key);
+        if (cached != null && now - cached.loadedAt < leaderboardTtlMs) {
+            return cached.leaderboard;
+        }
 
-        long completed = userChecklists.stream()
-                .filter(cl -> cl.getQualityValidated() && cl.getWeekNumber() <= currentWeek)
-                .count();
+        Page<Object[]> rows = checklistRepository.findTechnicianProgress(
+                currentWeek, siteId, projectId, PageRequest.of(page, size));
+        List<TechnicianProgressDTO> content = rows.getContent().stream()
+                .map(row -> {
+                    ProgressResponse progress = toProgressResponse(
+                            count(row[3]), count(row[4]), count(row[5]), count(row[6]));
+                    return TechnicianProgressDTO.builder()
+                            .technicianName((String) row[0])
+                            .userId(row[1] != null ? ((Number) row[1]).longValue() : null)
+                            .fullName((String) row[2])
+                            .total(progress.getTotal())
+                            .completed(progress.getCompleted())
+                            .advanced(progress.getAdvanced())
+                            .retard(progress.getRetard())
+                            .status(progress.getStatus())
+                            .build();
+                })
+                .collect(Collectors.toList());
+        TechnicianLeaderboardDTO leaderboard = TechnicianLeaderboardDTO.builder()
+                .week(currentWeek)
+                .page(page)
+                .size(size)
+                .totalElements(rows.getTotalElements())
+                .totalPages(rows.getTotalPages())
+                .content(content)
+                .build();
+
+        if (leaderboardCache.size() >= MAX_CACHED_LEADERBOARDS) {
+            leaderboardCache.clear();
+        }
+        leaderboardCache.put(key, new CachedLeaderboard(leaderboard, now));
+        return leaderboard;
+    }
 
+    private static ProgressResponse toProgressResponse(long total, long completed, long advanced, long retard) {
         return new ProgressResponse(
-            userChecklists.size(),
+            total,
             completed,
             advanced,
             retard,
             advanced > retard ? "Advanced" : "Retard"
         );
     }
+
+    // SUM over no rows is null
+    private static long count(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    private static class CachedLeaderboard {
+        final TechnicianLeaderboardDTO leaderboard;
+        final long loadedAt;
+
+        CachedLeaderboard(TechnicianLeaderboardDTO leaderboard, long loadedAt) {
+            this.leaderboard = leaderboard;
+            this.loadedAt = loadedAt;
+        }
+    }
 }
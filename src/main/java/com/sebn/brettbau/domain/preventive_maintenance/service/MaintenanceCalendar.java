@@ -0,0 +1,270 @@
+package com.sebn.brettbau.domain.preventive_maintenance.service;
+
+import com.sebn.brettbau.domain.preventive_maintenance.repository.MaintenanceScheduleRepository;
+import com.sebn.brettbau.util.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory copy of maintenance_schedules for next/previous due week lookups.
+ *
+ * Each pack maps to a sorted int array of its scheduled slots, a slot being
+ * {@code year * 100 + week}, so lookups are a binary search and a whole
+ * calendar takes a few bytes per schedule. It is loaded at startup, kept
+ * current by MaintenanceScheduleService after each committed change and
+ * reloaded periodically to pick up changes made elsewhere.
+ */
+@Component
+public class MaintenanceCalendar {
+
+    private static final Logger logger = LoggerFactory.getLogger(MaintenanceCalendar.class);
+
+    private final MaintenanceScheduleRepository scheduleRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final Map<Long, int[]> slotsByPack = new HashMap<>();
+    // Changes seen while a reload reads the database; replayed onto the new calendar
+    private List<Change> changesDuringReload;
+    private volatile boolean loaded;
+
+    public MaintenanceCalendar(MaintenanceScheduleRepository scheduleRepository) {
+        this.scheduleRepository = scheduleRepository;
+    }
+
+    public static int slot(int year, int week) {
+        return year * 100 + week;
+    }
+
+    public static int yearOf(int slot) {
+        return slot / 100;
+    }
+
+    public static int weekOf(int slot) {
+        return slot % 100;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        reload();
+    }
+
+    @Scheduled(initialDelayString = "${maintenance.calendar.reload-interval-ms:3600000}",
+            fixedDelayString = "${maintenance.calendar.reload-interval-ms:3600000}")
+    public void scheduledReload() {
+        reload();
+    }
+
+    public synchronized void reload() {
+        lock.writeLock().lock();
+        try {
+            changesDuringReload = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Long, int[]> loadedSlots;
+        try {
+            Map<Long, List<Integer>> byPack = new HashMap<>();
+            for (Object[] row : scheduleRepository.findCalendarSlots()) {
+                byPack.computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                        .add(slot((Integer) row[1], (Integer) row[2]));
+            }
+            loadedSlots = new HashMap<>(byPack.size() * 2);
+            for (Map.Entry<Long, List<Integer>> entry : byPack.entrySet()) {
+                loadedSlots.put(entry.getKey(),
+                        entry.getValue().stream().mapToInt(Integer::intValue).sorted().distinct().toArray());
+            }
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                changesDuringReload = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.error("Maintenance calendar reload failed: {}", ex.getMessage(), ex);
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            List<Change> changes = changesDuringReload;
+            changesDuringReload = null;
+            slotsByPack.clear();
+            slotsByPack.putAll(loadedSlots);
+            for (Change change : changes) {
+                apply(change);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Maintenance calendar loaded: {} packs", loadedSlots.size());
+    }
+
+    /**
+     * Add a scheduled week once the current transaction commits.
+     */
+    public void add(Long packId, int year, int week) {
+        TransactionHooks.afterCommit(() -> change(new Change(packId, slot(year, week), true)));
+    }
+
+    /**
+     * Remove a scheduled week once the current transaction commits.
+     */
+    public void remove(Long packId, int year, int week) {
+        TransactionHooks.afterCommit(() -> change(new Change(packId, slot(year, week), false)));
+    }
+
+    /**
+     * First scheduled slot of the pack after the given one, or -1.
+     */
+    public int nextAfter(Long packId, int slot) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            int[] slots = slotsByPack.get(packId);
+            if (slots == null) {
+                return -1;
+            }
+            int at = Arrays.binarySearch(slots, slot);
+            at = at >= 0 ? at + 1 : -at - 1;
+            return at < slots.length ? slots[at] : -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Last scheduled slot of the pack before the given one, or -1.
+     */
+    public int previousBefore(Long packId, int slot) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            int[] slots = slotsByPack.get(packId);
+            if (slots == null) {
+                return -1;
+            }
+            int at = Arrays.binarySearch(slots, slot);
+            at = at >= 0 ? at - 1 : -at - 2;
+            return at >= 0 ? slots[at] : -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scheduled weeks of the pack in the given year, ascending.
+     */
+    public List<Integer> weeks(Long packId, int year) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            int[] slots = slotsByPack.get(packId);
+            if (slots == null) {
+                return List.of();
+            }
+            List<Integer> weeks = new ArrayList<>();
+            for (int i = firstAtOrAfter(slots, slot(year, 0)); i < slots.length && yearOf(slots[i]) == year; i++) {
+                weeks.add(weekOf(slots[i]));
+            }
+            return weeks;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scheduled slots of every pack between from and to (both inclusive), as packId -> slots.
+     */
+    public Map<Long, int[]> between(int from, int to) {
+        ensureLoaded();
+        Map<Long, int[]> due = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<Long, int[]> entry : slotsByPack.entrySet()) {
+                int[] slots = entry.getValue();
+                int start = firstAtOrAfter(slots, from);
+                int end = firstAtOrAfter(slots, to + 1);
+                if (start < end) {
+                    due.put(entry.getKey(), Arrays.copyOfRange(slots, start, end));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return due;
+    }
+
+    // ----------------------------------------------------------------------
+
+    // Loads on first use if a lookup comes in before the startup load
+    private void ensureLoaded() {
+        if (!loaded) {
+            reload();
+        }
+    }
+
+    private void change(Change change) {
+        lock.writeLock().lock();
+        try {
+            apply(change);
+            if (changesDuringReload != null) {
+                changesDuringReload.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(Change change) {
+        int[] slots = slotsByPack.getOrDefault(change.packId, new int[0]);
+        int at = Arrays.binarySearch(slots, change.slot);
+        if (change.added && at < 0) {
+            at = -at - 1;
+            int[] grown = new int[slots.length + 1];
+            System.arraycopy(slots, 0, grown, 0, at);
+            grown[at] = change.slot;
+            System.arraycopy(slots, at, grown, at + 1, slots.length - at);
+            slotsByPack.put(change.packId, grown);
+        } else if (!change.added && at >= 0) {
+            if (slots.length == 1) {
+                slotsByPack.remove(change.packId);
+                return;
+            }
+            int[] shrunk = new int[slots.length - 1];
+            System.arraycopy(slots, 0, shrunk, 0, at);
+            System.arraycopy(slots, at + 1, shrunk, at, slots.length - at - 1);
+            slotsByPack.put(change.packId, shrunk);
+        }
+    }
+
+    private static int firstAtOrAfter(int[] slots, int slot) {
+        int at = Arrays.binarySearch(slots, slot);
+        return at >= 0 ? at : -at - 1;
+    }
+
+    private static class Change {
+        final Long packId;
+        final int slot;
+        final boolean added;
+
+        Change(Long packId, int slot, boolean added) {
+            this.packId = packId;
+            this.slot = slot;
+            this.added = added;
+        }
+    }
+}
@@ -1,24 +1,46 @@
 package com.sebn.brettbau.domain.preventive_maintenance.service;
 
+import com.sebn.brettbau.domain.preventive_maintenance.dto.MaintenanceDueDTO;
 import com.sebn.brettbau.domain.preventive_maintenance.dto.MaintenanceScheduleDTO;
 import com.sebn.brettbau.domain.preventive_maintenance.entity.MaintenanceSchedule;
+import com.sebn.brettbau.domain.preventive_maintenance.entity.Pack;
 import com.sebn.brettbau.domain.preventive_maintenance.mapper.MaintenanceScheduleMapper;
 import com.sebn.brettbau.domain.preventive_maintenance.repository.MaintenanceScheduleRepository;
+import com.sebn.brettbau.domain.preventive_maintenance.repository.PackRepository;
 import com.sebn.brettbau.exception.ResourceNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class MaintenanceScheduleService {
     private final MaintenanceScheduleRepository scheduleRepository;
     private final MaintenanceScheduleMapper scheduleMapper;
+    private final MaintenanceStatusService maintenanceStatusService;
+    private final MaintenanceCalendar calendar;
+    private final PackRepository packRepository;
+
+    public static final int MAX_DUE_WEEKS = 104;
 
     public MaintenanceScheduleService(MaintenanceScheduleRepository scheduleRepository,
-                                      MaintenanceScheduleMapper scheduleMapper) {
+                                      MaintenanceScheduleMapper scheduleMapper,
+                                      MaintenanceStatusService maintenanceStatusService,
+                                      MaintenanceCalendar calendar,
+                                      PackRepository packRepository) {
         this.scheduleRepository = scheduleRepository;
         this.scheduleMapper = scheduleMapper;
+        this.maintenanceStatusService = maintenanceStatusService;
+        this.calendar = calendar;
+        this.packRepository = packRepository;
     }
 
     public List<MaintenanceScheduleDTO> getAllSchedules() {
@@ -37,6 +59,8 @@ public class MaintenanceScheduleService {
 
         MaintenanceSchedule schedule = scheduleMapper.toEntity(dto);
         MaintenanceSchedule saved = scheduleRepository.save(schedule);
+        calendar.add(saved.getPackId(), saved.getYear(), saved.getWeekNumber());
+        maintenanceStatusService.invalidatePack(saved.getPackId());
         return scheduleMapper.toDTO(saved);
     }
 
@@ -45,6 +69,58 @@ public class MaintenanceScheduleService {
                 .findByProjectIdAndPackIdAndWeekNumber(projectId, packId, weekNumber)
                 .orElseThrow(() -> new ResourceNotFoundException("Maintenance schedule not found."));
         scheduleRepository.delete(schedule);
+        calendar.remove(schedule.getPackId(), schedule.getYear(), schedule.getWeekNumber());
+        maintenanceStatusService.invalidatePack(packId);
+    }
+
+    /**
+     * Packs scheduled in the current ISO week or the weeks - 1 weeks after it,
+     * soonest first. Served from the in-memory calendar.
+     */
+    public List<MaintenanceDueDTO> getDue(int weeks) {
+        if (weeks < 1 || weeks > MAX_DUE_WEEKS) {
+            throw new IllegalArgumentException("weeks must be between 1 and " + MAX_DUE_WEEKS);
+        }
+        LocalDate monday = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        LocalDate lastMonday = monday.plusWeeks(weeks - 1L);
+        Map<Long, int[]> due = calendar.between(isoSlot(monday), isoSlot(lastMonday));
+        if (due.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, String> packNames = packRepository.findAllById(due.keySet()).stream()
+                .collect(Collectors.toMap(Pack::getId, pack -> pack.getName() != null ? pack.getName() : ""));
+
+        List<MaintenanceDueDTO> result = new ArrayList<>();
+        due.forEach((packId, slots) -> {
+            for (int slot : slots) {
+                int year = MaintenanceCalendar.yearOf(slot);
+                int week = MaintenanceCalendar.weekOf(slot);
+                LocalDate inYear = LocalDate.of(year, 1, 4);
+                if (week < 1 || week > inYear.range(IsoFields.WEEK_OF_WEEK_BASED_YEAR).getMaximum()) {
+                    // Week 53 of a 52-week year; no such week
+                    continue;
+                }
+                LocalDate weekStart = inYear
+                        .with(IsoFields.WEEK_OF_WEEK_BASED_YEAR, week)
+                        .with(DayOfWeek.MONDAY);
+                result.add(MaintenanceDueDTO.builder()
+                        .packId(packId)
+                        .packName(packNames.get(packId))
+                        .year(year)
+                        .weekNumber(week)
+                        .weekStart(weekStart)
+                        .weeksAhead((int) ChronoUnit.WEEKS.between(monday, weekStart))
+                        .build());
+            }
+        });
+        result.sort(Comparator.comparing(MaintenanceDueDTO::getWeekStart)
+                .thenComparing(MaintenanceDueDTO::getPackId));
+        return result;
+    }
+
+    private static int isoSlot(LocalDate date) {
+        return MaintenanceCalendar.slot(date.get(IsoFields.WEEK_BASED_YEAR), date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
     }
 }
 
@@ -0,0 +1,311 @@
+package com.sebn.brettbau.domain.preventive_maintenance.service;
+
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardWeekStatusDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.MaintenanceStatusSummaryDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.entity.Pack;
+import com.sebn.brettbau.domain.preventive_maintenance.enums.BoardMaintenanceStatus;
+import com.sebn.brettbau.domain.preventive_maintenance.repository.BoardRepository;
+import com.sebn.brettbau.domain.preventive_maintenance.repository.ChecklistRepository;
+import com.sebn.brettbau.domain.preventive_maintenance.repository.PackRepository;
+import com.sebn.brettbau.util.TransactionHooks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Maintenance status of many boards at once.
+ *
+ * For the packs of a site/project (or a single pack) the boards and each
+ * board's latest checklist are read with one query each, whatever the number
+ * of boards; scheduled weeks come from the in-memory MaintenanceCalendar. Results are cached per (pack, year,
+ * week) until a checklist, schedule or board of that pack changes. Only existing packs and weeks within
+ * MAX_YEARS_AWAY of today are cached, and each pack keeps at most max-weeks-per-pack weeks; expired and
+ * least recently computed weeks of a pack are dropped whenever it is recomputed.
+ */
+@Service
+public class MaintenanceStatusService {
+
+    // Statuses can be asked for this many years before or after the current one
+    public static final int MAX_YEARS_AWAY = 10;
+
+    private final PackRepository packRepository;
+    private final BoardRepository boardRepository;
+    private final MaintenanceCalendar calendar;
+    private final ChecklistRepository checklistRepository;
+
+    // packId -> "year-week" -> statuses of the pack's boards
+    private final Map<Long, Map<String, CachedStatuses>> cache = new ConcurrentHashMap<>();
+    // Bumped on every invalidation, so results computed meanwhile are not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    @Value("${maintenance.status-cache.ttl-ms:600000}")
+    private long ttlMs;
+
+    @Value("${maintenance.status-cache.max-weeks-per-pack:8}")
+    private int maxWeeksPerPack;
+
+    public MaintenanceStatusService(PackRepository packRepository,
+                                    BoardRepository boardRepository,
+                                    MaintenanceCalendar calendar,
+                                    ChecklistRepository checklistRepository) {
+        this.packRepository = packRepository;
+        this.boardRepository = boardRepository;
+        this.calendar = calendar;
+        this.checklistRepository = checklistRepository;
+    }
+
+    /**
+     * Status of every board in scope for an ISO week; year and week default to the current week.
+     */
+    public MaintenanceStatusSummaryDTO getStatuses(Long siteId, Long projectId, Long packId,
+                                                   Integer year, Integer week) {
+        LocalDate today = LocalDate.now();
+        int statusYear = year != null ? year : today.get(IsoFields.WEEK_BASED_YEAR);
+        int statusWeek = week != null ? week : today.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+        int currentYear = today.get(IsoFields.WEEK_BASED_YEAR);
+        if (Math.abs(statusYear - currentYear) > MAX_YEARS_AWAY) {
+            throw new IllegalArgumentException("year must be between " + (currentYear - MAX_YEARS_AWAY) +
+                    " and " + (currentYear + MAX_YEARS_AWAY));
+        }
+        long weeksInYear = LocalDate.of(statusYear, 1, 4).range(IsoFields.WEEK_OF_WEEK_BASED_YEAR).getMaximum();
+        if (statusWeek < 1 || statusWeek > weeksInYear) {
+            throw new IllegalArgumentException("week must be between 1 and " + weeksInYear + " in " + statusYear);
+        }
+        List<Long> packIds = resolvePacks(siteId, projectId, packId);
+
+        String weekKey = statusYear + "-" + statusWeek;
+        List<BoardWeekStatusDTO> boards = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Long id : packIds) {
+            CachedStatuses cached = cache.getOrDefault(id, Map.of()).get(weekKey);
+            if (cached != null && now - cached.loadedAt < ttlMs) {
+                boards.addAll(cached.statuses);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<Long, List<BoardWeekStatusDTO>> computed = compute(missing, statusYear, statusWeek);
+            computed.values().forEach(boards::addAll);
+        }
+        boards.sort(Comparator.comparing(BoardWeekStatusDTO::getBoardId));
+
+        Map<BoardMaintenanceStatus, Long> counts = new EnumMap<>(BoardMaintenanceStatus.class);
+        for (BoardMaintenanceStatus status : BoardMaintenanceStatus.values()) {
+            counts.put(status, 0L);
+        }
+        boards.forEach(board -> counts.merge(board.getStatus(), 1L, Long::sum));
+
+        return MaintenanceStatusSummaryDTO.builder()
+                .year(statusYear)
+                .week(statusWeek)
+                .packIds(packIds)
+                .counts(counts)
+                .boards(boards)
+                .build();
+    }
+
+    /**
+     * Status rule shared by the single-board and the batch API.
+     *
+     * @param checklistWeek     week of the latest checklist, null if unknown
+     * @param validated         whether the latest checklist is quality validated
+     * @param hasChecklist      false if the board has no checklist at all
+     * @param currentWeek       week the status is computed for
+     * @param scheduledWeeks    scheduled weeks of the board's pack
+     */
+    public static BoardMaintenanceStatus evaluate(Integer checklistWeek, Boolean validated, boolean hasChecklist,
+                                                  int currentWeek, List<Integer> scheduledWeeks) {
+        // Closest scheduled week (past or future)
+        Optional<Integer> nextScheduledWeek = scheduledWeeks.stream()
+                .filter(week -> week >= currentWeek)
+                .min(Integer::compareTo);
+        Optional<Integer> previousScheduledWeek = scheduledWeeks.stream()
+                .filter(week -> week < currentWeek)
+                .max(Integer::compareTo);
+
+        if (!hasChecklist) {
+            // No checklist exists - determine if we're behind schedule
+            return previousScheduledWeek.isPresent()
+                    ? BoardMaintenanceStatus.RETARD
+                    : BoardMaintenanceStatus.PENDING;
+        }
+
+        boolean isValidated = Boolean.TRUE.equals(validated);
+        if (isValidated && checklistWeek != null) {
+            if (nextScheduledWeek.isPresent() && checklistWeek < nextScheduledWeek.get()) {
+                return BoardMaintenanceStatus.ADVANCED;
+            } else if (previousScheduledWeek.isPresent() && checklistWeek <= previousScheduledWeek.get()) {
+                return BoardMaintenanceStatus.COMPLETED;
+            }
+        }
+
+        // Behind schedule
+        if (!isValidated && checklistWeek != null
+                && previousScheduledWeek.isPresent() && checklistWeek <= previousScheduledWeek.get()) {
+            return BoardMaintenanceStatus.RETARD;
+        }
+
+        // In progress but not yet due
+        if (!isValidated) {
+            return BoardMaintenanceStatus.IN_PROGRESS;
+        }
+        return BoardMaintenanceStatus.PENDING;
+    }
+
+    /**
+     * Drop cached statuses of a pack once the current transaction commits.
+     */
+    public void invalidatePack(Long packId) {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            if (packId != null) {
+                cache.remove(packId);
+            }
+        });
+    }
+
+    /**
+     * Drop all cached statuses once the current transaction commits.
+     */
+    public void invalidateAll() {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            cache.clear();
+        });
+    }
+
+    // ----------------------------------------------------------------------
+
+    private List<Long> resolvePacks(Long siteId, Long projectId, Long packId) {
+        if (packId != null) {
+            // Unknown ids are rejected, so nothing is cached for them
+            if (!cache.containsKey(packId) && !packRepository.existsById(packId)) {
+                throw new IllegalArgumentException("Pack not found: " + packId);
+            }
+            return List.of(packId);
+        }
+        List<Pack> packs;
+        if (siteId != null && projectId != null) {
+            packs = packRepository.findBySiteIdAndProjectId(siteId, projectId);
+        } else if (siteId != null) {
+            packs = packRepository.findBySiteId(siteId);
+        } else if (projectId != null) {
+            packs = packRepository.findByProjectId(projectId);
+        } else {
+            throw new IllegalArgumentException("siteId, projectId or packId is required");
+        }
+        return packs.stream().map(Pack::getId).sorted().collect(Collectors.toList());
+    }
+
+    // Two queries for any number of packs and boards
+    private Map<Long, List<BoardWeekStatusDTO>> compute(List<Long> packIds, int year, int week) {
+        long loadedGeneration = generation.get();
+        long loadedAt = System.currentTimeMillis();
+
+        Map<Long, List<Integer>> scheduledWeeks = new HashMap<>();
+        packIds.forEach(id -> scheduledWeeks.put(id, calendar.weeks(id, year)));
+
+        Map<Long, Object[]> latest = new HashMap<>();
+        for (Object[] row : checklistRepository.findLatestByPackIds(packIds)) {
+            // Rows are ordered by board, highest id first; keep the first
+            latest.putIfAbsent(((Number) row[0]).longValue(), row);
+        }
+
+        Map<Long, List<BoardWeekStatusDTO>> byPack = new HashMap<>();
+        packIds.forEach(id -> byPack.put(id, new ArrayList<>()));
+        for (Object[] board : boardRepository.findStatusKeysByPackIds(packIds)) {
+            Long boardId = (Long) board[0];
+            Long packId = (Long) board[2];
+            Object[] checklist = latest.get(boardId);
+            Integer checklistWeek = checklist != null && checklist[1] != null ? ((Number) checklist[1]).intValue() : null;
+            Boolean validated = checklist != null ? toBoolean(checklist[2]) : null;
+            BoardMaintenanceStatus status = evaluate(checklistWeek, validated, checklist != null, week,
+                    scheduledWeeks.getOrDefault(packId, List.of()));
+            byPack.get(packId).add(BoardWeekStatusDTO.builder()
+                    .boardId(boardId)
+                    .boardNumber((String) board[1])
+                    .packId(packId)
+                    .status(status)
+                    .checklistWeek(checklistWeek)
+                    .qualityValidated(validated)
+                    .build());
+        }
+
+        String weekKey = year + "-" + week;
+        synchronized (this) {
+            if (generation.get() == loadedGeneration) {
+                byPack.forEach((packId, statuses) -> {
+                    Map<String, CachedStatuses> weeks = cache.computeIfAbsent(packId, id -> new ConcurrentHashMap<>());
+                    weeks.put(weekKey, new CachedStatuses(statuses, loadedAt));
+                    prune(weeks, loadedAt);
+                });
+            }
+        }
+        return byPack;
+    }
+
+    // Drops expired weeks of a pack, then the oldest ones beyond maxWeeksPerPack; called with the lock held
+    private void prune(Map<String, CachedStatuses> weeks, long now) {
+        weeks.values().removeIf(cached -> now - cached.loadedAt >= ttlMs);
+        int excess = weeks.size() - maxWeeksPerPack;
+        if (excess > 0) {
+            weeks.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().loadedAt))
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList())
+                    .forEach(weeks::remove);
+        }
+    }
+
+    // bit(1) columns come back as Boolean or, depending on the driver settings, as a number or byte[]
+    private static Boolean toBoolean(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).intValue() != 0;
+        }
+        if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            return bytes.length > 0 && bytes[0] != 0;
+        }
+        return Boolean.valueOf(value.toString());
+    }
+
+    // Changes to the cache are applied one at a time, like loads
+    private void afterCommit(Runnable action) {
+        TransactionHooks.afterCommit(() -> {
+            synchronized (this) {
+                action.run();
+            }
+        });
+    }
+
+    private static class CachedStatuses {
+        final List<BoardWeekStatusDTO> statuses;
+        final long loadedAt;
+
+        CachedStatuses(List<BoardWeekStatusDTO> statuses, long loadedAt) {
+            this.statuses = statuses;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -20,15 +20,18 @@ public class PackService {
     private final SiteRepository siteRepository;
     private final ProjectRepository projectRepository;
     private final PackMapper packMapper;
+    private final ReferenceDataVersions referenceDataVersions;
 
     public PackService(PackRepository packRepository,
                        SiteRepository siteRepository,
                        ProjectRepository projectRepository,
-                       PackMapper packMapper) {
+                       PackMapper packMapper,
+                       ReferenceDataVersions referenceDataVersions) {
         this.packRepository = packRepository;
         this.siteRepository = siteRepository;
         this.projectRepository = projectRepository;
         this.packMapper = packMapper;
+        this.referenceDataVersions = referenceDataVersions;
     }
 
     public List<PackDTO> getAllPacks() {
@@ -58,6 +61,7 @@ public class PackService {
 
         Pack pack = packMapper.toEntity(dto);
         Pack saved = packRepository.save(pack);
+        referenceDataVersions.bump(ReferenceDataVersions.Aggregate.PACKS);
         return packMapper.toDTO(saved);
     }
 
@@ -84,6 +88,7 @@ public class PackService {
         }
 
         Pack updatedPack = packRepository.save(existingPack);
+        referenceDataVersions.bump(ReferenceDataVersions.Aggregate.PACKS);
         return packMapper.toDTO(updatedPack);
     }
 
@@ -92,6 +97,7 @@ public class PackService {
             throw new ResourceNotFoundException("Pack not found with id " + id);
         }
         packRepository.deleteById(id);
+        referenceDataVersions.bump(ReferenceDataVersions.Aggregate.PACKS, ReferenceDataVersions.Aggregate.BOARDS);
     }
 
     public List<PackDTO> getPacksBySiteId(Long siteId) {
@@ -14,10 +14,13 @@ import java.util.stream.Collectors;
 public class ProjectService {
     private final ProjectRepository projectRepository;
     private final SiteRepository siteRepository;
+    private final ReferenceDataVersions referenceDataVersions;
 
-    public ProjectService(ProjectRepository projectRepository, SiteRepository siteRepository) {
+    public ProjectService(ProjectRepository projectRepository, SiteRepository siteRepository,
+                          ReferenceDataVersions referenceDataVersions) {
         this.projectRepository = projectRepository;
         this.siteRepository = siteRepository;
+        this.referenceDataVersions = referenceDataVersions;
     }
 
     public List<ProjectDTO> getAllProjects() {
@@ -38,6 +41,7 @@ public class ProjectService {
         project.setSite(siteRepository.findById(dto.getSiteId())
                 .orElseThrow(() -> new RuntimeException("Site not found with id " + dto.getSiteId())));
         Project saved = projectRepository.save(project);
+        referenceDataVersions.bump(ReferenceDataVersions.Aggregate.PROJECTS);
         return ProjectMapper.toDTO(saved);
     }
 
@@ -51,6 +55,7 @@ public class ProjectService {
                     .orElseThrow(() -> new RuntimeException("Site not found with id " + dto.getSiteId())));
         }
         Project updated = projectRepository.save(project);
+        referenceDataVersions.bump(ReferenceDataVersions.Aggregate.PROJECTS);
         return ProjectMapper.toDTO(updated);
     }
 
@@ -59,6 +64,7 @@ public class ProjectService {
             throw new RuntimeException("Project not found with id " + id);
         }
         projectRepository.deleteById(id);
+        referenceDataVersions.bump(ReferenceDataVersions.Aggregate.PROJECTS);
     }
 }
 
@@ -0,0 +1,100 @@
+package com.sebn.brettbau.domain.preventive_maintenance.service;
+
+import com.sebn.brettbau.domain.preventive_maintenance.dto.ConditionalGetStatsDTO;
+import com.sebn.brettbau.util.TransactionHooks;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters of the reference data lists the front-end polls (boards,
+ * packs, sites, projects), used as strong ETags.
+ *
+ * Services bump an aggregate after each committed write; list endpoints take
+ * the ETag before reading and answer 304 Not Modified when the client's
+ * If-None-Match still matches, without querying or serializing the list.
+ * The ETag starts with a per-startup epoch so counters that restart at zero
+ * never match a tag handed out before a restart.
+ */
+@Component
+public class ReferenceDataVersions {
+
+    public enum Aggregate {
+        BOARDS, PACKS, SITES, PROJECTS
+    }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Aggregate, AtomicLong> versions = new EnumMap<>(Aggregate.class);
+    private final Map<Aggregate, AtomicLong> notModified = new EnumMap<>(Aggregate.class);
+    private final AtomicLong totalNotModified = new AtomicLong();
+
+    public ReferenceDataVersions() {
+        for (Aggregate aggregate : Aggregate.values()) {
+            versions.put(aggregate, new AtomicLong());
+            notModified.put(aggregate, new AtomicLong());
+        }
+    }
+
+    /**
+     * Bump the given aggregates once the current transaction commits.
+     */
+    public void bump(Aggregate... aggregates) {
+        TransactionHooks.afterCommit(() -> {
+            for (Aggregate aggregate : aggregates) {
+                versions.get(aggregate).incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Strong ETag of a response built from the given aggregates. Take it before
+     * reading the data, so a concurrent write can only make the tag older.
+     */
+    public String etag(Aggregate... aggregates) {
+        StringBuilder tag = new StringBuilder("\"").append(epoch);
+        for (Aggregate aggregate : aggregates) {
+            tag.append('-').append(aggregate.name().charAt(0)).append(versions.get(aggregate).get());
+        }
+        return tag.append('"').toString();
+    }
+
+    /**
+     * Whether the If-None-Match header matches the ETag; counts a short-circuited
+     * response for the endpoint's aggregate when it does.
+     */
+    public boolean notModified(String ifNoneMatch, String etag, Aggregate endpoint) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // If-None-Match uses weak comparison
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || tag.equals("*")) {
+                notModified.get(endpoint).incrementAndGet();
+                totalNotModified.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public ConditionalGetStatsDTO getStats() {
+        Map<String, Long> currentVersions = new LinkedHashMap<>();
+        Map<String, Long> shortCircuited = new LinkedHashMap<>();
+        for (Aggregate aggregate : Aggregate.values()) {
+            currentVersions.put(aggregate.name(), versions.get(aggregate).get());
+            shortCircuited.put(aggregate.name(), notModified.get(aggregate).get());
+        }
+        return ConditionalGetStatsDTO.builder()
+                .versions(currentVersions)
+                .notModified(shortCircuited)
+                .totalNotModified(totalNotModified.get())
+                .build();
+    }
+}
@@ -12,9 +12,11 @@ import java.util.stream.Collectors;
 @Service
 public class SiteService {
     private final SiteRepository siteRepository;
+    private final ReferenceDataVersions referenceDataVersions;
 
-    public SiteService(SiteRepository siteRepository) {
+    public SiteService(SiteRepository siteRepository, ReferenceDataVersions referenceDataVersions) {
         this.siteRepository = siteRepository;
+        this.referenceDataVersions = referenceDataVersions;
     }
 
     public List<SiteDTO> getAllSites() {
@@ -32,6 +34,7 @@ public class SiteService {
     public SiteDTO createSite(SiteDTO dto) {
         Site site = SiteMapper.toEntity(dto);
         Site saved = siteRepository.save(site);
+        referenceDataVersions.bump(ReferenceDataVersions.Aggregate.SITES);
         return SiteMapper.toDTO(saved);
     }
 
@@ -41,11 +44,13 @@ public class SiteService {
         site.setName(dto.getName());
         site.setLocation(dto.getLocation());
         Site updated = siteRepository.save(site);
+        referenceDataVersions.bump(ReferenceDataVersions.Aggregate.SITES);
         return SiteMapper.toDTO(updated);
     }
 
     public void deleteSite(Long id) {
         siteRepository.deleteById(id);
+        referenceDataVersions.bump(ReferenceDataVersions.Aggregate.SITES);
     }
 }
 
@@ -0,0 +1,37 @@
+package com.sebn.brettbau.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the bytes read through it, e.g. for progress reporting while a file
+ * is parsed on another thread.
+ */
+public class CountingInputStream extends FilterInputStream {
+    private final AtomicLong count;
+
+    public CountingInputStream(InputStream in, AtomicLong count) {
+        super(in);
+        this.count = count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            count.incrementAndGet();
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int n = super.read(buffer, offset, length);
+        if (n > 0) {
+            count.addAndGet(n);
+        }
+        return n;
+    }
+}
@@ -0,0 +1,108 @@
+package com.sebn.brettbau.util;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Reads the first sheet of an .xlsx file row by row with POI's SAX event API,
+ * so only the current row is held in memory (unlike XSSFWorkbook, which loads
+ * the whole sheet). Cells are returned as their formatted text; missing cells
+ * are returned as empty strings, and blank rows as empty lists, so callers can
+ * number rows as in Excel.
+ */
+public final class XlsxRowReader {
+
+    private XlsxRowReader() {
+    }
+
+    public static void read(File file, Consumer<List<String>> rowConsumer) throws IOException {
+        read(file, rowConsumer, new AtomicLong(), new AtomicLong());
+    }
+
+    /**
+     * Same as {@link #read(File, Consumer)}, reporting progress: bytesTotal is set
+     * to the uncompressed size of the sheet when the file records it (otherwise
+     * it is left as is) and bytesRead counts the sheet bytes parsed so far.
+     */
+    public static void read(File file, Consumer<List<String>> rowConsumer,
+                            AtomicLong bytesRead, AtomicLong bytesTotal) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+            try (InputStream sheet = new CountingInputStream(sheets.next(), bytesRead)) {
+                long sheetSize = sheets.getSheetPart().getSize();
+                if (sheetSize > 0) {
+                    bytesTotal.set(sheetSize);
+                }
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(
+                        reader.getStylesTable(), null, strings, new RowCollector(rowConsumer),
+                        new DataFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Could not read xlsx file: " + e.getMessage(), e);
+        }
+    }
+
+    private static class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final Consumer<List<String>> rowConsumer;
+        private List<String> current;
+        private int nextRowNum;
+
+        RowCollector(Consumer<List<String>> rowConsumer) {
+            this.rowConsumer = rowConsumer;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            // Blank rows are skipped in the file; report them as empty rows
+            while (nextRowNum < rowNum) {
+                rowConsumer.accept(new ArrayList<>());
+                nextRowNum++;
+            }
+            current = new ArrayList<>();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            rowConsumer.accept(current);
+            nextRowNum = rowNum + 1;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference != null
+                    ? new CellReference(cellReference).getCol()
+                    : current.size();
+            while (current.size() < column) {
+                current.add("");
+            }
+            current.add(formattedValue != null ? formattedValue : "");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+-- -----------------------------------------------------
+-- File: V9.10__custom_table_rows_sort_key.sql
+-- Description: Orders custom table rows by a sparse sort key instead of a
+--              dense row index, so inserting or deleting a row no longer
+--              renumbers every row below it. Existing rows keep their order
+--              and are spaced 2^32 apart.
+-- -----------------------------------------------------
+
+ALTER TABLE `custom_table_rows`
+    ADD COLUMN `sort_key` BIGINT NOT NULL DEFAULT 0 AFTER `table_id`;
+
+UPDATE `custom_table_rows`
+SET `sort_key` = (`row_index` + 1) * 4294967296;
+
+ALTER TABLE `custom_table_rows`
+    DROP INDEX `idx_rows_table_row_index`,
+    DROP COLUMN `row_index`,
+    ADD KEY `idx_rows_table_sort_key` (`table_id`, `sort_key`);
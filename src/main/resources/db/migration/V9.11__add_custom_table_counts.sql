@@ -0,0 +1,16 @@
+-- -----------------------------------------------------
+-- File: V9.11__add_custom_table_counts.sql
+-- Description: Keeps the number of rows and columns of each custom table on
+--              the table itself, so the table catalog can be listed without
+--              touching columns or rows.
+-- -----------------------------------------------------
+
+ALTER TABLE `custom_tables`
+    ADD COLUMN `row_count` INT NOT NULL DEFAULT 0,
+    ADD COLUMN `column_count` INT NOT NULL DEFAULT 0;
+
+UPDATE `custom_tables` t
+SET t.`row_count` = (SELECT COUNT(*) FROM `custom_table_rows` r WHERE r.`table_id` = t.`id`),
+    t.`column_count` = (SELECT COUNT(*) FROM `custom_table_columns` c WHERE c.`table_id` = t.`id`);
+
+CREATE INDEX `idx_custom_tables_last_modified_at` ON `custom_tables` (`last_modified_at`);
@@ -0,0 +1,14 @@
+-- -----------------------------------------------------
+-- File: V9.12__add_board_filter_indexes.sql
+-- Description: Indexes for filtering and keyset pagination of the board list.
+--              InnoDB appends the primary key to secondary indexes, so each
+--              index also serves ORDER BY <column>, id.
+-- -----------------------------------------------------
+
+CREATE INDEX `idx_boards_projet` ON `boards` (`projet`);
+CREATE INDEX `idx_boards_plant` ON `boards` (`plant`);
+CREATE INDEX `idx_boards_fb_type1` ON `boards` (`fb_type1`);
+CREATE INDEX `idx_boards_board_number` ON `boards` (`board_number`);
+CREATE INDEX `idx_boards_fb_name` ON `boards` (`fb_name`);
+CREATE INDEX `idx_boards_status` ON `boards` (`status`);
+CREATE INDEX `idx_boards_creation_date` ON `boards` (`creation_date`);
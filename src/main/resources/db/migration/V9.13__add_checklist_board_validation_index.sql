@@ -0,0 +1,8 @@
+-- -----------------------------------------------------
+-- File: V9.13__add_checklist_board_validation_index.sql
+-- Description: Lets the nightly board status job find the latest checklist
+--              of every board (MAX(validation_date) GROUP BY board_id) from
+--              the index instead of scanning checklists.
+-- -----------------------------------------------------
+
+CREATE INDEX `idx_checklists_board_validation` ON `checklists` (`board_id`, `validation_date`);
@@ -0,0 +1,8 @@
+-- -----------------------------------------------------
+-- File: V9.14__add_checklist_board_created_index.sql
+-- Description: Lets the maintenance status endpoint find the latest checklist
+--              of every board of a pack (MAX(created_at) GROUP BY board_id)
+--              from the index.
+-- -----------------------------------------------------
+
+CREATE INDEX `idx_checklists_board_created` ON `checklists` (`board_id`, `created_at`);
@@ -0,0 +1,7 @@
+-- -----------------------------------------------------
+-- File: V9.15__add_checklist_technician_index.sql
+-- Description: Lets technician progress and the leaderboard count checklists
+--              per technician from the index alone.
+-- -----------------------------------------------------
+
+CREATE INDEX `idx_checklists_technician_progress` ON `checklists` (`technician_name`, `quality_validated`, `week_number`);
@@ -0,0 +1,7 @@
+-- -----------------------------------------------------
+-- File: V9.16__add_board_family_bom_version.sql
+-- Description: Version counter of a board family and its BOM items, incremented
+--              on every change; cached BOM comparisons are keyed by it.
+-- -----------------------------------------------------
+
+ALTER TABLE `board_families` ADD COLUMN `bom_version` BIGINT NOT NULL DEFAULT 0;
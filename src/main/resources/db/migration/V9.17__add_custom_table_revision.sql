@@ -0,0 +1,10 @@
+-- -----------------------------------------------------
+-- File: V9.17__add_custom_table_revision.sql
+-- Description: Adds a revision counter to custom_tables. It moves on every
+--              change of the table data, including live cell and row edits,
+--              which leave the version alone; cached query vectors are keyed
+--              by it.
+-- -----------------------------------------------------
+
+ALTER TABLE `custom_tables`
+    ADD COLUMN `revision` BIGINT NOT NULL DEFAULT 0;
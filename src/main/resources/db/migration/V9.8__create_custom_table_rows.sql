@@ -0,0 +1,41 @@
+-- -----------------------------------------------------
+-- File: V9.8__create_custom_table_rows.sql
+-- Description: Replaces the cell-per-row custom_table_data storage with
+--              one record per table row. The cells of a row are stored as
+--              a JSON object keyed by column id.
+-- -----------------------------------------------------
+
+-- -----------------------------------------------------
+-- Table: custom_table_rows
+-- -----------------------------------------------------
+CREATE TABLE `custom_table_rows` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT,
+    `table_id` BIGINT NOT NULL,
+    `row_index` INT NOT NULL,
+    `cells` LONGTEXT DEFAULT NULL,
+    `last_modified_at` DATETIME DEFAULT NULL,
+    `last_modified_by` VARCHAR(255) DEFAULT NULL,
+    PRIMARY KEY (`id`),
+    KEY `idx_rows_table_row_index` (`table_id`, `row_index`),
+    CONSTRAINT `fk_custom_table_rows_table_id`
+        FOREIGN KEY (`table_id`)
+        REFERENCES `custom_tables` (`id`)
+        ON DELETE CASCADE
+        ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- -----------------------------------------------------
+-- Convert existing cells: one row record per (table_id, row_index)
+-- -----------------------------------------------------
+INSERT INTO `custom_table_rows` (`table_id`, `row_index`, `cells`, `last_modified_at`, `last_modified_by`)
+SELECT d.`table_id`,
+       d.`row_index`,
+       CAST(JSON_OBJECTAGG(CAST(d.`column_id` AS CHAR), d.`cell_value`) AS CHAR),
+       MAX(d.`last_modified_at`),
+       SUBSTRING_INDEX(
+           GROUP_CONCAT(d.`last_modified_by` ORDER BY d.`last_modified_at` DESC SEPARATOR '\n'),
+           '\n', 1)
+FROM `custom_table_data` d
+GROUP BY d.`table_id`, d.`row_index`;
+
+DROP TABLE `custom_table_data`;
@@ -0,0 +1,9 @@
+-- -----------------------------------------------------
+-- File: V9.9__add_custom_table_version.sql
+-- Description: Adds a version counter to custom_tables. Every write bumps
+--              it so patch requests can be checked against the version the
+--              client last saw.
+-- -----------------------------------------------------
+
+ALTER TABLE `custom_tables`
+    ADD COLUMN `version` BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,289 @@
+package com.sebn.brettbau.domain.board.service;
+
+import com.sebn.brettbau.domain.board.dto.BomComparisonItemDTO;
+import com.sebn.brettbau.domain.board.dto.BomItemDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BomMatcherTest {
+
+    private final BomMatcher matcher = new BomMatcher();
+
+    @Test
+    void smallGroupsArePairedForTheMostEqualFields() {
+        Random random = new Random(42);
+        for (int n1 = 0; n1 <= 5; n1++) {
+            for (int n2 = 0; n2 <= 5; n2++) {
+                for (int round = 0; round < 20; round++) {
+                    List<BomItemDTO> before = randomLines(random, "A", n1, 1, 3);
+                    List<BomItemDTO> after = randomLines(random, "A", n2, 1, 3);
+                    String description = n1 + "x" + n2 + ", round " + round;
+
+                    List<BomComparisonItemDTO> result = matcher.compare(before, after);
+
+                    int pairs = Math.min(n1, n2);
+                    assertThat(count(result, "REMOVED", true)).as(description).isEqualTo(n1 - pairs);
+                    assertThat(count(result, "ADDED", false)).as(description).isEqualTo(n2 - pairs);
+                    // Pairs without differences are not reported and have every field equal
+                    List<BomComparisonItemDTO> modified = result.stream()
+                            .filter(c -> c.getItem1() != null && c.getItem2() != null)
+                            .collect(Collectors.toList());
+                    int score = BomMatcher.FIELD_COUNT * pairs;
+                    for (BomComparisonItemDTO c : modified) {
+                        assertThat(c.getModifiedFields())
+                                .isEqualTo(BomMatcher.findChangedFields(c.getItem1(), c.getItem2()));
+                        score -= c.getModifiedFields().size();
+                    }
+                    assertThat(score).as(description).isEqualTo(bestScore(before, after));
+                }
+            }
+        }
+    }
+
+    @Test
+    void moreBeforeLinesThanAfterLinesArePairedTheSameWay() {
+        // p and q both nearly equal x; pairing p with x first would leave q with y
+        BomItemDTO p = line(1L, "A", 0, 0, 0, 0, 0, 0, 0, 1);
+        BomItemDTO q = line(2L, "A", 1, 0, 0, 0, 0, 0, 0, 0);
+        BomItemDTO x = line(1L, "A", 0, 0, 0, 0, 0, 0, 0, 0);
+        BomItemDTO y = line(2L, "A", 0, 1, 0, 0, 0, 0, 0, 1);
+        BomItemDTO z = line(3L, "A", 9, 9, 9, 9, 9, 9, 9, 9);
+
+        assertThat(describe(matcher.compare(List.of(p, q), List.of(x, y, z)))).containsExactly(
+                "MODIFIED 1>2 [kurzname]",
+                "MODIFIED 2>1 [segment]",
+                "ADDED null>3 null");
+        assertThat(describe(matcher.compare(List.of(x, y, z), List.of(p, q)))).containsExactly(
+                "MODIFIED 1>2 [segment]",
+                "MODIFIED 2>1 [kurzname]",
+                "REMOVED 3>null null");
+    }
+
+    @Test
+    void groupsAboveTheAssignmentLimitArePairedBestScoreFirst() {
+        // Up to the limit the pairing is optimal, above it p keeps the first line it fits best
+        List<String> optimal = describe(matcher.compare(
+                withFillers(BomMatcher.MAX_ASSIGNMENT_SIZE - 2, true),
+                withFillers(BomMatcher.MAX_ASSIGNMENT_SIZE - 2, false)));
+        assertThat(optimal.subList(0, 2)).containsExactly("MODIFIED 1>2 [kurzname]", "MODIFIED 2>1 [segment]");
+
+        List<String> greedy = describe(matcher.compare(
+                withFillers(BomMatcher.MAX_ASSIGNMENT_SIZE - 1, true),
+                withFillers(BomMatcher.MAX_ASSIGNMENT_SIZE - 1, false)));
+        assertThat(greedy.subList(0, 2)).containsExactly(
+                "MODIFIED 1>1 [price]", "MODIFIED 2>2 [segment, kurzname, price]");
+
+        for (int i = 0; i < BomMatcher.MAX_ASSIGNMENT_SIZE - 1; i++) {
+            long id = 100 + i;
+            assertThat(greedy.get(2 + i)).isEqualTo("MODIFIED " + id + ">" + id + " [price]");
+        }
+        assertThat(greedy).hasSize(BomMatcher.MAX_ASSIGNMENT_SIZE + 1);
+    }
+
+    @Test
+    void leftoverBeforeLinesAreReportedAsRemoved() {
+        List<BomItemDTO> before = List.of(
+                line(3L, "A", 1, 1, 1, 1, 1, 1, 1, 1),
+                line(1L, "A", 2, 2, 2, 2, 2, 2, 2, 2),
+                line(2L, "A", 0, 0, 0, 0, 0, 0, 0, 0),
+                line(4L, "B", 0, 0, 0, 0, 0, 0, 0, 0));
+        List<BomItemDTO> after = List.of(
+                line(7L, "A", 0, 0, 0, 0, 0, 0, 0, 0),
+                line(8L, "A", 1, 1, 1, 1, 1, 1, 1, 0));
+
+        List<BomComparisonItemDTO> result = matcher.compare(before, after);
+
+        // Line 2 equals line 7 and line 3 is closest to line 8
+        assertThat(describe(result)).containsExactly(
+                "REMOVED 4>null null",
+                "REMOVED 1>null null",
+                "MODIFIED 3>8 [price]");
+        assertThat(result.get(1).getItem2()).isNull();
+    }
+
+    @Test
+    void linesWithoutMatchcodeFormTheirOwnGroup() {
+        List<BomItemDTO> before = List.of(
+                line(1L, null, 0, 0, 0, 0, 0, 0, 0, 0),
+                line(2L, "A", 0, 0, 0, 0, 0, 0, 0, 0));
+        List<BomItemDTO> after = List.of(
+                line(1L, null, 0, 0, 0, 0, 0, 0, 0, 1),
+                line(3L, null, 5, 5, 5, 5, 5, 5, 5, 5),
+                line(2L, "A", 0, 0, 0, 0, 0, 0, 0, 0));
+
+        assertThat(describe(matcher.compare(before, after))).containsExactly(
+                "MODIFIED 1>1 [price]",
+                "ADDED null>3 null");
+
+        assertThat(describe(matcher.compare(List.of(before.get(0)), List.of(after.get(2))))).containsExactly(
+                "ADDED null>2 null",
+                "REMOVED 1>null null");
+        assertThat(describe(matcher.compare(List.of(after.get(2)), List.of(before.get(0))))).containsExactly(
+                "ADDED null>1 null",
+                "REMOVED 2>null null");
+    }
+
+    @Test
+    void largeComparisonsGiveTheSameResultEveryTime() throws Exception {
+        Random random = new Random(7);
+        List<BomItemDTO> before = new ArrayList<>();
+        List<BomItemDTO> after = new ArrayList<>();
+        Map<String, List<List<BomItemDTO>>> groups = new TreeMap<>();
+        int lines = 0;
+        for (int g = 0; lines < BomMatcher.PARALLEL_THRESHOLD * 2; g++) {
+            String matchcode = String.format("M%04d", g);
+            List<BomItemDTO> group1 = randomLines(random, matchcode, 1 + random.nextInt(8), 1 + before.size(), 3);
+            List<BomItemDTO> group2 = randomLines(random, matchcode, 1 + random.nextInt(8), 1 + after.size(), 3);
+            before.addAll(group1);
+            after.addAll(group2);
+            groups.put(matchcode, List.of(group1, group2));
+            lines += group1.size() + group2.size();
+        }
+
+        // Every matchcode is shared, so the result is the groups' results in matchcode order
+        List<String> expected = new ArrayList<>();
+        groups.values().forEach(group -> expected.addAll(describe(matcher.compare(group.get(0), group.get(1)))));
+        assertThat(expected).isNotEmpty();
+
+        assertThat(describe(matcher.compare(before, after))).isEqualTo(expected);
+        Collections.shuffle(before, random);
+        Collections.shuffle(after, random);
+        assertThat(describe(matcher.compare(before, after))).isEqualTo(expected);
+
+        BomMatcher.FamilyBom indexed1 = BomMatcher.index(before);
+        BomMatcher.FamilyBom indexed2 = BomMatcher.index(after);
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(() -> describe(matcher.compare(indexed1, indexed2))));
+        }
+        for (Future<List<String>> result : results) {
+            assertThat(result.get()).isEqualTo(expected);
+        }
+        callers.shutdown();
+    }
+
+    @Test
+    void motifMarksOnTheAfterSideAreReportedForIdenticalContent() {
+        List<BomItemDTO> before = List.of(
+                line(1L, "A", 0, 0, 0, 0, 0, 0, 0, 0),
+                line(2L, "B", 1, 1, 1, 1, 1, 1, 1, 1));
+        List<BomItemDTO> after = List.of(
+                line(1L, "A", 0, 0, 0, 0, 0, 0, 0, 0),
+                line(2L, "B", 1, 1, 1, 1, 1, 1, 1, 1));
+        assertThat(matcher.compare(before, after)).isEmpty();
+
+        // The motif is not part of the content, only of the skip decision
+        after.get(1).setMotif("added");
+        assertThat(BomMatcher.index(after).getFingerprint()).isEqualTo(BomMatcher.index(before).getFingerprint());
+        assertThat(describe(matcher.compare(before, after))).containsExactly("ADDED 2>2 []");
+
+        after.get(1).setMotif("Removed");
+        assertThat(describe(matcher.compare(before, after))).containsExactly("REMOVED 2>2 []");
+
+        after.get(1).setMotif("checked");
+        assertThat(matcher.compare(before, after)).isEmpty();
+
+        // The motif of the before side is ignored
+        after.get(1).setMotif(null);
+        before.get(0).setMotif("added");
+        assertThat(matcher.compare(before, after)).isEmpty();
+    }
+
+    // ----------------------------------------------------------------------
+
+    // Highest total of equal fields over all pairings of the smaller side
+    private static int bestScore(List<BomItemDTO> before, List<BomItemDTO> after) {
+        return bestScore(before, after, 0, new boolean[after.size()]);
+    }
+
+    private static int bestScore(List<BomItemDTO> before, List<BomItemDTO> after, int i, boolean[] used) {
+        if (i == before.size()) {
+            return 0;
+        }
+        int best = bestScore(before, after, i + 1, used);
+        for (int j = 0; j < after.size(); j++) {
+            if (!used[j]) {
+                used[j] = true;
+                int score = BomMatcher.FIELD_COUNT - BomMatcher.findChangedFields(before.get(i), after.get(j)).size();
+                best = Math.max(best, score + bestScore(before, after, i + 1, used));
+                used[j] = false;
+            }
+        }
+        return best;
+    }
+
+    // The p/q and x/y lines of the transposition test plus fillers that only fit their own partner
+    private static List<BomItemDTO> withFillers(int fillers, boolean before) {
+        List<BomItemDTO> lines = new ArrayList<>();
+        if (before) {
+            lines.add(line(1L, "A", 0, 0, 0, 0, 0, 0, 0, 1));
+            lines.add(line(2L, "A", 1, 0, 0, 0, 0, 0, 0, 0));
+        } else {
+            lines.add(line(1L, "A", 0, 0, 0, 0, 0, 0, 0, 0));
+            lines.add(line(2L, "A", 0, 1, 0, 0, 0, 0, 0, 1));
+        }
+        for (int i = 0; i < fillers; i++) {
+            int v = 10 + i;
+            lines.add(line(100L + i, "A", v, v, v, v, v, v, v, before ? v : 5000 + i));
+        }
+        return lines;
+    }
+
+    private static List<BomItemDTO> randomLines(Random random, String matchcode, int count, long firstId, int values) {
+        List<BomItemDTO> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int[] fields = new int[BomMatcher.FIELD_COUNT];
+            for (int f = 0; f < fields.length; f++) {
+                fields[f] = random.nextInt(values);
+            }
+            lines.add(line(firstId + i, matchcode, fields));
+        }
+        return lines;
+    }
+
+    private static BomItemDTO line(Long id, String matchcode, int... fields) {
+        BomItemDTO item = new BomItemDTO();
+        item.setId(id);
+        item.setIdentMatchcode(matchcode);
+        item.setSegment("S" + fields[0]);
+        item.setKurzname("K" + fields[1]);
+        item.setModelType("T" + fields[2]);
+        item.setSesamNumber("N" + fields[3]);
+        item.setMissingOnBoard(fields[4] % 2 == 1);
+        item.setQuantityOnBoard(fields[5]);
+        item.setObservation("O" + fields[6]);
+        item.setPrice((double) fields[7]);
+        return item;
+    }
+
+    private static long count(List<BomComparisonItemDTO> result, String type, boolean before) {
+        return result.stream()
+                .filter(c -> type.equals(c.getComparisonType()))
+                .filter(c -> before ? c.getItem2() == null : c.getItem1() == null)
+                .count();
+    }
+
+    private static List<String> describe(List<BomComparisonItemDTO> result) {
+        return result.stream()
+                .map(c -> c.getComparisonType() + " " + id(c.getItem1()) + ">" + id(c.getItem2())
+                        + " " + c.getModifiedFields())
+                .collect(Collectors.toList());
+    }
+
+    private static Long id(BomItemDTO item) {
+        return item != null ? item.getId() : null;
+    }
+}
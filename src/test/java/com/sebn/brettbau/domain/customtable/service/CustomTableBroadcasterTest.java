@@ -0,0 +1,142 @@
+package com.sebn.brettbau.domain.customtable.service;
+
+import com.sebn.brettbau.domain.customtable.dto.TableUpdateFrame;
+import com.sebn.brettbau.domain.customtable.dto.TableUpdateMessage;
+import com.sebn.brettbau.domain.customtable.dto.TableUpdateMessage.UpdateType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class CustomTableBroadcasterTest {
+
+    private static final Long TABLE_ID = 1L;
+
+    private SimpMessagingTemplate messagingTemplate;
+    private CustomTableBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        broadcaster = new CustomTableBroadcaster(messagingTemplate);
+        ReflectionTestUtils.setField(broadcaster, "historySize", 5);
+    }
+
+    @Test
+    void repeatedCellEditsCollapseToTheLastOne() {
+        broadcaster.publish(TABLE_ID, cell(10L, 2L, "a"));
+        broadcaster.publish(TABLE_ID, row(UpdateType.ROW_INSERT, 11L));
+        broadcaster.publish(TABLE_ID, cell(10L, 2L, "b"));
+        broadcaster.publish(TABLE_ID, cell(10L, 3L, "x"));
+        broadcaster.publish(TABLE_ID, cell(10L, 2L, "c"));
+
+        TableUpdateFrame frame = sentFrames().get(0);
+        assertThat(frame.getFromSeq()).isEqualTo(1L);
+        assertThat(frame.getToSeq()).isEqualTo(5L);
+        assertThat(frame.getOps()).extracting(TableUpdateMessage::getSeq).containsExactly(2L, 4L, 5L);
+        assertThat(frame.getOps().get(2).getNewValue()).isEqualTo("c");
+    }
+
+    @Test
+    void catchingUpFromBeforeTheHistoryRequiresAResync() {
+        for (int i = 0; i < 8; i++) {
+            broadcaster.publish(TABLE_ID, cell(10L, 2L, "v" + i));
+        }
+
+        // Seqs 4..8 are kept
+        TableUpdateFrame tooOld = broadcaster.getUpdatesSince(TABLE_ID, 2, null);
+        assertThat(tooOld.isResync()).isTrue();
+        assertThat(tooOld.getOps()).isEmpty();
+
+        TableUpdateFrame caughtUp = broadcaster.getUpdatesSince(TABLE_ID, 3, null);
+        assertThat(caughtUp.isResync()).isFalse();
+        assertThat(caughtUp.getFromSeq()).isEqualTo(4L);
+        assertThat(caughtUp.getToSeq()).isEqualTo(8L);
+        assertThat(caughtUp.getOps()).extracting(TableUpdateMessage::getSeq).containsExactly(4L, 5L, 6L, 7L, 8L);
+    }
+
+    @Test
+    void anotherEpochRequiresAResync() {
+        broadcaster.publish(TABLE_ID, cell(10L, 2L, "a"));
+        long epoch = broadcaster.getUpdatesSince(TABLE_ID, 0, null).getEpoch();
+
+        assertThat(broadcaster.getUpdatesSince(TABLE_ID, 1, epoch).isResync()).isFalse();
+        assertThat(broadcaster.getUpdatesSince(TABLE_ID, 1, epoch - 1).isResync()).isTrue();
+        // A table without any operation since the restart
+        assertThat(broadcaster.getUpdatesSince(2L, 1, epoch - 1).isResync()).isTrue();
+    }
+
+    @Test
+    void consecutiveFramesLeaveNoGaps() throws Exception {
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            long rowId = t;
+            futures.add(writers.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    broadcaster.publish(TABLE_ID, cell(rowId, (long) (i % 7), "v" + i));
+                }
+            }));
+        }
+        // Ticks run while operations are still published
+        while (futures.stream().anyMatch(future -> !future.isDone())) {
+            broadcaster.sendPending();
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        writers.shutdown();
+        writers.awaitTermination(10, TimeUnit.SECONDS);
+
+        List<TableUpdateFrame> frames = sentFrames();
+        long expectedFrom = 1;
+        for (TableUpdateFrame frame : frames) {
+            assertThat(frame.getFromSeq()).isEqualTo(expectedFrom);
+            assertThat(frame.getToSeq()).isGreaterThanOrEqualTo(frame.getFromSeq());
+            assertThat(frame.getOps()).allSatisfy(op ->
+                    assertThat(op.getSeq()).isBetween(frame.getFromSeq(), frame.getToSeq()));
+            expectedFrom = frame.getToSeq() + 1;
+        }
+        assertThat(expectedFrom - 1).isEqualTo(2000L);
+    }
+
+    // Flushes pending operations and returns every frame sent so far
+    private List<TableUpdateFrame> sentFrames() {
+        broadcaster.sendPending();
+        ArgumentCaptor<Object> frames = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, atLeastOnce())
+                .convertAndSend(eq(CustomTableBroadcaster.topic(TABLE_ID)), frames.capture());
+        return frames.getAllValues().stream().map(TableUpdateFrame.class::cast).collect(Collectors.toList());
+    }
+
+    private static TableUpdateMessage cell(Long rowId, Long columnId, String value) {
+        TableUpdateMessage op = new TableUpdateMessage();
+        op.setUpdateType(UpdateType.CELL_UPDATE);
+        op.setRowId(rowId);
+        op.setColumnId(columnId);
+        op.setNewValue(value);
+        return op;
+    }
+
+    private static TableUpdateMessage row(UpdateType type, Long rowId) {
+        TableUpdateMessage op = new TableUpdateMessage();
+        op.setUpdateType(type);
+        op.setRowId(rowId);
+        return op;
+    }
+}
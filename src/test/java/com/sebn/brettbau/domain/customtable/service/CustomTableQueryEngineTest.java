@@ -0,0 +1,254 @@
+package com.sebn.brettbau.domain.customtable.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sebn.brettbau.domain.customtable.dto.CustomTableQueryDTO;
+import com.sebn.brettbau.domain.customtable.dto.CustomTableQueryResultDTO;
+import com.sebn.brettbau.domain.customtable.dto.TableQueryAggregateDTO;
+import com.sebn.brettbau.domain.customtable.dto.TableQueryFilterDTO;
+import com.sebn.brettbau.domain.customtable.dto.TableQuerySortDTO;
+import com.sebn.brettbau.domain.customtable.entity.CustomColumn;
+import com.sebn.brettbau.domain.customtable.entity.CustomTable;
+import com.sebn.brettbau.domain.customtable.entity.CustomTableRow;
+import com.sebn.brettbau.domain.customtable.repository.CustomColumnRepository;
+import com.sebn.brettbau.domain.customtable.repository.CustomTableRepository;
+import com.sebn.brettbau.domain.customtable.repository.CustomTableRowRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CustomTableQueryEngineTest {
+
+    private static final Long TABLE_ID = 1L;
+    private static final Long NAME = 1L;
+    private static final Long HOURS = 2L;
+    private static final Long DUE = 3L;
+    private static final Long DONE = 4L;
+
+    private final CustomTableRowCodec rowCodec = new CustomTableRowCodec(new ObjectMapper());
+    private final List<CustomTableRow> rows = new ArrayList<>();
+    private CustomTable table;
+    private CustomTableRowRepository rowRepository;
+    private CustomTableQueryEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        table = CustomTable.builder().id(TABLE_ID).name("Tasks").version(1L).revision(1L).build();
+        CustomTableRepository tableRepository = mock(CustomTableRepository.class);
+        when(tableRepository.findById(TABLE_ID)).thenReturn(Optional.of(table));
+
+        CustomColumnRepository columnRepository = mock(CustomColumnRepository.class);
+        when(columnRepository.findByTableIdOrderByOrderIndexAsc(TABLE_ID)).thenReturn(List.of(
+                column(NAME, "Name", "TEXT", null),
+                column(HOURS, "Hours", "NUMBER", null),
+                // Front-end pattern: DD and YYYY mean day-of-year and week-based year in java
+                column(DUE, "Due", "DATE", "DD/MM/YYYY"),
+                column(DONE, "Done", "BOOLEAN", null)));
+
+        // Ids 1..5; null leaves the cell out
+        addRow("Alpha", "10", "05/03/2024", "true");
+        addRow("", "2,5", "29/02/2024", "no");
+        addRow(null, "abc", "31/02/2024", null);
+        addRow("beta", null, "2024-03-01", "1");
+        addRow("Alpha", "-4", null, "false");
+
+        rowRepository = mock(CustomTableRowRepository.class);
+        when(rowRepository.findChunkAfter(eq(TABLE_ID), anyLong(), anyLong(), anyInt()))
+                .thenAnswer(invocation -> new ArrayList<>(rows));
+
+        engine = new CustomTableQueryEngine(tableRepository, columnRepository, rowRepository, rowCodec,
+                mock(CustomTableHotCache.class));
+        ReflectionTestUtils.setField(engine, "maxCachedTables", 20);
+    }
+
+    @Test
+    void emptinessFiltersTreatMissingAndBlankCellsAlike() {
+        assertThat(rowIds(filter(NAME, "IS_EMPTY", null))).containsExactly(2L, 3L);
+        assertThat(rowIds(filter(NAME, "NOT_EMPTY", null))).containsExactly(1L, 4L, 5L);
+        // An unparseable date is not empty
+        assertThat(rowIds(filter(DUE, "IS_EMPTY", null))).containsExactly(5L);
+    }
+
+    @Test
+    void textFiltersSkipMissingAndBlankCells() {
+        assertThat(rowIds(filter(NAME, "EQ", " alpha "))).containsExactly(1L, 5L);
+        // Rows without a value are never equal, so they are "not equal"
+        assertThat(rowIds(filter(NAME, "NE", "alpha"))).containsExactly(2L, 3L, 4L);
+        assertThat(rowIds(filter(NAME, "CONTAINS", "A"))).containsExactly(1L, 4L, 5L);
+        assertThat(rowIds(filter(NAME, "STARTS_WITH", "al"))).containsExactly(1L, 5L);
+        assertThat(rowIds(filter(NAME, "GT", "alpha"))).containsExactly(4L);
+        assertThat(rowIds(filter(NAME, "LE", "alpha"))).containsExactly(1L, 5L);
+        assertThat(rowIds(filter(NAME, "IN", null, "beta", ""))).containsExactly(4L);
+    }
+
+    @Test
+    void numberFiltersSkipMissingAndUnparseableCells() {
+        assertThat(rowIds(filter(HOURS, "GT", "2"))).containsExactly(1L, 2L);
+        assertThat(rowIds(filter(HOURS, "GE", "10"))).containsExactly(1L);
+        assertThat(rowIds(filter(HOURS, "LT", "3"))).containsExactly(2L, 5L);
+        assertThat(rowIds(filter(HOURS, "LE", "-4"))).containsExactly(5L);
+        assertThat(rowIds(filter(HOURS, "EQ", "2.5"))).containsExactly(2L);
+        assertThat(rowIds(filter(HOURS, "NE", "10"))).containsExactly(2L, 3L, 4L, 5L);
+        assertThat(rowIds(filter(HOURS, "IN", null, "10", "-4"))).containsExactly(1L, 5L);
+        assertThat(rowIds(filter(HOURS, "IS_EMPTY", null))).containsExactly(4L);
+
+        assertThatThrownBy(() -> rowIds(filter(HOURS, "GT", "ten")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> rowIds(filter(HOURS, "GT", null)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void booleanFiltersAcceptTheUsualSpellings() {
+        assertThat(rowIds(filter(DONE, "EQ", "yes"))).containsExactly(1L, 4L);
+        assertThat(rowIds(filter(DONE, "EQ", "0"))).containsExactly(2L, 5L);
+        assertThat(rowIds(filter(DONE, "IS_EMPTY", null))).containsExactly(3L);
+    }
+
+    @Test
+    void frontEndDatePatternsAreTranslatedAndResolvedStrictly() {
+        // 29/02 exists in 2024; 31/02 does not and is neither a date nor empty
+        assertThat(rowIds(filter(DUE, "EQ", "29/02/2024"))).containsExactly(2L);
+        assertThat(rowIds(filter(DUE, "GE", "01/03/2024"))).containsExactly(1L, 4L);
+        assertThat(rowIds(filter(DUE, "LT", "2024-03-02"))).containsExactly(2L, 4L);
+        assertThatThrownBy(() -> rowIds(filter(DUE, "EQ", "31/02/2024")))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        CustomTableQueryDTO query = new CustomTableQueryDTO();
+        query.setSort(List.of(sort(DUE, "ASC")));
+        // Cells without a valid date sort last, in table order
+        assertThat(engine.query(TABLE_ID, query).getRowIds()).containsExactly(2L, 4L, 1L, 3L, 5L);
+    }
+
+    @Test
+    void aggregatesSkipMissingAndUnparseableValues() {
+        CustomTableQueryDTO query = new CustomTableQueryDTO();
+        query.setAggregates(List.of(
+                aggregate("SUM", HOURS), aggregate("AVG", HOURS), aggregate("MIN", HOURS),
+                aggregate("MAX", HOURS), aggregate("COUNT", HOURS), aggregate("COUNT", null),
+                aggregate("MIN", NAME), aggregate("MAX", DUE)));
+        CustomTableQueryResultDTO result = engine.query(TABLE_ID, query);
+
+        assertThat(result.getColumns()).containsExactly("SUM(Hours)", "AVG(Hours)", "MIN(Hours)",
+                "MAX(Hours)", "COUNT(Hours)", "COUNT(*)", "MIN(Name)", "MAX(Due)");
+        List<Object> values = result.getData().get(0);
+        assertThat((Double) values.get(0)).isCloseTo(8.5, within(1e-9));
+        assertThat((Double) values.get(1)).isCloseTo(8.5 / 3, within(1e-9));
+        assertThat(values.get(2)).isEqualTo(-4.0);
+        assertThat(values.get(3)).isEqualTo(10.0);
+        // COUNT counts non-empty cells, parseable or not
+        assertThat(values.get(4)).isEqualTo(4L);
+        assertThat(values.get(5)).isEqualTo(5L);
+        assertThat(values.get(6)).isEqualTo("Alpha");
+        assertThat(values.get(7)).isEqualTo("05/03/2024");
+    }
+
+    @Test
+    void aggregatesOfAGroupWithoutValuesAreEmpty() {
+        CustomTableQueryDTO query = new CustomTableQueryDTO();
+        query.setGroupBy(List.of(NAME));
+        query.setAggregates(List.of(
+                aggregate("SUM", HOURS), aggregate("AVG", HOURS), aggregate("MIN", HOURS),
+                aggregate("MAX", HOURS), aggregate("COUNT", HOURS)));
+        query.setSort(List.of(sort(NAME, "ASC")));
+        CustomTableQueryResultDTO result = engine.query(TABLE_ID, query);
+
+        // Groups "alpha", "beta", then the blank and missing names together
+        assertThat(result.getTotal()).isEqualTo(3L);
+        assertThat(result.getData().get(0)).containsExactly("Alpha", 6.0, 3.0, -4.0, 10.0, 2L);
+        assertThat(result.getData().get(1)).containsExactly("beta", 0.0, null, null, null, 0L);
+        assertThat(result.getData().get(2)).containsExactly("", 2.5, 2.5, 2.5, 2.5, 2L);
+
+        query.setAggregates(List.of(aggregate("SUM", NAME)));
+        assertThatThrownBy(() -> engine.query(TABLE_ID, query)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void vectorsAreRebuiltOnlyWhenTheRevisionChanges() {
+        CustomTableQueryDTO query = filter(NAME, "EQ", "gamma");
+        assertThat(engine.query(TABLE_ID, query).getRowIds()).isEmpty();
+
+        addRow("Gamma", "1", null, null);
+        // Same revision: the cached vectors are used and the new row is not seen yet
+        CustomTableQueryResultDTO cached = engine.query(TABLE_ID, query);
+        assertThat(cached.getRowIds()).isEmpty();
+        assertThat(cached.getRevision()).isEqualTo(1L);
+        verify(rowRepository, times(1)).findChunkAfter(eq(TABLE_ID), anyLong(), anyLong(), anyInt());
+
+        table.setRevision(2L);
+        CustomTableQueryResultDTO rebuilt = engine.query(TABLE_ID, query);
+        assertThat(rebuilt.getRowIds()).containsExactly(6L);
+        assertThat(rebuilt.getRevision()).isEqualTo(2L);
+        verify(rowRepository, times(2)).findChunkAfter(eq(TABLE_ID), anyLong(), anyLong(), anyInt());
+
+        engine.evict(TABLE_ID);
+        engine.query(TABLE_ID, query);
+        verify(rowRepository, times(3)).findChunkAfter(eq(TABLE_ID), anyLong(), anyLong(), anyInt());
+    }
+
+    private List<Long> rowIds(CustomTableQueryDTO query) {
+        return engine.query(TABLE_ID, query).getRowIds();
+    }
+
+    private void addRow(String name, String hours, String due, String done) {
+        Map<Long, Object> cells = new LinkedHashMap<>();
+        String[] values = {name, hours, due, done};
+        Long[] columns = {NAME, HOURS, DUE, DONE};
+        for (int c = 0; c < columns.length; c++) {
+            if (values[c] != null) {
+                cells.put(columns[c], values[c]);
+            }
+        }
+        long id = rows.size() + 1;
+        rows.add(CustomTableRow.builder().id(id).sortKey(id).cells(rowCodec.encode(cells)).build());
+    }
+
+    private static CustomColumn column(Long id, String name, String type, String dateFormat) {
+        return CustomColumn.builder().id(id).name(name).type(type).orderIndex(id.intValue())
+                .dateFormat(dateFormat).build();
+    }
+
+    private static CustomTableQueryDTO filter(Long columnId, String op, String value, String... values) {
+        TableQueryFilterDTO filter = new TableQueryFilterDTO();
+        filter.setColumnId(columnId);
+        filter.setOp(op);
+        filter.setValue(value);
+        if (values.length > 0) {
+            filter.setValues(Arrays.asList(values));
+        }
+        CustomTableQueryDTO query = new CustomTableQueryDTO();
+        query.setFilters(List.of(filter));
+        return query;
+    }
+
+    private static TableQuerySortDTO sort(Long columnId, String direction) {
+        TableQuerySortDTO sort = new TableQuerySortDTO();
+        sort.setColumnId(columnId);
+        sort.setDirection(direction);
+        return sort;
+    }
+
+    private static TableQueryAggregateDTO aggregate(String function, Long columnId) {
+        TableQueryAggregateDTO aggregate = new TableQueryAggregateDTO();
+        aggregate.setFunction(function);
+        aggregate.setColumnId(columnId);
+        return aggregate;
+    }
+}
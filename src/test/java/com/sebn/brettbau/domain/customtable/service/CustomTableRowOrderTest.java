@@ -0,0 +1,123 @@
+package com.sebn.brettbau.domain.customtable.service;
+
+import com.sebn.brettbau.domain.customtable.entity.CustomTableRow;
+import com.sebn.brettbau.domain.customtable.repository.CustomTableRowRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sort keys handed out by CustomTableRowOrder, on a repository that keeps
+ * the rows of one table in memory and orders them like the real queries.
+ */
+class CustomTableRowOrderTest {
+
+    private static final Long TABLE_ID = 1L;
+
+    private final List<CustomTableRow> rows = new ArrayList<>();
+    // Row ids in the order the inserts asked for
+    private final List<Long> expected = new ArrayList<>();
+    private long nextId = 1;
+    private CustomTableRowRepository rowRepository;
+    private CustomTableRowOrder rowOrder;
+
+    @BeforeEach
+    void setUp() {
+        rowRepository = mock(CustomTableRowRepository.class);
+        when(rowRepository.findByTableIdOrdered(TABLE_ID)).thenAnswer(invocation -> ordered());
+        when(rowRepository.findMaxSortKey(TABLE_ID)).thenAnswer(invocation ->
+                rows.stream().map(CustomTableRow::getSortKey).max(Long::compare).orElse(null));
+        when(rowRepository.findRowsAt(eq(TABLE_ID), anyInt(), anyInt())).thenAnswer(invocation -> {
+            List<CustomTableRow> ordered = ordered();
+            int offset = Math.min(invocation.<Integer>getArgument(1), ordered.size());
+            int limit = invocation.getArgument(2);
+            return ordered.subList(offset, Math.min(offset + limit, ordered.size()));
+        });
+        rowOrder = new CustomTableRowOrder(rowRepository);
+
+        for (int i = 0; i < 3; i++) {
+            add(CustomTableRowOrder.initialKey(i));
+        }
+        expected.addAll(ids());
+    }
+
+    @Test
+    void insertsAtTheHeadTheTailAndInTheMiddle() {
+        insert(0);
+        insert(null);
+        insert(2);
+        insert(ids().size());
+        // Past the end appends
+        insert(100);
+
+        assertThat(ids()).isEqualTo(expected);
+        verify(rowRepository, never()).saveAll(anyIterable());
+    }
+
+    @Test
+    void repeatedInsertsIntoTheSameGapRebalanceOnceTheGapIsUsedUp() {
+        for (int i = 0; i < 40; i++) {
+            insert(1);
+            assertThat(ids()).isEqualTo(expected);
+        }
+
+        // 32 halvings fit between two keys STEP apart; the rest needed a rebalance
+        verify(rowRepository, atLeastOnce()).saveAll(anyIterable());
+        assertThat(rows).hasSize(43);
+        assertThat(rows.stream().map(CustomTableRow::getSortKey).distinct().count()).isEqualTo(43);
+    }
+
+    @Test
+    void rebalanceKeepsTheOrderAndSpreadsTheKeys() {
+        rows.get(0).setSortKey(10L);
+        rows.get(1).setSortKey(11L);
+        rows.get(2).setSortKey(12L);
+        add(11L);
+        List<Long> before = ids();
+
+        rowOrder.rebalance(TABLE_ID);
+
+        assertThat(ids()).isEqualTo(before);
+        List<CustomTableRow> ordered = ordered();
+        for (int i = 0; i < ordered.size(); i++) {
+            assertThat(ordered.get(i).getSortKey()).isEqualTo(CustomTableRowOrder.initialKey(i));
+        }
+    }
+
+    private void insert(Integer position) {
+        long key = rowOrder.keyForInsert(TABLE_ID, position);
+        Long id = add(key);
+        int index = position == null ? expected.size() : Math.max(0, Math.min(position, expected.size()));
+        expected.add(index, id);
+    }
+
+    private Long add(long sortKey) {
+        CustomTableRow row = CustomTableRow.builder().id(nextId++).sortKey(sortKey).build();
+        rows.add(row);
+        return row.getId();
+    }
+
+    private List<CustomTableRow> ordered() {
+        return rows.stream()
+                .sorted(Comparator.comparing(CustomTableRow::getSortKey).thenComparing(CustomTableRow::getId))
+                .collect(Collectors.toList());
+    }
+
+    private List<Long> ids() {
+        return ordered().stream().map(CustomTableRow::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,167 @@
+package com.sebn.brettbau.domain.customtable.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sebn.brettbau.domain.customtable.dto.CustomTablePatchDTO;
+import com.sebn.brettbau.domain.customtable.dto.CustomTablePatchResultDTO;
+import com.sebn.brettbau.domain.customtable.dto.TableUpdateMessage;
+import com.sebn.brettbau.domain.customtable.entity.CustomColumn;
+import com.sebn.brettbau.domain.customtable.entity.CustomTable;
+import com.sebn.brettbau.domain.customtable.entity.CustomTableRow;
+import com.sebn.brettbau.domain.customtable.repository.CustomColumnRepository;
+import com.sebn.brettbau.domain.customtable.repository.CustomTableRepository;
+import com.sebn.brettbau.domain.customtable.repository.CustomTableRowRepository;
+import com.sebn.brettbau.domain.customtable.repository.CustomTableSessionRepository;
+import com.sebn.brettbau.exception.ConflictException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Version handling of the table service together with the hot cache; the
+ * repositories keep the version and revision of a single table in memory.
+ */
+class CustomTableServiceTest {
+
+    private static final Long TABLE_ID = 1L;
+    private static final Long COLUMN_ID = 10L;
+    private static final Long ROW_ID = 100L;
+    private static final Long NEW_ROW_ID = 101L;
+
+    private CustomTable table;
+    private CustomTableRepository tableRepository;
+    private JdbcTemplate jdbcTemplate;
+    private CustomTableService service;
+
+    @BeforeEach
+    void setUp() {
+        table = CustomTable.builder().id(TABLE_ID).name("Lines").version(3L).revision(7L).build();
+
+        tableRepository = mock(CustomTableRepository.class);
+        when(tableRepository.findById(TABLE_ID)).thenReturn(Optional.of(table));
+        when(tableRepository.findByIdForUpdate(TABLE_ID)).thenReturn(Optional.of(table));
+        when(tableRepository.save(any(CustomTable.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(tableRepository.touch(eq(TABLE_ID), any(), any())).thenAnswer(invocation -> {
+            table.setRevision(table.getRevision() + 1);
+            return 1;
+        });
+        when(tableRepository.bumpVersion(eq(TABLE_ID), any(), any())).thenAnswer(invocation -> {
+            table.setVersion(table.getVersion() + 1);
+            table.setRevision(table.getRevision() + 1);
+            return 1;
+        });
+        when(tableRepository.touchIfVersion(eq(TABLE_ID), anyLong(), any(), any())).thenAnswer(invocation -> {
+            if (!table.getVersion().equals(invocation.getArgument(1))) {
+                return 0;
+            }
+            table.setVersion(table.getVersion() + 1);
+            table.setRevision(table.getRevision() + 1);
+            return 1;
+        });
+
+        CustomColumnRepository columnRepository = mock(CustomColumnRepository.class);
+        when(columnRepository.findByTableIdOrderByOrderIndexAsc(TABLE_ID))
+                .thenReturn(List.of(CustomColumn.builder().id(COLUMN_ID).name("Line").orderIndex(0).build()));
+
+        CustomTableRowRepository rowRepository = mock(CustomTableRowRepository.class);
+        when(rowRepository.findByTableIdOrdered(TABLE_ID))
+                .thenReturn(List.of(CustomTableRow.builder().id(ROW_ID).sortKey(0L).cells("{}").build()));
+        when(rowRepository.countByTableId(TABLE_ID)).thenReturn(1L);
+        when(rowRepository.save(any(CustomTableRow.class))).thenAnswer(invocation -> {
+            CustomTableRow row = invocation.getArgument(0);
+            row.setId(NEW_ROW_ID);
+            return row;
+        });
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        CustomTableRowCodec rowCodec = new CustomTableRowCodec(new ObjectMapper());
+        CustomTableRowOrder rowOrder = mock(CustomTableRowOrder.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        CustomTableHotCache hotCache = new CustomTableHotCache(tableRepository, columnRepository, rowRepository, rowCodec,
+                rowOrder, jdbcTemplate, transactionManager);
+        service = new CustomTableService(tableRepository, columnRepository, rowRepository,
+                mock(CustomTableSessionRepository.class), rowCodec, rowOrder, hotCache,
+                mock(CustomTablePresence.class), mock(CustomTableQueryEngine.class));
+    }
+
+    @Test
+    void patchOnTheLoadedVersionAppliesAfterCellEdits() {
+        service.updateCell(TABLE_ID, cellUpdate("Line A"));
+
+        CustomTablePatchDTO patch = new CustomTablePatchDTO();
+        patch.setBaseVersion(3L);
+        patch.setName("Renamed");
+        CustomTablePatchResultDTO result = service.patchTable(TABLE_ID, patch, "alice");
+
+        // The pending edit was written before the patch, without moving the version
+        verify(jdbcTemplate).batchUpdate(contains("JSON_SET"), anyList());
+        assertThat(result.getVersion()).isEqualTo(4L);
+        assertThat(table.getName()).isEqualTo("Renamed");
+        assertThat(table.getRevision()).isEqualTo(9L);
+    }
+
+    @Test
+    void patchOnAnOutdatedVersionIsRejected() {
+        service.updateCell(TABLE_ID, cellUpdate("Line A"));
+
+        CustomTablePatchDTO first = new CustomTablePatchDTO();
+        first.setBaseVersion(3L);
+        first.setName("Renamed");
+        service.patchTable(TABLE_ID, first, "alice");
+
+        CustomTablePatchDTO second = new CustomTablePatchDTO();
+        second.setBaseVersion(3L);
+        second.setName("Renamed again");
+        assertThatThrownBy(() -> service.patchTable(TABLE_ID, second, "bob"))
+                .isInstanceOf(ConflictException.class);
+        assertThat(table.getVersion()).isEqualTo(4L);
+    }
+
+    @Test
+    void cellEditPastTheEndReportsTheIndexOfTheAppendedRow() {
+        TableUpdateMessage update = cellUpdate("Line B");
+        update.setRowIndex(5);
+        service.updateCell(TABLE_ID, update);
+
+        assertThat(update.getRowId()).isEqualTo(NEW_ROW_ID);
+        assertThat(update.getRowIndex()).isEqualTo(1);
+    }
+
+    @Test
+    void rowInsertPastTheEndReportsTheIndexOfTheAppendedRow() {
+        TableUpdateMessage update = cellUpdate(null);
+        update.setRowIndex(7);
+        service.insertRow(TABLE_ID, update);
+
+        assertThat(update.getRowId()).isEqualTo(NEW_ROW_ID);
+        assertThat(update.getRowIndex()).isEqualTo(1);
+        assertThat(table.getVersion()).isEqualTo(3L);
+    }
+
+    private static TableUpdateMessage cellUpdate(String value) {
+        TableUpdateMessage update = new TableUpdateMessage();
+        update.setTableId(TABLE_ID);
+        update.setColumnId(COLUMN_ID);
+        update.setRowIndex(0);
+        update.setNewValue(value);
+        update.setUpdatedBy("bob");
+        return update;
+    }
+}
@@ -0,0 +1,221 @@
+package com.sebn.brettbau.domain.preventive_maintenance.service;
+
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardImportResultDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardImportRowResultDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.entity.Board;
+import com.sebn.brettbau.domain.preventive_maintenance.entity.Pack;
+import com.sebn.brettbau.domain.preventive_maintenance.entity.Project;
+import com.sebn.brettbau.domain.preventive_maintenance.entity.Site;
+import com.sebn.brettbau.domain.preventive_maintenance.repository.BoardRepository;
+import com.sebn.brettbau.domain.preventive_maintenance.repository.PackRepository;
+import com.sebn.brettbau.domain.preventive_maintenance.repository.ProjectRepository;
+import com.sebn.brettbau.domain.preventive_maintenance.repository.SiteRepository;
+import com.sebn.brettbau.domain.role.entity.Role;
+import com.sebn.brettbau.domain.role.repository.RoleRepository;
+import com.sebn.brettbau.domain.user.entity.User;
+import com.sebn.brettbau.domain.user.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Per-row results of board imports against an in-memory database. Tests run
+ * outside a test transaction so a rejected batch is really rolled back before
+ * its rows are retried one by one, as on MySQL.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:board_import;MODE=MySQL;NON_KEYWORDS=YEAR,MONTH,VALUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.enabled=false",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BoardImportServiceTest {
+
+    // Longer than the board_number column
+    private static final String TOO_LONG = "B".repeat(300);
+
+    @Autowired
+    private BoardRepository boardRepository;
+    @Autowired
+    private PackRepository packRepository;
+    @Autowired
+    private ProjectRepository projectRepository;
+    @Autowired
+    private SiteRepository siteRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private BoardImportService importService;
+    private Long packId;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        Site site = siteRepository.save(Site.builder().name("SEBN Ma1").build());
+        Project project = projectRepository.save(Project.builder().name("Q7").year(2024).site(site).build());
+        packId = packRepository.save(Pack.builder().name("Pack 1").site(site).project(project).build()).getId();
+        Role role = roleRepository.save(Role.builder().name("USER").build());
+        userId = userRepository.save(User.builder()
+                .username("tech").password("secret").matricule("M-1").role(role).build()).getId();
+
+        importService = new BoardImportService(packRepository, userRepository, jdbcTemplate, transactionManager,
+                mock(BoardSearchIndex.class), mock(BoardFacetCache.class),
+                mock(MaintenanceStatusService.class), mock(ReferenceDataVersions.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        boardRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+        packRepository.deleteAll();
+        projectRepository.deleteAll();
+        siteRepository.deleteAll();
+    }
+
+    @Test
+    void unknownPacksAndUsersFailOnlyTheirRows() {
+        BoardImportResultDTO result = importService.importBoards(List.of(
+                board("B-1", packId, userId),
+                board("B-2", packId + 100, null),
+                board("B-3", null, userId + 100),
+                board("B-4", packId + 100, userId + 100),
+                board("B-5", null, null)));
+
+        assertThat(result.getTotal()).isEqualTo(5);
+        assertThat(result.getCreated()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getRows()).extracting(BoardImportRowResultDTO::getRowNumber)
+                .containsExactly(1, 2, 3, 4, 5);
+        assertThat(result.getRows()).extracting(BoardImportRowResultDTO::getStatus).containsExactly(
+                BoardImportRowResultDTO.CREATED, BoardImportRowResultDTO.FAILED, BoardImportRowResultDTO.FAILED,
+                BoardImportRowResultDTO.FAILED, BoardImportRowResultDTO.CREATED);
+
+        List<BoardImportRowResultDTO> rows = result.getRows();
+        assertThat(rows.get(1).getMessage()).isEqualTo("Pack not found with id: " + (packId + 100));
+        assertThat(rows.get(2).getMessage()).isEqualTo("User not found with id: " + (userId + 100));
+        assertThat(rows.get(3).getMessage())
+                .contains("Pack not found with id: " + (packId + 100))
+                .contains("User not found with id: " + (userId + 100));
+        assertThat(rows.get(1).getBoardId()).isNull();
+
+        assertCreatedRowsAreStored(result);
+        Board stored = boardRepository.findById(rows.get(0).getBoardId()).orElseThrow();
+        assertThat(stored.getPack().getId()).isEqualTo(packId);
+        assertThat(stored.getAssignedUser().getId()).isEqualTo(userId);
+    }
+
+    @Test
+    void duplicateRowsAreEachReported() {
+        BoardImportResultDTO result = importService.importBoards(List.of(
+                board("B-1", packId, null),
+                board("B-1", packId, null),
+                board("B-2", packId + 100, null),
+                board("B-2", packId + 100, null)));
+
+        assertThat(result.getRows()).extracting(BoardImportRowResultDTO::getBoardNumber)
+                .containsExactly("B-1", "B-1", "B-2", "B-2");
+        assertThat(result.getRows()).extracting(BoardImportRowResultDTO::getStatus).containsExactly(
+                BoardImportRowResultDTO.CREATED, BoardImportRowResultDTO.CREATED,
+                BoardImportRowResultDTO.FAILED, BoardImportRowResultDTO.FAILED);
+        assertThat(result.getRows().get(0).getBoardId()).isNotEqualTo(result.getRows().get(1).getBoardId());
+        assertThat(result.getRows().get(3).getMessage()).isEqualTo("Pack not found with id: " + (packId + 100));
+        assertCreatedRowsAreStored(result);
+    }
+
+    @Test
+    void aRejectedBatchIsRetriedRowByRow() {
+        BoardImportResultDTO result = importService.importBoards(List.of(
+                board("B-1", packId, userId),
+                board(TOO_LONG, packId, null),
+                board("B-3", null, null),
+                board("B-4", null, userId)));
+
+        assertThat(result.getRows()).extracting(BoardImportRowResultDTO::getStatus).containsExactly(
+                BoardImportRowResultDTO.CREATED, BoardImportRowResultDTO.FAILED,
+                BoardImportRowResultDTO.CREATED, BoardImportRowResultDTO.CREATED);
+        BoardImportRowResultDTO rejected = result.getRows().get(1);
+        assertThat(rejected.getBoardNumber()).isEqualTo(TOO_LONG);
+        assertThat(rejected.getBoardId()).isNull();
+        assertThat(rejected.getMessage()).isNotBlank();
+
+        // The rows the first attempt had already written were rolled back, not stored twice
+        assertThat(boardRepository.count()).isEqualTo(3);
+        assertCreatedRowsAreStored(result);
+    }
+
+    @Test
+    void fileRowsAreNumberedByLine() {
+        String csv = "Board Number,FB Name,FB Size,Pack Id,Quantity,Colour\n"
+                + "B-1,FB 1,S," + packId + ",2,red\n"
+                + ",,,,,\n"
+                + "B-2,FB 2,S," + packId + ",many,blue\n"
+                + "B-3,,S,,,\n"
+                + "B-4,FB 4,S,,1,\n";
+        BoardImportResultDTO result = importService.importFile(new MockMultipartFile(
+                "file", "boards.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(result.getIgnoredColumns()).containsExactly("Colour");
+        assertThat(result.getRows()).extracting(BoardImportRowResultDTO::getRowNumber).containsExactly(2, 4, 5, 6);
+        assertThat(result.getRows()).extracting(BoardImportRowResultDTO::getStatus).containsExactly(
+                BoardImportRowResultDTO.CREATED, BoardImportRowResultDTO.FAILED,
+                BoardImportRowResultDTO.FAILED, BoardImportRowResultDTO.CREATED);
+        assertThat(result.getRows().get(1).getMessage()).isEqualTo("Quantity: invalid value 'many'");
+        assertThat(result.getRows().get(2).getMessage()).isEqualTo("FB Name is required");
+        assertCreatedRowsAreStored(result);
+    }
+
+    // Every created row points at a stored board with its board number, and nothing else was stored
+    private void assertCreatedRowsAreStored(BoardImportResultDTO result) {
+        Map<Long, Board> stored = boardRepository.findAll().stream()
+                .collect(Collectors.toMap(Board::getId, Function.identity()));
+        List<BoardImportRowResultDTO> created = result.getRows().stream()
+                .filter(row -> BoardImportRowResultDTO.CREATED.equals(row.getStatus()))
+                .collect(Collectors.toList());
+        assertThat(created).hasSize(result.getCreated());
+        assertThat(stored).hasSize(created.size());
+        for (BoardImportRowResultDTO row : created) {
+            assertThat(stored).containsKey(row.getBoardId());
+            assertThat(stored.get(row.getBoardId()).getBoardNumber()).isEqualTo(row.getBoardNumber());
+        }
+    }
+
+    private static BoardDTO board(String boardNumber, Long packId, Long userId) {
+        BoardDTO board = new BoardDTO();
+        board.setBoardNumber(boardNumber);
+        board.setFbName("FB " + boardNumber.length());
+        board.setFbSize("S");
+        board.setPackId(packId);
+        board.setAssignedUserId(userId);
+        return board;
+    }
+}
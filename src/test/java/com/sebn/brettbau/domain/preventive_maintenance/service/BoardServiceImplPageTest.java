@@ -0,0 +1,173 @@
+package com.sebn.brettbau.domain.preventive_maintenance.service;
+
+import com.sebn.brettbau.domain.preventive_maintenance.controller.BoardController;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.dto.BoardPageDTO;
+import com.sebn.brettbau.domain.preventive_maintenance.entity.Board;
+import com.sebn.brettbau.domain.preventive_maintenance.repository.BoardRepository;
+import com.sebn.brettbau.domain.preventive_maintenance.repository.PackRepository;
+import com.sebn.brettbau.domain.role.service.RoleService;
+import com.sebn.brettbau.domain.user.entity.User;
+import com.sebn.brettbau.domain.user.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Keyset pagination of /api/boards/page against an in-memory database, which
+ * like MySQL sorts NULL first ascending and last descending.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:boards;MODE=MySQL;NON_KEYWORDS=YEAR,MONTH,VALUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.enabled=false",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class BoardServiceImplPageTest {
+
+    private static final List<String> SORTS = List.of("id", "boardNumber", "projet", "status", "creationDate");
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    private BoardServiceImpl boardService;
+
+    @BeforeEach
+    void setUp() {
+        String[] projets = {null, "Alpha", "Alpha", null, "Beta", "alpha2", "Beta", null};
+        String[] statuses = {"PENDING", null, "DANGER", "PENDING"};
+        List<Board> boards = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            boards.add(Board.builder()
+                    // Duplicate board numbers too
+                    .boardNumber("B-" + (i % 9))
+                    .fbName("FB " + i)
+                    .fbSize("S")
+                    .projet(projets[i % projets.length])
+                    .status(statuses[i % statuses.length])
+                    .creationDate(i % 5 == 0 ? null : LocalDate.of(2024, 1, 1 + i % 3))
+                    .build());
+        }
+        boardRepository.saveAll(boards);
+
+        boardService = new BoardServiceImpl();
+        ReflectionTestUtils.setField(boardService, "boardRepository", boardRepository);
+    }
+
+    @Test
+    void pagingVisitsEveryBoardOnceInSortOrder() {
+        for (String sort : SORTS) {
+            for (String direction : List.of("asc", "desc")) {
+                Sort.Direction sortDirection = "desc".equals(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
+                Sort order = "id".equals(sort)
+                        ? Sort.by(sortDirection, "id")
+                        : Sort.by(sortDirection, sort).and(Sort.by(sortDirection, "id"));
+                List<Long> expected = ids(boardRepository.findBoardRows(null, order, null));
+
+                for (int size : new int[]{1, 4, 7, 23, 50}) {
+                    List<Long> seen = new ArrayList<>();
+                    String cursor = null;
+                    int pages = 0;
+                    do {
+                        BoardPageDTO page = boardService.getBoardsPage(
+                                null, null, null, null, sort, direction, cursor, size);
+                        seen.addAll(ids(page.getContent()));
+                        assertThat(page.isHasNext()).isEqualTo(page.getNextCursor() != null);
+                        cursor = page.getNextCursor();
+                        assertThat(++pages).isLessThanOrEqualTo(23);
+                    } while (cursor != null);
+
+                    String description = sort + " " + direction + ", size " + size;
+                    assertThat(new HashSet<>(seen)).as(description).hasSameSizeAs(seen);
+                    assertThat(seen).as(description).isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    void filtersApplyOnEveryPage() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            BoardPageDTO page = boardService.getBoardsPage(null, "Alpha", null, null, "status", "desc", cursor, 2);
+            assertThat(page.getContent()).allSatisfy(board -> assertThat(board.getProjet()).isEqualTo("Alpha"));
+            seen.addAll(ids(page.getContent()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).hasSize(6).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void tamperedCursorsAreRejected() {
+        String valid = boardService.getBoardsPage(null, null, null, null, "creationDate", "asc", null, 2)
+                .getNextCursor();
+        assertThat(valid).isNotNull();
+
+        List<String> invalid = List.of(
+                "%%%",
+                cursor("projet:3:=Alpha"),
+                cursor("creationDate:abc:=2024-01-01"),
+                cursor("creationDate:3:2024-01-01"),
+                cursor("creationDate:3:=yesterday"),
+                cursor("creationDate:3"),
+                valid.substring(1));
+        for (String cursor : invalid) {
+            assertThatThrownBy(() -> boardService.getBoardsPage(
+                    null, null, null, null, "creationDate", "asc", cursor, 2))
+                    .as(cursor)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void invalidCursorIsABadRequest() {
+        RoleService roleService = mock(RoleService.class);
+        when(roleService.hasPermissionOrIndirectAccess(any(), any(), any(), any())).thenReturn(true);
+        UserService userService = mock(UserService.class);
+        when(userService.getCurrentUser()).thenReturn(new User());
+        BoardController controller = new BoardController(boardService, roleService, userService,
+                mock(PackRepository.class), mock(BoardImportService.class), mock(ReferenceDataVersions.class));
+
+        ResponseEntity<?> response = controller.getBoardsPage(null, null, null, null, null,
+                "projet", "asc", cursor("projet:1:Alpha"), 10);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        ResponseEntity<?> ok = controller.getBoardsPage(null, null, null, null, null,
+                "projet", "asc", null, 10);
+        assertThat(ok.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private static String cursor(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<Long> ids(List<BoardDTO> boards) {
+        return boards.stream().map(BoardDTO::getId).collect(Collectors.toList());
+    }
+}
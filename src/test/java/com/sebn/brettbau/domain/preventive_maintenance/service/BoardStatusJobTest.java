@@ -0,0 +1,44 @@
+package com.sebn.brettbau.domain.preventive_maintenance.service;
+
+import com.sebn.brettbau.domain.preventive_maintenance.repository.BoardRepository;
+import com.sebn.brettbau.domain.preventive_maintenance.repository.ChecklistRepository;
+import com.sebn.brettbau.domain.preventive_maintenance.repository.MaintenanceScheduleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BoardStatusJobTest {
+
+    // Wednesday of ISO week 2024-W10
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 6);
+
+    @Test
+    void onlyPacksWhoseLatestScheduledWeekHasPassedAreOverdue() {
+        MaintenanceScheduleRepository scheduleRepository = mock(MaintenanceScheduleRepository.class);
+        when(scheduleRepository.findCalendarSlots()).thenReturn(List.of(
+                new Object[]{1L, 2024, 8},
+                new Object[]{2L, 2024, 8},
+                new Object[]{2L, 2024, 10},
+                new Object[]{4L, 2023, 50},
+                new Object[]{4L, 2024, 20},
+                new Object[]{5L, 2024, 12}));
+        MaintenanceCalendar calendar = new MaintenanceCalendar(scheduleRepository);
+        calendar.reload();
+
+        BoardRepository boardRepository = mock(BoardRepository.class);
+        // Pack 3 has no schedule at all
+        when(boardRepository.findPackIdsWithPendingBoards()).thenReturn(List.of(5L, 4L, 3L, 2L, 1L));
+
+        BoardStatusJob job = new BoardStatusJob(mock(ChecklistRepository.class), boardRepository,
+                mock(PlatformTransactionManager.class), mock(ReferenceDataVersions.class), calendar);
+
+        // Pack 2 is due this week and pack 5 only later
+        assertThat(job.packsPastScheduledWeek(TODAY)).containsExactly(1L, 4L);
+    }
+}
@@ -0,0 +1,92 @@
+package com.sebn.brettbau.domain.preventive_maintenance.service;
+
+import com.sebn.brettbau.domain.preventive_maintenance.repository.BoardRepository;
+import com.sebn.brettbau.domain.preventive_maintenance.repository.ChecklistRepository;
+import com.sebn.brettbau.domain.preventive_maintenance.repository.PackRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MaintenanceStatusServiceTest {
+
+    private static final Long PACK_ID = 7L;
+
+    private PackRepository packRepository;
+    private BoardRepository boardRepository;
+    private MaintenanceStatusService service;
+    private int year;
+
+    @BeforeEach
+    void setUp() {
+        packRepository = mock(PackRepository.class);
+        when(packRepository.existsById(PACK_ID)).thenReturn(true);
+        boardRepository = mock(BoardRepository.class);
+        when(boardRepository.findStatusKeysByPackIds(anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, "B-1", PACK_ID}));
+        ChecklistRepository checklistRepository = mock(ChecklistRepository.class);
+        when(checklistRepository.findLatestByPackIds(anyCollection())).thenReturn(List.of());
+
+        service = new MaintenanceStatusService(packRepository, boardRepository,
+                mock(MaintenanceCalendar.class), checklistRepository);
+        ReflectionTestUtils.setField(service, "ttlMs", 600000L);
+        ReflectionTestUtils.setField(service, "maxWeeksPerPack", 2);
+        year = LocalDate.now().get(IsoFields.WEEK_BASED_YEAR);
+    }
+
+    @Test
+    void yearsFarFromTodayAreRejected() {
+        assertThatThrownBy(() -> service.getStatuses(null, null, PACK_ID, 99999, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.getStatuses(null, null, PACK_ID,
+                year - MaintenanceStatusService.MAX_YEARS_AWAY - 1, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void weeksMissingFromTheYearAreRejected() {
+        // Most ISO years have 52 weeks; take the first one from this year on
+        int shortYear = year;
+        while (LocalDate.of(shortYear, 1, 4).range(IsoFields.WEEK_OF_WEEK_BASED_YEAR).getMaximum() != 52) {
+            shortYear++;
+        }
+        int inShortYear = shortYear;
+        assertThatThrownBy(() -> service.getStatuses(null, null, PACK_ID, inShortYear, 53))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.getStatuses(null, null, PACK_ID, year, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void unknownPacksAreRejected() {
+        assertThatThrownBy(() -> service.getStatuses(null, null, 8L, year, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void onlyTheMostRecentlyComputedWeeksOfAPackAreKept() throws InterruptedException {
+        service.getStatuses(null, null, PACK_ID, year, 1);
+        Thread.sleep(2);
+        service.getStatuses(null, null, PACK_ID, year, 2);
+        Thread.sleep(2);
+        service.getStatuses(null, null, PACK_ID, year, 3);
+        verify(boardRepository, times(3)).findStatusKeysByPackIds(anyCollection());
+
+        // Weeks 2 and 3 are still cached, week 1 was dropped
+        service.getStatuses(null, null, PACK_ID, year, 3);
+        service.getStatuses(null, null, PACK_ID, year, 2);
+        verify(boardRepository, times(3)).findStatusKeysByPackIds(anyCollection());
+        service.getStatuses(null, null, PACK_ID, year, 1);
+        verify(boardRepository, times(4)).findStatusKeysByPackIds(anyCollection());
+    }
+}